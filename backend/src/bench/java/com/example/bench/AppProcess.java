@@ -0,0 +1,77 @@
+package com.example.bench;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A backend jar booted as a child process for a load-test run. Output goes to
+ * {@code target/loadtest-<label>.log}; the process counts as started once Spring Boot
+ * logs its startup line, which happens after the data-loading check has finished.
+ */
+final class AppProcess {
+
+    private static final String STARTED_MARKER = "Started CelebrityShortestPathFinderApplication";
+
+    private final Process process;
+    private final Path logFile;
+    private final int port;
+
+    private AppProcess(Process process, Path logFile, int port) {
+        this.process = process;
+        this.logFile = logFile;
+        this.port = port;
+    }
+
+    static AppProcess start(String label, Path jar, Map<String, String> options, Map<String, String> extraEnv) throws IOException {
+        int port = Integer.parseInt(options.getOrDefault("port", "18080"));
+        Path logFile = Paths.get("target", "loadtest-" + label + ".log");
+        Files.createDirectories(logFile.getParent());
+
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        ProcessBuilder pb = new ProcessBuilder(java,
+                "-Xmx" + options.getOrDefault("heap", "1g"), "-XX:+UseG1GC",
+                "-jar", jar.toAbsolutePath().toString(),
+                "--server.port=" + port);
+        Map<String, String> env = pb.environment();
+        env.put("SPRING_PROFILES_ACTIVE", "database,loadtest");
+        env.put("SPRING_DATASOURCE_URL", options.getOrDefault("db-url", "jdbc:postgresql://localhost:5432/celebrity_graph"));
+        if (options.containsKey("data")) env.put("GRAPH_RESOURCE_DIR", Paths.get(options.get("data")).toAbsolutePath().toString());
+        env.putAll(extraEnv);
+        pb.redirectErrorStream(true);
+        pb.redirectOutput(logFile.toFile());
+
+        System.out.println("[" + label + "] starting " + jar + " on port " + port + (extraEnv.isEmpty() ? "" : " with " + extraEnv)
+                + " (log: " + logFile + ")");
+        return new AppProcess(pb.start(), logFile, port);
+    }
+
+    String baseUrl() {
+        return "http://localhost:" + port;
+    }
+
+    boolean started() {
+        try {
+            return Files.readString(logFile, StandardCharsets.UTF_8).contains(STARTED_MARKER);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    void checkAlive() {
+        if (!process.isAlive()) {
+            throw new IllegalStateException("Backend exited with code " + process.exitValue() + ", see " + logFile);
+        }
+    }
+
+    void stop() throws InterruptedException {
+        process.destroy();
+        if (!process.waitFor(30, TimeUnit.SECONDS)) {
+            process.destroyForcibly().waitFor();
+        }
+    }
+}
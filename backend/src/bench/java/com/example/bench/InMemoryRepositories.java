@@ -0,0 +1,183 @@
+package com.example.bench;
+
+import com.example.entity.Celebrity;
+import com.example.entity.Title;
+import com.example.repository.CelebrityRepository;
+import com.example.repository.CelebrityTitleRepository;
+import com.example.repository.TitleRepository;
+import com.example.service.DatabaseGraphService;
+import com.example.service.GraphReadiness;
+import com.example.service.GraphStatsService;
+import com.example.service.SearchMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.util.*;
+
+/**
+ * Repository stand-ins answering the queries {@code DatabaseGraphService} issues from a
+ * {@link SyntheticGraph}. Every call returns freshly allocated lists and entities, the way
+ * Spring Data would, so allocation profiles reflect the service code rather than a cache.
+ * Database round-trip latency is deliberately not simulated; the load-test harness covers that.
+ */
+public final class InMemoryRepositories {
+
+    private final SyntheticGraph graph;
+    private final Integer[] celebritiesByName;   // celebrity indexes sorted by lower-case name
+    private final String[] sortedLowerNames;
+
+    public InMemoryRepositories(SyntheticGraph graph) {
+        this.graph = graph;
+        celebritiesByName = new Integer[graph.celebrityCount()];
+        for (int i = 0; i < celebritiesByName.length; i++) celebritiesByName[i] = i;
+        Arrays.sort(celebritiesByName, Comparator.comparing(i -> graph.celebrityName(i).toLowerCase()));
+        sortedLowerNames = new String[celebritiesByName.length];
+        for (int i = 0; i < celebritiesByName.length; i++) {
+            sortedLowerNames[i] = graph.celebrityName(celebritiesByName[i]).toLowerCase();
+        }
+    }
+
+    /** A graph service wired to these repositories, as Spring would do with the JPA ones. */
+    public DatabaseGraphService newGraphService() {
+        DatabaseGraphService service = new DatabaseGraphService();
+        ReflectionTestUtils.setField(service, "celebrityRepository", celebrityRepository());
+        ReflectionTestUtils.setField(service, "celebrityTitleRepository", celebrityTitleRepository());
+        ReflectionTestUtils.setField(service, "titleRepository", titleRepository());
+        ReflectionTestUtils.setField(service, "searchMetrics", new SearchMetrics(new SimpleMeterRegistry()));
+        ReflectionTestUtils.setField(service, "graphStats", new GraphStatsService()); // no snapshot: plain smaller-queue rule
+        GraphReadiness readiness = new GraphReadiness();
+        ReflectionTestUtils.setField(readiness, "phase", GraphReadiness.Phase.READY);
+        ReflectionTestUtils.setField(service, "readiness", readiness);
+        return service;
+    }
+
+    public CelebrityRepository celebrityRepository() {
+        return proxy(CelebrityRepository.class, (p, method, args) -> switch (method.getName()) {
+            case "findById" -> Optional.ofNullable(celebrity((String) args[0]));
+            case "findByNameIgnoreCase" -> findByName((String) args[0]);
+            case "findTop50ByNameContainingIgnoreCase" -> findByNameContaining((String) args[0], 50);
+            case "findByNameStartingWithIgnoreCaseOrderByNameAsc" -> findByPrefix((String) args[0], (Pageable) args[1]);
+            case "count" -> (long) graph.celebrityCount();
+            default -> throw new UnsupportedOperationException(method.getName());
+        });
+    }
+
+    public CelebrityTitleRepository celebrityTitleRepository() {
+        return proxy(CelebrityTitleRepository.class, (p, method, args) -> switch (method.getName()) {
+            case "findConnectedCelebrityIds" -> connected((String) args[0]);
+            case "findTitleIdsByCelebrityId" -> titleIds((String) args[0]);
+            case "findCelebrityIdsByTitleId" -> castIds((String) args[0]);
+            case "countByCelebrityId" -> (long) titlesOf((String) args[0]).length;
+            default -> throw new UnsupportedOperationException(method.getName());
+        });
+    }
+
+    public TitleRepository titleRepository() {
+        return proxy(TitleRepository.class, (p, method, args) -> switch (method.getName()) {
+            case "findById" -> Optional.ofNullable(title((String) args[0]));
+            default -> throw new UnsupportedOperationException(method.getName());
+        });
+    }
+
+    private Celebrity celebrity(String id) {
+        int index = celebrityIndex(id);
+        return index < 0 ? null : new Celebrity(id, graph.celebrityName(index), index);
+    }
+
+    private Title title(String id) {
+        int index = parseIndex(id, "tt", graph.titleCount());
+        return index < 0 ? null : new Title(id, graph.titleName(index), index);
+    }
+
+    private List<String> connected(String id) {
+        int index = celebrityIndex(id);
+        if (index < 0) return new ArrayList<>();
+        int[] neighbors = graph.neighbors(index);
+        List<String> out = new ArrayList<>(neighbors.length);
+        for (int n : neighbors) out.add(graph.celebrityId(n));
+        return out;
+    }
+
+    private List<String> titleIds(String id) {
+        int[] titles = titlesOf(id);
+        List<String> out = new ArrayList<>(titles.length);
+        for (int t : titles) out.add(graph.titleId(t));
+        return out;
+    }
+
+    private List<String> castIds(String titleId) {
+        int index = parseIndex(titleId, "tt", graph.titleCount());
+        if (index < 0) return new ArrayList<>();
+        List<String> out = new ArrayList<>();
+        for (int c : graph.cast(index)) out.add(graph.celebrityId(c));
+        return out;
+    }
+
+    private int[] titlesOf(String id) {
+        int index = celebrityIndex(id);
+        return index < 0 ? new int[0] : graph.titlesOf(index);
+    }
+
+    private Optional<Celebrity> findByName(String name) {
+        int pos = Arrays.binarySearch(sortedLowerNames, name.toLowerCase());
+        if (pos < 0) return Optional.empty();
+        int index = celebritiesByName[pos];
+        return Optional.of(new Celebrity(graph.celebrityId(index), graph.celebrityName(index), index));
+    }
+
+    private List<Celebrity> findByNameContaining(String fragment, int limit) {
+        String needle = fragment.toLowerCase();
+        List<Celebrity> out = new ArrayList<>();
+        for (int i = 0; i < graph.celebrityCount() && out.size() < limit; i++) {
+            if (graph.celebrityName(i).toLowerCase().contains(needle)) {
+                out.add(new Celebrity(graph.celebrityId(i), graph.celebrityName(i), i));
+            }
+        }
+        return out;
+    }
+
+    private PageImpl<Celebrity> findByPrefix(String prefix, Pageable page) {
+        String needle = prefix.toLowerCase();
+        int pos = Arrays.binarySearch(sortedLowerNames, needle);
+        if (pos < 0) pos = -pos - 1;
+        pos += (int) page.getOffset();
+        List<Celebrity> out = new ArrayList<>(page.getPageSize());
+        while (pos < sortedLowerNames.length && out.size() < page.getPageSize() && sortedLowerNames[pos].startsWith(needle)) {
+            int index = celebritiesByName[pos++];
+            out.add(new Celebrity(graph.celebrityId(index), graph.celebrityName(index), index));
+        }
+        return new PageImpl<>(out, page, out.size());
+    }
+
+    private int celebrityIndex(String id) {
+        return parseIndex(id, "nm", graph.celebrityCount());
+    }
+
+    private static int parseIndex(String id, String prefix, int bound) {
+        if (id == null || !id.startsWith(prefix)) return -1;
+        try {
+            int index = Integer.parseInt(id.substring(2)) - 1;
+            return index >= 0 && index < bound ? index : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (p, method, args) -> {
+            if (method.getDeclaringClass() == Object.class) {
+                return switch (method.getName()) {
+                    case "hashCode" -> System.identityHashCode(p);
+                    case "equals" -> p == args[0];
+                    default -> type.getSimpleName() + "(in-memory)";
+                };
+            }
+            return handler.invoke(p, method, args);
+        });
+    }
+}
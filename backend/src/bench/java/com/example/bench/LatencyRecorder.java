@@ -0,0 +1,44 @@
+package com.example.bench;
+
+import java.util.Arrays;
+
+/**
+ * Thread-safe latency sample collector for one endpoint. Samples are kept raw (a
+ * replay run is at most a few hundred thousand requests) so percentiles are exact.
+ */
+final class LatencyRecorder {
+
+    private long[] samples = new long[4096];
+    private int size;
+    private long errors;
+
+    synchronized void record(long nanos, boolean ok) {
+        if (!ok) errors++;
+        if (size == samples.length) samples = Arrays.copyOf(samples, size * 2);
+        samples[size++] = nanos;
+    }
+
+    synchronized Snapshot snapshot(long wallNanos) {
+        long[] sorted = Arrays.copyOf(samples, size);
+        Arrays.sort(sorted);
+        return new Snapshot(size, errors, wallNanos, sorted);
+    }
+
+    record Snapshot(int count, long errors, long wallNanos, long[] sorted) {
+
+        double throughput() {
+            return wallNanos == 0 ? 0 : count / (wallNanos / 1e9);
+        }
+
+        /** Nearest-rank percentile in milliseconds. */
+        double percentileMillis(double p) {
+            if (sorted.length == 0) return 0;
+            int rank = (int) Math.ceil(p / 100.0 * sorted.length) - 1;
+            return sorted[Math.max(0, Math.min(sorted.length - 1, rank))] / 1e6;
+        }
+
+        double maxMillis() {
+            return sorted.length == 0 ? 0 : sorted[sorted.length - 1] / 1e6;
+        }
+    }
+}
@@ -0,0 +1,337 @@
+package com.example.bench;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * End-to-end load test: replays a query log of API calls against a running backend (or one
+ * it boots from a jar) at a fixed concurrency and reports latency percentiles, throughput and
+ * Hikari pool wait time. Commands:
+ *
+ * <pre>
+ * generate --out DIR [--celebrities 200000] [--seed 42] [--queries 20000] [--path-ratio 0.2] [--photo-ratio 0]
+ * replay   --target URL|JAR --log FILE [--concurrency 20] [--requests N] [--warmup N] [--env K=V,K=V]
+ *          [--tmdb-latency-ms MS]
+ * compare  --a URL|JAR --b URL|JAR --log FILE [same options as replay] [--a-env K=V,..] [--b-env K=V,..]
+ * </pre>
+ *
+ * A query log holds one request path per line ({@code /api/shortest-path?id1=..&id2=..});
+ * blank lines and {@code #} comments are ignored, so paths cut from an nginx access log work too.
+ * Jar targets are started with the {@code database,loadtest} profiles against {@code --db-url}
+ * with {@code GRAPH_RESOURCE_DIR=--data}, so an empty database is loaded from the generated
+ * {@code cast.csv.gz} on first boot. {@code --tmdb-latency-ms} starts a {@link TmdbStubServer} and points
+ * jar targets at it, so photo lookups in the log exercise the TMDB client; {@code --a-env VIRTUAL_THREADS=false
+ * --b-env VIRTUAL_THREADS=true} compares platform and virtual request threads on the same jar.
+ */
+public final class LoadReplayHarness {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final Map<String, String> options;
+    private final HttpClient client;
+
+    private LoadReplayHarness(Map<String, String> options) {
+        this.options = options;
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0) {
+            System.err.println("usage: generate|replay|compare [--option value ...] (see class javadoc)");
+            System.exit(2);
+        }
+        Map<String, String> options = new HashMap<>();
+        for (int i = 1; i + 1 < args.length; i += 2) {
+            if (!args[i].startsWith("--")) throw new IllegalArgumentException("Expected --option, got " + args[i]);
+            options.put(args[i].substring(2), args[i + 1]);
+        }
+        LoadReplayHarness harness = new LoadReplayHarness(options);
+        switch (args[0]) {
+            case "generate" -> harness.generate();
+            case "replay" -> harness.print(harness.run("run", harness.required("target"), "env"));
+            case "compare" -> {
+                RunResult a = harness.run("A", harness.required("a"), "a-env");
+                RunResult b = harness.run("B", harness.required("b"), "b-env");
+                harness.print(a);
+                harness.print(b);
+                harness.printComparison(a, b);
+            }
+            default -> throw new IllegalArgumentException("Unknown command: " + args[0]);
+        }
+    }
+
+    // --- generate ---
+
+    private void generate() throws IOException {
+        Path out = Paths.get(required("out"));
+        Files.createDirectories(out);
+        int celebrities = intOption("celebrities", 200_000);
+        SyntheticGraph graph = SyntheticGraph.generate(celebrities, Long.parseLong(options.getOrDefault("seed", "42")));
+        graph.writeCastCsvGz(out.resolve("cast.csv.gz"));
+
+        // Endpoints are drawn with the same hub bias as casts, so popular people dominate like real traffic
+        SplittableRandom random = new SplittableRandom(99L);
+        double pathRatio = Double.parseDouble(options.getOrDefault("path-ratio", "0.2"));
+        double photoRatio = Double.parseDouble(options.getOrDefault("photo-ratio", "0"));
+        int queries = intOption("queries", 20_000);
+        try (PrintWriter log = new PrintWriter(Files.newBufferedWriter(out.resolve("queries.log")))) {
+            log.println("# synthetic query log: " + celebrities + " celebrities, path ratio " + pathRatio + ", photo ratio " + photoRatio);
+            for (int i = 0; i < queries; i++) {
+                double kind = random.nextDouble();
+                if (kind < pathRatio) {
+                    log.println("/api/shortest-path?id1=" + graph.celebrityId(skewed(random, celebrities))
+                            + "&id2=" + graph.celebrityId(skewed(random, celebrities)) + "&max=5");
+                } else if (kind < pathRatio + photoRatio) {
+                    log.println("/api/celebrity-photo?celebrityId=" + graph.celebrityId(skewed(random, celebrities)));
+                } else {
+                    String name = graph.celebrityName(skewed(random, celebrities));
+                    String prefix = name.substring(0, Math.min(name.length(), 2 + random.nextInt(5)));
+                    log.println("/api/search-celebrities-graph?q=" + URLEncoder.encode(prefix, StandardCharsets.UTF_8));
+                }
+            }
+        }
+        System.out.println("Wrote " + out.resolve("cast.csv.gz") + " and " + out.resolve("queries.log"));
+    }
+
+    private static int skewed(SplittableRandom random, int bound) {
+        return (int) (Math.pow(random.nextDouble(), 2.5) * bound);
+    }
+
+    // --- replay ---
+
+    record RunResult(String label, String target, Map<String, LatencyRecorder.Snapshot> endpoints,
+                     LatencyRecorder.Snapshot overall, PoolStats pool) {}
+
+    record PoolStats(long acquisitions, double meanWaitMillis, double maxWaitMillis, long timeouts) {}
+
+    private RunResult run(String label, String target, String envOption) throws Exception {
+        List<String> log = readLog(Paths.get(required("log")));
+        TmdbStubServer tmdb = null;
+        AppProcess app = null;
+        if (target.endsWith(".jar")) {
+            Map<String, String> env = new HashMap<>(envOption("env"));
+            if (!envOption.equals("env")) env.putAll(envOption(envOption));
+            if (options.containsKey("tmdb-latency-ms")) {
+                tmdb = TmdbStubServer.start(intOption("tmdb-port", 0), Long.parseLong(options.get("tmdb-latency-ms")));
+                env.put("TMDB_BASE_URL", tmdb.baseUrl());
+                env.put("TMDB_API_KEY", "stub");
+                System.out.println("[" + label + "] TMDB stub on " + tmdb.baseUrl());
+            }
+            app = AppProcess.start(label, Paths.get(target), options, env);
+        }
+        String baseUrl = app != null ? app.baseUrl() : stripSlash(target);
+        try {
+            awaitReady(baseUrl, app);
+            int concurrency = intOption("concurrency", 20);
+            int requests = intOption("requests", log.size());
+            int warmup = intOption("warmup", Math.min(200, requests / 10));
+
+            System.out.println("[" + label + "] warming up with " + warmup + " requests against " + baseUrl);
+            replay(baseUrl, log, 0, warmup, concurrency, null, null);
+
+            JsonNode acquireBefore = metric(baseUrl, "hikaricp.connections.acquire");
+            JsonNode timeoutsBefore = metric(baseUrl, "hikaricp.connections.timeout");
+            System.out.println("[" + label + "] replaying " + requests + " requests at concurrency " + concurrency);
+            Map<String, LatencyRecorder> byEndpoint = new ConcurrentHashMap<>();
+            LatencyRecorder overall = new LatencyRecorder();
+            long wall = replay(baseUrl, log, warmup, requests, concurrency, byEndpoint, overall);
+            PoolStats pool = poolStats(acquireBefore, metric(baseUrl, "hikaricp.connections.acquire"),
+                    timeoutsBefore, metric(baseUrl, "hikaricp.connections.timeout"));
+
+            Map<String, LatencyRecorder.Snapshot> snapshots = new TreeMap<>();
+            byEndpoint.forEach((endpoint, recorder) -> snapshots.put(endpoint, recorder.snapshot(wall)));
+            if (tmdb != null) System.out.println("[" + label + "] TMDB stub served " + tmdb.requests() + " requests");
+            return new RunResult(label, target, snapshots, overall.snapshot(wall), pool);
+        } finally {
+            if (app != null) app.stop();
+            if (tmdb != null) tmdb.close();
+        }
+    }
+
+    /** Closed-loop replay of {@code count} log entries starting at {@code offset}; returns wall time in nanos. */
+    private long replay(String baseUrl, List<String> log, int offset, int count, int concurrency,
+                        Map<String, LatencyRecorder> byEndpoint, LatencyRecorder overall) throws InterruptedException {
+        AtomicInteger next = new AtomicInteger();
+        Thread[] workers = new Thread[concurrency];
+        long start = System.nanoTime();
+        for (int w = 0; w < concurrency; w++) {
+            workers[w] = new Thread(() -> {
+                int i;
+                while ((i = next.getAndIncrement()) < count) {
+                    String path = log.get((offset + i) % log.size());
+                    long t0 = System.nanoTime();
+                    boolean ok;
+                    try {
+                        HttpResponse<Void> response = client.send(
+                                HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(Duration.ofSeconds(120)).GET().build(),
+                                HttpResponse.BodyHandlers.discarding());
+                        ok = response.statusCode() == 200 || response.statusCode() == 304;
+                    } catch (Exception e) {
+                        ok = false;
+                    }
+                    long elapsed = System.nanoTime() - t0;
+                    if (overall != null) {
+                        int q = path.indexOf('?');
+                        byEndpoint.computeIfAbsent(q < 0 ? path : path.substring(0, q), k -> new LatencyRecorder()).record(elapsed, ok);
+                        overall.record(elapsed, ok);
+                    }
+                }
+            }, "replay-" + w);
+            workers[w].start();
+        }
+        for (Thread worker : workers) worker.join();
+        return System.nanoTime() - start;
+    }
+
+    private void awaitReady(String baseUrl, AppProcess app) throws Exception {
+        long deadline = System.nanoTime() + Duration.ofSeconds(intOption("boot-timeout", 1800)).toNanos();
+        while (System.nanoTime() < deadline) {
+            if (app != null) app.checkAlive();
+            if ((app == null || app.started()) && isReady(baseUrl)) return;
+            Thread.sleep(1000);
+        }
+        throw new IllegalStateException("Backend at " + baseUrl + " did not become ready in time");
+    }
+
+    private boolean isReady(String baseUrl) {
+        try {
+            HttpResponse<String> response = client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/graph-status"))
+                    .timeout(Duration.ofSeconds(5)).GET().build(), HttpResponse.BodyHandlers.ofString());
+            return response.statusCode() == 200 && "ready".equals(MAPPER.readTree(response.body()).path("status").asText());
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    /** Actuator metric JSON, or null when the target does not expose metrics (not started with the loadtest profile). */
+    private JsonNode metric(String baseUrl, String name) {
+        try {
+            HttpResponse<String> response = client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/actuator/metrics/" + name))
+                    .timeout(Duration.ofSeconds(5)).GET().build(), HttpResponse.BodyHandlers.ofString());
+            return response.statusCode() == 200 ? MAPPER.readTree(response.body()) : null;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private static PoolStats poolStats(JsonNode acquireBefore, JsonNode acquireAfter, JsonNode timeoutsBefore, JsonNode timeoutsAfter) {
+        if (acquireBefore == null || acquireAfter == null) return null;
+        long count = (long) (measurement(acquireAfter, "COUNT") - measurement(acquireBefore, "COUNT"));
+        double totalSeconds = measurement(acquireAfter, "TOTAL_TIME") - measurement(acquireBefore, "TOTAL_TIME");
+        long timeouts = timeoutsBefore == null || timeoutsAfter == null ? 0
+                : (long) (measurement(timeoutsAfter, "COUNT") - measurement(timeoutsBefore, "COUNT"));
+        return new PoolStats(count, count == 0 ? 0 : totalSeconds * 1000 / count,
+                measurement(acquireAfter, "MAX") * 1000, timeouts);
+    }
+
+    private static double measurement(JsonNode metric, String statistic) {
+        for (JsonNode m : metric.path("measurements")) {
+            if (statistic.equals(m.path("statistic").asText())) return m.path("value").asDouble();
+        }
+        return 0;
+    }
+
+    // --- reporting ---
+
+    private void print(RunResult result) {
+        System.out.println();
+        System.out.println("== " + result.label() + ": " + result.target() + " ==");
+        System.out.printf("%-32s %8s %7s %9s %9s %9s %9s %9s%n", "endpoint", "count", "errors", "req/s", "p50 ms", "p95 ms", "p99 ms", "max ms");
+        result.endpoints().forEach((endpoint, s) -> printRow(endpoint, s));
+        printRow("ALL", result.overall());
+        PoolStats pool = result.pool();
+        if (pool == null) {
+            System.out.println("DB pool: n/a (start the target with the 'loadtest' profile to expose Hikari metrics)");
+        } else {
+            System.out.printf("DB pool: %d acquisitions, mean wait %.3f ms, max wait %.3f ms, %d timeouts%n",
+                    pool.acquisitions(), pool.meanWaitMillis(), pool.maxWaitMillis(), pool.timeouts());
+        }
+    }
+
+    private static void printRow(String name, LatencyRecorder.Snapshot s) {
+        System.out.printf("%-32s %8d %7d %9.1f %9.2f %9.2f %9.2f %9.2f%n", name, s.count(), s.errors(), s.throughput(),
+                s.percentileMillis(50), s.percentileMillis(95), s.percentileMillis(99), s.maxMillis());
+    }
+
+    private void printComparison(RunResult a, RunResult b) {
+        System.out.println();
+        System.out.println("== B vs A (negative latency delta / positive throughput delta is better) ==");
+        System.out.printf("%-32s %10s %10s %10s %10s%n", "endpoint", "req/s", "p50", "p95", "p99");
+        Set<String> endpoints = new TreeSet<>(a.endpoints().keySet());
+        endpoints.retainAll(b.endpoints().keySet());
+        for (String endpoint : endpoints) {
+            compareRow(endpoint, a.endpoints().get(endpoint), b.endpoints().get(endpoint));
+        }
+        compareRow("ALL", a.overall(), b.overall());
+    }
+
+    private static void compareRow(String name, LatencyRecorder.Snapshot a, LatencyRecorder.Snapshot b) {
+        System.out.printf("%-32s %10s %10s %10s %10s%n", name,
+                delta(a.throughput(), b.throughput()),
+                delta(a.percentileMillis(50), b.percentileMillis(50)),
+                delta(a.percentileMillis(95), b.percentileMillis(95)),
+                delta(a.percentileMillis(99), b.percentileMillis(99)));
+    }
+
+    private static String delta(double a, double b) {
+        return a == 0 ? "n/a" : String.format("%+.1f%%", (b - a) / a * 100);
+    }
+
+    // --- helpers ---
+
+    private static List<String> readLog(Path file) throws IOException {
+        List<String> lines = new ArrayList<>();
+        for (String line : Files.readAllLines(file)) {
+            String trimmed = line.trim();
+            if (!trimmed.isEmpty() && !trimmed.startsWith("#")) lines.add(trimmed);
+        }
+        if (lines.isEmpty()) throw new IllegalArgumentException("Query log " + file + " has no entries");
+        return lines;
+    }
+
+    private String required(String name) {
+        String value = options.get(name);
+        if (value == null) throw new IllegalArgumentException("Missing required option --" + name);
+        return value;
+    }
+
+    /** Parses a {@code K=V,K=V} option into environment variables for a booted jar. */
+    private Map<String, String> envOption(String name) {
+        Map<String, String> env = new HashMap<>();
+        String value = options.get(name);
+        if (value == null || value.isBlank()) return env;
+        for (String pair : value.split(",")) {
+            int eq = pair.indexOf('=');
+            if (eq <= 0) throw new IllegalArgumentException("Expected K=V in --" + name + ", got " + pair);
+            env.put(pair.substring(0, eq).trim(), pair.substring(eq + 1).trim());
+        }
+        return env;
+    }
+
+    private int intOption(String name, int defaultValue) {
+        return options.containsKey(name) ? Integer.parseInt(options.get(name)) : defaultValue;
+    }
+
+    private static String stripSlash(String url) {
+        return url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+    }
+}
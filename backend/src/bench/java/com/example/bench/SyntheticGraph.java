@@ -0,0 +1,172 @@
+package com.example.bench;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Deterministic synthetic celebrity/title graph shaped like the IMDb data:
+ * a few heavily connected hubs, a long tail of people with one or two
+ * credits, and small casts per title. The same seed always yields the same
+ * graph, so benchmark numbers stay comparable between runs and machines.
+ */
+public final class SyntheticGraph {
+
+    private static final String[] SYLLABLES = {
+        "an", "bel", "cor", "da", "el", "fra", "gor", "hal", "is", "jo",
+        "ka", "lu", "mar", "ne", "or", "pa", "qui", "ro", "sa", "ta",
+        "ul", "va", "wen", "xi", "yo", "zan"
+    };
+
+    private final int celebrityCount;
+    private final int titleCount;
+    private final int[][] casts;          // title -> celebrity indexes
+    private final int[][] titlesByCelebrity;
+    private final String[] celebrityNames;
+    private final String[] titleNames;
+
+    private SyntheticGraph(int celebrityCount, int titleCount, long seed) {
+        this.celebrityCount = celebrityCount;
+        this.titleCount = titleCount;
+        SplittableRandom random = new SplittableRandom(seed);
+
+        // Cast sizes follow a skewed distribution (mostly 2-8, occasionally large ensembles);
+        // members are drawn with a power-law bias towards low indexes so those become hubs.
+        casts = new int[titleCount][];
+        int[] degree = new int[celebrityCount];
+        for (int t = 0; t < titleCount; t++) {
+            int size = 2 + (int) (Math.pow(random.nextDouble(), 4) * 40);
+            int[] cast = new int[size];
+            int filled = 0;
+            while (filled < size) {
+                int c = (int) (Math.pow(random.nextDouble(), 2.5) * celebrityCount);
+                boolean duplicate = false;
+                for (int i = 0; i < filled; i++) {
+                    if (cast[i] == c) { duplicate = true; break; }
+                }
+                if (!duplicate) cast[filled++] = c;
+            }
+            Arrays.sort(cast);
+            casts[t] = cast;
+            for (int c : cast) degree[c]++;
+        }
+
+        titlesByCelebrity = new int[celebrityCount][];
+        for (int c = 0; c < celebrityCount; c++) titlesByCelebrity[c] = new int[degree[c]];
+        int[] fill = new int[celebrityCount];
+        for (int t = 0; t < titleCount; t++) {
+            for (int c : casts[t]) titlesByCelebrity[c][fill[c]++] = t;
+        }
+
+        celebrityNames = new String[celebrityCount];
+        for (int c = 0; c < celebrityCount; c++) {
+            celebrityNames[c] = capitalize(word(random, 2)) + " " + capitalize(word(random, 3));
+        }
+        titleNames = new String[titleCount];
+        for (int t = 0; t < titleCount; t++) {
+            // Commas and quotes inside titles exercise the CSV quoting paths
+            String name = "The " + capitalize(word(random, 3));
+            if (random.nextInt(8) == 0) name += ", Part " + (1 + random.nextInt(4));
+            if (random.nextInt(20) == 0) name += " \"Redux\"";
+            titleNames[t] = name;
+        }
+    }
+
+    public static SyntheticGraph generate(int celebrityCount, long seed) {
+        // Roughly the IMDb ratio of ~0.6 titles per celebrity
+        return new SyntheticGraph(celebrityCount, Math.max(1, (int) (celebrityCount * 0.6)), seed);
+    }
+
+    public int celebrityCount() { return celebrityCount; }
+    public int titleCount() { return titleCount; }
+
+    public String celebrityId(int index) { return String.format("nm%07d", index + 1); }
+    public String titleId(int index) { return String.format("tt%07d", index + 1); }
+
+    public int celebrityIndex(String id) { return Integer.parseInt(id.substring(2)) - 1; }
+    public int titleIndex(String id) { return Integer.parseInt(id.substring(2)) - 1; }
+
+    public String celebrityName(int index) { return celebrityNames[index]; }
+    public String titleName(int index) { return titleNames[index]; }
+
+    public int[] cast(int title) { return casts[title]; }
+    public int[] titlesOf(int celebrity) { return titlesByCelebrity[celebrity]; }
+
+    /** Distinct co-stars of a celebrity, sorted by index. */
+    public int[] neighbors(int celebrity) {
+        BitSet seen = new BitSet(celebrityCount);
+        for (int t : titlesByCelebrity[celebrity]) {
+            for (int c : casts[t]) {
+                if (c != celebrity) seen.set(c);
+            }
+        }
+        return seen.stream().toArray();
+    }
+
+    /** A shortest path of celebrity indexes from {@code from} to {@code to}, or null beyond maxDepth. */
+    public int[] path(int from, int to, int maxDepth) {
+        if (from == to) return new int[]{from};
+        int[] parent = new int[celebrityCount];
+        Arrays.fill(parent, -1);
+        parent[from] = from;
+        int[] frontier = {from};
+        for (int depth = 1; depth <= maxDepth && frontier.length > 0; depth++) {
+            BitSet next = new BitSet(celebrityCount);
+            for (int c : frontier) {
+                for (int n : neighbors(c)) {
+                    if (parent[n] >= 0) continue;
+                    parent[n] = c;
+                    if (n == to) {
+                        int[] path = new int[depth + 1];
+                        for (int i = depth, cur = to; i >= 0; i--, cur = parent[cur]) path[i] = cur;
+                        return path;
+                    }
+                    next.set(n);
+                }
+            }
+            frontier = next.stream().toArray();
+        }
+        return null;
+    }
+
+    /** One cast.csv line in the loader's format: titleId,titleName,"ids","names". */
+    public String csvLine(int title) {
+        int[] cast = casts[title];
+        StringJoiner ids = new StringJoiner(",");
+        StringJoiner names = new StringJoiner(",");
+        for (int c : cast) {
+            ids.add(celebrityId(c));
+            names.add(celebrityNames[c]);
+        }
+        return titleId(title) + "," + quote(titleNames[title]) + "," + quote(ids.toString()) + "," + quote(names.toString());
+    }
+
+    /** Writes the whole graph as a {@code cast.csv.gz} the loader can ingest. */
+    public void writeCastCsvGz(Path file) throws IOException {
+        try (Writer out = new BufferedWriter(new OutputStreamWriter(
+                new GZIPOutputStream(Files.newOutputStream(file)), StandardCharsets.UTF_8), 64 * 1024)) {
+            out.write("tconst,title,nconsts,names\n");
+            for (int t = 0; t < titleCount; t++) {
+                out.write(csvLine(t));
+                out.write('\n');
+            }
+        }
+    }
+
+    private static String quote(String value) {
+        return "\"" + value.replace("\"", "\"\"") + "\"";
+    }
+
+    private static String word(SplittableRandom random, int syllables) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < syllables; i++) sb.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+        return sb.toString();
+    }
+
+    private static String capitalize(String s) {
+        return Character.toUpperCase(s.charAt(0)) + s.substring(1);
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.bench;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Local stand-in for the two TMDB endpoints the backend calls, with a fixed artificial latency
+ * so photo lookups can be load-tested without an API key or network. Point the backend at it
+ * with {@code TMDB_BASE_URL=http://localhost:<port>/3} and any {@code TMDB_API_KEY}.
+ *
+ * <pre>
+ * GET /3/find/nmXXXXXXX   -> {"person_results":[{"id":N}]}, empty for ids ending in 0
+ * GET /3/person/N         -> {"id":N,"profile_path":"/stub-N.jpg"}
+ * </pre>
+ *
+ * Run standalone with {@code --port 18090 --latency-ms 200}, or let {@link LoadReplayHarness}
+ * start one via {@code --tmdb-latency-ms}.
+ */
+public final class TmdbStubServer implements AutoCloseable {
+
+    private final HttpServer server;
+    private final long latencyMillis;
+    private final AtomicLong requests = new AtomicLong();
+
+    private TmdbStubServer(int port, long latencyMillis) throws IOException {
+        this.latencyMillis = latencyMillis;
+        this.server = HttpServer.create(new InetSocketAddress("localhost", port), 1024);
+        // One virtual thread per exchange, so the stub's own sleeps never limit concurrency
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/3/find/", this::find);
+        server.createContext("/3/person/", this::person);
+    }
+
+    public static TmdbStubServer start(int port, long latencyMillis) throws IOException {
+        TmdbStubServer stub = new TmdbStubServer(port, latencyMillis);
+        stub.server.start();
+        return stub;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int port = 18090;
+        long latency = 200;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--port" -> port = Integer.parseInt(args[i + 1]);
+                case "--latency-ms" -> latency = Long.parseLong(args[i + 1]);
+                default -> throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+        TmdbStubServer stub = start(port, latency);
+        System.out.println("TMDB stub listening on " + stub.baseUrl() + " with " + latency + " ms latency");
+        Thread.currentThread().join();
+    }
+
+    public String baseUrl() {
+        return "http://localhost:" + server.getAddress().getPort() + "/3";
+    }
+
+    public long requests() {
+        return requests.get();
+    }
+
+    private void find(HttpExchange exchange) throws IOException {
+        String imdbId = lastSegment(exchange);
+        String digits = imdbId.replaceAll("\\D", "");
+        if (digits.isEmpty() || digits.endsWith("0")) {
+            respond(exchange, 200, "{\"person_results\":[]}");
+        } else {
+            respond(exchange, 200, "{\"person_results\":[{\"id\":" + Long.parseLong(digits) + "}]}");
+        }
+    }
+
+    private void person(HttpExchange exchange) throws IOException {
+        String id = lastSegment(exchange);
+        if (!id.matches("\\d+")) {
+            respond(exchange, 404, "{\"status_message\":\"The resource you requested could not be found.\"}");
+        } else {
+            respond(exchange, 200, "{\"id\":" + id + ",\"profile_path\":\"/stub-" + id + ".jpg\"}");
+        }
+    }
+
+    private void respond(HttpExchange exchange, int status, String json) throws IOException {
+        requests.incrementAndGet();
+        try {
+            Thread.sleep(latencyMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static String lastSegment(HttpExchange exchange) {
+        String path = exchange.getRequestURI().getPath();
+        return path.substring(path.lastIndexOf('/') + 1);
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
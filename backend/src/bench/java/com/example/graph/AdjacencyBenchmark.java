@@ -0,0 +1,96 @@
+package com.example.graph;
+
+import com.example.bench.SyntheticGraph;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Plain int adjacency rows against delta-varint encoded ones: a sequential sweep over every cast
+ * row (the multi-source BFS pattern, reported per value decoded), random row reads (the path
+ * searches' pattern) and whole hop-count searches. The setup prints both graphs' heap size.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AdjacencyBenchmark {
+
+    private static final int SAMPLES = 1024;
+
+    @Param({"200000"})
+    public int celebrities;
+
+    @Param({"false", "true"})
+    public boolean compressed;
+
+    private CelebrityGraph graph;
+    private HopPathFinder finder;
+    private int[] rows;
+    private int[][] pairs;
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+        AdjacencyRows.Reader reader;
+
+        @Setup(Level.Trial)
+        public void setUp(AdjacencyBenchmark benchmark) {
+            reader = benchmark.graph.castReader();
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SyntheticGraph synthetic = SyntheticGraph.generate(celebrities, 42L);
+        CelebrityGraph.Builder builder = new CelebrityGraph.Builder();
+        for (int t = 0; t < synthetic.titleCount(); t++) {
+            for (int c : synthetic.cast(t)) builder.add(synthetic.celebrityId(c), synthetic.titleId(t));
+        }
+        graph = builder.build(compressed);
+        finder = new HopPathFinder(graph);
+        System.out.println("\n" + (compressed ? "delta-varint" : "int") + " graph: " + graph.edgeCount() + " links, "
+                + graph.estimatedBytes() / 1024 + " KB (" + (graph.titleRows.estimatedBytes() + graph.castRows.estimatedBytes()) / 1024
+                + " KB of adjacency)");
+
+        SplittableRandom random = new SplittableRandom(7L);
+        rows = new int[SAMPLES];
+        pairs = new int[SAMPLES][];
+        for (int i = 0; i < SAMPLES; i++) {
+            rows[i] = random.nextInt(graph.titleCount());
+            pairs[i] = new int[]{random.nextInt(graph.celebrityCount()), random.nextInt(graph.celebrityCount())};
+        }
+    }
+
+    /** Every cast row in order; divide by links for the cost per value. */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public long sweepCastRows(Cursor cursor) {
+        AdjacencyRows.Reader reader = cursor.reader;
+        long sum = 0;
+        for (int t = 0; t < graph.titleCount(); t++) {
+            reader.read(t);
+            for (int i = reader.from; i < reader.to; i++) sum += reader.values[i];
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long randomCastRow(Cursor cursor) {
+        AdjacencyRows.Reader reader = cursor.reader;
+        reader.read(rows[cursor.next++ & (SAMPLES - 1)]);
+        long sum = 0;
+        for (int i = reader.from; i < reader.to; i++) sum += reader.values[i];
+        return sum;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public HopPathFinder.Result hopSearch(Cursor cursor) {
+        int[] pair = pairs[cursor.next++ & (SAMPLES - 1)];
+        return finder.find(pair[0], pair[1], 5, Integer.MAX_VALUE, PathExclusions.NONE, () -> false);
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.graph;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Shared titles of two celebrities: the old {@code stream().filter(other::contains)} over
+ * {@code List<String>} and a HashSet probe, against the {@link SortedIntersection} kernels on
+ * sorted int rows. Shapes are "short:long" title counts; about a tenth of the short side is shared.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+@State(Scope.Benchmark)
+public class IntersectionBenchmark {
+
+    private static final int PAIRS = 64;
+
+    @Param({"16:16", "64:64", "512:512", "16:4096", "512:8192"})
+    public String shape;
+
+    private int[][] small;
+    private int[][] large;
+    private List<String>[] smallIds;
+    private List<String>[] largeIds;
+    private int[] out;
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+    }
+
+    @Setup(Level.Trial)
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        String[] sizes = shape.split(":");
+        int s = Integer.parseInt(sizes[0]);
+        int l = Integer.parseInt(sizes[1]);
+        SplittableRandom random = new SplittableRandom(42L);
+        small = new int[PAIRS][];
+        large = new int[PAIRS][];
+        smallIds = new List[PAIRS];
+        largeIds = new List[PAIRS];
+        for (int p = 0; p < PAIRS; p++) {
+            large[p] = random.ints(0, 20_000_000).distinct().limit(l).sorted().toArray();
+            // A tenth of the short row comes from the long one, the rest is random
+            int[] row = new int[s];
+            for (int i = 0; i < s; i++) {
+                row[i] = i % 10 == 0 ? large[p][random.nextInt(l)] : random.nextInt(20_000_000);
+            }
+            small[p] = Arrays.stream(row).distinct().sorted().toArray();
+            smallIds[p] = ids(small[p]);
+            largeIds[p] = ids(large[p]);
+        }
+        out = new int[s];
+        SortedIntersection.enableVector();
+    }
+
+    private static List<String> ids(int[] values) {
+        List<String> ids = new ArrayList<>(values.length);
+        for (int v : values) ids.add(ImdbIds.format("tt", v));
+        // Database order is not id order
+        Collections.shuffle(ids, new Random(values.length));
+        return ids;
+    }
+
+    @Benchmark
+    public List<String> streamFilterContains(Cursor cursor) {
+        int p = cursor.next++ & (PAIRS - 1);
+        List<String> other = largeIds[p];
+        return smallIds[p].stream().filter(other::contains).toList();
+    }
+
+    @Benchmark
+    public List<String> hashSet(Cursor cursor) {
+        int p = cursor.next++ & (PAIRS - 1);
+        Set<String> other = new HashSet<>(largeIds[p]);
+        return smallIds[p].stream().filter(other::contains).toList();
+    }
+
+    @Benchmark
+    public int merge(Cursor cursor) {
+        int p = cursor.next++ & (PAIRS - 1);
+        return SortedIntersection.merge(small[p], 0, small[p].length, large[p], 0, large[p].length, out);
+    }
+
+    @Benchmark
+    public int gallop(Cursor cursor) {
+        int p = cursor.next++ & (PAIRS - 1);
+        return SortedIntersection.gallop(small[p], 0, small[p].length, large[p], 0, large[p].length, out);
+    }
+
+    @Benchmark
+    public int vector(Cursor cursor) {
+        int p = cursor.next++ & (PAIRS - 1);
+        return VectorIntersection.intersect(small[p], 0, small[p].length, large[p], 0, large[p].length, out);
+    }
+
+    /** What the graph uses: the kernel chosen by shape. */
+    @Benchmark
+    public int adaptive(Cursor cursor) {
+        int p = cursor.next++ & (PAIRS - 1);
+        return SortedIntersection.intersect(small[p], 0, small[p].length, large[p], 0, large[p].length, out);
+    }
+}
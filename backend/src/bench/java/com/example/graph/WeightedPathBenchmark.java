@@ -0,0 +1,90 @@
+package com.example.graph;
+
+import com.example.bench.InMemoryRepositories;
+import com.example.bench.SyntheticGraph;
+import com.example.service.CelebrityPath;
+import com.example.service.DatabaseGraphService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Weighted "strongest connection" search against the unweighted BFS on the same pairs:
+ * A* with landmark bounds, the same search without landmarks (plain Dijkstra), and the
+ * repository-backed bidirectional BFS over in-memory repository stand-ins.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class WeightedPathBenchmark {
+
+    private static final int PAIRS = 64;
+
+    @Param({"50000", "200000"})
+    public int celebrities;
+
+    private WeightedPathFinder aStar;
+    private WeightedPathFinder dijkstra;
+    private DatabaseGraphService bfs;
+    private int[][] pairs;
+    private String[][] idPairs;
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SyntheticGraph synthetic = SyntheticGraph.generate(celebrities, 42L);
+        CelebrityGraph.Builder builder = new CelebrityGraph.Builder();
+        for (int t = 0; t < synthetic.titleCount(); t++) {
+            for (int c : synthetic.cast(t)) builder.add(synthetic.celebrityId(c), synthetic.titleId(t));
+        }
+        CelebrityGraph graph = builder.build();
+        dijkstra = new WeightedPathFinder(graph, Landmarks.none());
+        aStar = new WeightedPathFinder(graph, Landmarks.compute(dijkstra, 4));
+        bfs = new InMemoryRepositories(synthetic).newGraphService();
+
+        // Connected pairs at least two hops apart, the case the BFS shortcut doesn't cover
+        SplittableRandom random = new SplittableRandom(7L);
+        List<int[]> found = new ArrayList<>();
+        while (found.size() < PAIRS) {
+            int from = random.nextInt(celebrities);
+            int to = random.nextInt(celebrities);
+            int[] path = synthetic.path(from, to, 8);
+            if (path != null && path.length >= 3) found.add(new int[]{from, to});
+        }
+        pairs = new int[PAIRS][];
+        idPairs = new String[PAIRS][];
+        for (int i = 0; i < PAIRS; i++) {
+            int[] p = found.get(i);
+            idPairs[i] = new String[]{synthetic.celebrityId(p[0]), synthetic.celebrityId(p[1])};
+            pairs[i] = new int[]{graph.celebrity(idPairs[i][0]), graph.celebrity(idPairs[i][1])};
+        }
+    }
+
+    @Benchmark
+    public WeightedPathFinder.Result weightedAStar(Cursor cursor) {
+        int[] pair = pairs[cursor.next++ % PAIRS];
+        return aStar.find(pair[0], pair[1], Integer.MAX_VALUE, PathExclusions.NONE, () -> false);
+    }
+
+    @Benchmark
+    public WeightedPathFinder.Result weightedDijkstra(Cursor cursor) {
+        int[] pair = pairs[cursor.next++ % PAIRS];
+        return dijkstra.find(pair[0], pair[1], Integer.MAX_VALUE, PathExclusions.NONE, () -> false);
+    }
+
+    @Benchmark
+    public List<CelebrityPath> unweightedBfs(Cursor cursor) {
+        String[] pair = idPairs[cursor.next++ % PAIRS];
+        return bfs.findShortestPath(pair[0], pair[1]);
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.service;
+
+import com.example.bench.SyntheticGraph;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The {@code cast.csv.gz} row parser used by {@link DataLoadingService}: field splitting
+ * alone, and a full row including the id/name list splits, for quoted CSV and TSV input.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CsvLineParserBenchmark {
+
+    @Param({"csv", "tsv"})
+    public String format;
+
+    private String[] lines;
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SyntheticGraph graph = SyntheticGraph.generate(5000, 42L);
+        lines = new String[1024];
+        for (int i = 0; i < lines.length; i++) {
+            String line = graph.csvLine(i % graph.titleCount());
+            if (format.equals("tsv")) {
+                String[] cols = DataLoadingService.splitSmart(line);
+                line = String.join("\t", cols);
+            }
+            lines[i] = line;
+        }
+    }
+
+    @Benchmark
+    public String[] splitSmart(Cursor cursor) {
+        return DataLoadingService.splitSmart(lines[cursor.next++ & (lines.length - 1)]);
+    }
+
+    @Benchmark
+    public void parseRow(Cursor cursor, Blackhole bh) {
+        String[] cols = DataLoadingService.splitSmart(lines[cursor.next++ & (lines.length - 1)]);
+        bh.consume(cols[0].trim());
+        bh.consume(cols[1].trim());
+        bh.consume(DataLoadingService.splitList(cols[2]));
+        bh.consume(DataLoadingService.splitList(cols[3]));
+    }
+}
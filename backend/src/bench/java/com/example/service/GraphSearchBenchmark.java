@@ -0,0 +1,109 @@
+package com.example.service;
+
+import com.example.bench.InMemoryRepositories;
+import com.example.bench.SyntheticGraph;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Shortest-path search over a synthetic graph: the direct-connection shortcut,
+ * the bidirectional BFS at short and long distances, and path reconstruction alone.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GraphSearchBenchmark {
+
+    private static final int PAIRS = 32;
+
+    @Param({"10000", "50000"})
+    public int celebrities;
+
+    private DatabaseGraphService service;
+    private String[][] directPairs;
+    private String[][] twoHopPairs;
+    private String[][] farPairs;
+    private List<ReconstructionInput> reconstructions;
+
+    record ReconstructionInput(Map<String, String> forwardParent, Map<String, String> backwardParent,
+                               String start, String end, String meetingPoint) {}
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SyntheticGraph graph = SyntheticGraph.generate(celebrities, 42L);
+        service = new InMemoryRepositories(graph).newGraphService();
+
+        SplittableRandom random = new SplittableRandom(7L);
+        List<String[]> direct = new ArrayList<>();
+        List<String[]> twoHop = new ArrayList<>();
+        List<String[]> far = new ArrayList<>();
+        reconstructions = new ArrayList<>();
+        while (direct.size() < PAIRS || twoHop.size() < PAIRS || far.size() < PAIRS) {
+            int from = random.nextInt(celebrities);
+            int to = random.nextInt(celebrities);
+            int[] path = graph.path(from, to, 6);
+            if (path == null || path.length < 2) continue;
+            String[] pair = {graph.celebrityId(from), graph.celebrityId(to)};
+            int hops = path.length - 1;
+            if (hops == 1 && direct.size() < PAIRS) {
+                direct.add(pair);
+            } else if (hops == 2 && twoHop.size() < PAIRS) {
+                twoHop.add(pair);
+            } else if (hops >= 3 && far.size() < PAIRS) {
+                far.add(pair);
+                reconstructions.add(toParents(graph, path));
+            }
+        }
+        directPairs = direct.toArray(new String[0][]);
+        twoHopPairs = twoHop.toArray(new String[0][]);
+        farPairs = far.toArray(new String[0][]);
+    }
+
+    /** Splits a known path at its midpoint into the parent maps a bidirectional search would leave behind. */
+    private static ReconstructionInput toParents(SyntheticGraph graph, int[] path) {
+        int mid = path.length / 2;
+        Map<String, String> forward = new HashMap<>();
+        Map<String, String> backward = new HashMap<>();
+        forward.put(graph.celebrityId(path[0]), null);
+        for (int i = 1; i <= mid; i++) forward.put(graph.celebrityId(path[i]), graph.celebrityId(path[i - 1]));
+        backward.put(graph.celebrityId(path[path.length - 1]), null);
+        for (int i = path.length - 2; i >= mid; i--) backward.put(graph.celebrityId(path[i]), graph.celebrityId(path[i + 1]));
+        return new ReconstructionInput(forward, backward, graph.celebrityId(path[0]),
+                graph.celebrityId(path[path.length - 1]), graph.celebrityId(path[mid]));
+    }
+
+    @Benchmark
+    public List<CelebrityPath> directConnection(Cursor cursor) {
+        String[] pair = directPairs[cursor.next++ % directPairs.length];
+        return service.findShortestPath(pair[0], pair[1]);
+    }
+
+    @Benchmark
+    public List<CelebrityPath> bidirectionalTwoHops(Cursor cursor) {
+        String[] pair = twoHopPairs[cursor.next++ % twoHopPairs.length];
+        return service.findShortestPath(pair[0], pair[1]);
+    }
+
+    @Benchmark
+    public List<CelebrityPath> bidirectionalFar(Cursor cursor) {
+        String[] pair = farPairs[cursor.next++ % farPairs.length];
+        return service.findShortestPath(pair[0], pair[1]);
+    }
+
+    @Benchmark
+    public List<CelebrityPath> reconstructPath(Cursor cursor) {
+        ReconstructionInput in = reconstructions.get(cursor.next++ % reconstructions.size());
+        return service.reconstructBidirectionalPath(new SearchContext(), in.forwardParent(), in.backwardParent(),
+                in.start(), in.end(), in.meetingPoint());
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.service;
+
+import com.example.bench.InMemoryRepositories;
+import com.example.bench.SyntheticGraph;
+import com.example.entity.Celebrity;
+import com.github.benmanes.caffeine.cache.Cache;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Autocomplete lookups through {@link DatabaseGraphService#searchCelebrities}, with the
+ * result cache warm (repeat typing) and cold (every prefix misses).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SearchCelebritiesBenchmark {
+
+    @Param({"50000"})
+    public int celebrities;
+
+    private DatabaseGraphService service;
+    private Cache<?, ?> searchCache;
+    private String[] prefixes;
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SyntheticGraph graph = SyntheticGraph.generate(celebrities, 42L);
+        service = new InMemoryRepositories(graph).newGraphService();
+        searchCache = (Cache<?, ?>) ReflectionTestUtils.getField(service, "searchCache");
+
+        SplittableRandom random = new SplittableRandom(11L);
+        prefixes = new String[256];
+        for (int i = 0; i < prefixes.length; i++) {
+            String name = graph.celebrityName(random.nextInt(celebrities));
+            prefixes[i] = name.substring(0, Math.min(name.length(), 2 + random.nextInt(4)));
+        }
+        for (String prefix : prefixes) service.searchCelebrities(prefix);
+    }
+
+    @Benchmark
+    public List<Celebrity> cached(Cursor cursor) {
+        return service.searchCelebrities(prefixes[cursor.next++ % prefixes.length]);
+    }
+
+    @Benchmark
+    public List<Celebrity> uncached(Cursor cursor) {
+        searchCache.invalidateAll();
+        return service.searchCelebrities(prefixes[cursor.next++ % prefixes.length]);
+    }
+}
@@ -0,0 +1,78 @@
+package com.example;
+
+import com.example.service.GraphAnalyticsService;
+import com.example.service.InMemoryGraphService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Map;
+
+/**
+ * Operator endpoints, guarded by the {@code X-Admin-Token} header. They are disabled unless
+ * ADMIN_TOKEN is set.
+ */
+@RestController
+@RequestMapping("/api/admin")
+public class AdminController {
+
+    private final String adminToken = System.getenv().getOrDefault("ADMIN_TOKEN", "");
+
+    @Autowired
+    private InMemoryGraphService inMemoryGraph;
+
+    @Autowired
+    private GraphAnalyticsService analytics;
+
+    @GetMapping("/graph")
+    public ResponseEntity<Map<String, Object>> graph(@RequestHeader(name = "X-Admin-Token", required = false) String token) {
+        ResponseEntity<Map<String, Object>> denied = checkToken(token);
+        return denied != null ? denied : ResponseEntity.ok(inMemoryGraph.status());
+    }
+
+    // Rebuilds the in-memory graph from the database and swaps it in; searches keep running on the old one meanwhile
+    @PostMapping("/graph/reload")
+    public ResponseEntity<Map<String, Object>> reloadGraph(@RequestHeader(name = "X-Admin-Token", required = false) String token) {
+        ResponseEntity<Map<String, Object>> denied = checkToken(token);
+        if (denied != null) return denied;
+        if (!inMemoryGraph.reload()) {
+            return ResponseEntity.status(409).body(Map.of(
+                    "error", "Reload not started: the in-memory graph is disabled, still warming up or already reloading.",
+                    "status", inMemoryGraph.status()));
+        }
+        return ResponseEntity.accepted().body(inMemoryGraph.status());
+    }
+
+    @GetMapping("/analytics")
+    public ResponseEntity<Map<String, Object>> analytics(@RequestHeader(name = "X-Admin-Token", required = false) String token) {
+        ResponseEntity<Map<String, Object>> denied = checkToken(token);
+        return denied != null ? denied : ResponseEntity.ok(analytics.status());
+    }
+
+    // Samples source celebrities and computes separation statistics over the in-memory graph in the background
+    @PostMapping("/analytics")
+    public ResponseEntity<Map<String, Object>> runAnalytics(@RequestHeader(name = "X-Admin-Token", required = false) String token,
+                                                            @RequestParam(required = false) Integer sources,
+                                                            @RequestParam(required = false) Long seed) {
+        ResponseEntity<Map<String, Object>> denied = checkToken(token);
+        if (denied != null) return denied;
+        if (!analytics.start(sources, seed)) {
+            return ResponseEntity.status(409).body(Map.of(
+                    "error", "Analytics not started: the in-memory graph is disabled or still warming up, or a job is already running.",
+                    "status", analytics.status()));
+        }
+        return ResponseEntity.accepted().body(analytics.status());
+    }
+
+    private ResponseEntity<Map<String, Object>> checkToken(String token) {
+        if (adminToken.isEmpty()) {
+            return ResponseEntity.status(403).body(Map.of("error", "Admin endpoints are disabled (set ADMIN_TOKEN)."));
+        }
+        if (token == null || !MessageDigest.isEqual(token.getBytes(StandardCharsets.UTF_8), adminToken.getBytes(StandardCharsets.UTF_8))) {
+            return ResponseEntity.status(401).body(Map.of("error", "Missing or wrong X-Admin-Token."));
+        }
+        return null;
+    }
+}
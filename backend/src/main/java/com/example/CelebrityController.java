@@ -2,14 +2,25 @@ package com.example;
 
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.web.client.RestTemplate;
 import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 import org.springframework.beans.factory.annotation.Autowired;
+import com.example.service.CelebrityPath;
 import com.example.service.DatabaseGraphService;
+import com.example.service.DatasetVersionService;
+import com.example.service.GraphNotReadyException;
+import com.example.service.GraphReadiness;
+import com.example.service.GraphStatsService;
+import com.example.service.PathMode;
+import com.example.service.PathSearchResult;
+import com.example.service.QueryLogService;
+import com.example.service.SearchMetrics;
+import com.example.service.SearchRejectedException;
+import com.example.service.PhotoService;
 import com.example.entity.Celebrity;
 import java.util.Map;
 import java.util.List;
 import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api")
@@ -19,15 +30,25 @@ public class CelebrityController {
     @Autowired
     private DatabaseGraphService databaseGraphService;
     
-    private final RestTemplate restTemplate;
-    private final String tmdbApiKey;
-    private final Map<String, String> photoCache = new java.util.concurrent.ConcurrentHashMap<>();
-    private final java.util.Set<String> failedPhotoLookups = java.util.concurrent.ConcurrentHashMap.newKeySet();
+    @Autowired
+    private PhotoService photoService;
 
-    public CelebrityController(RestTemplate restTemplate) {
-        this.restTemplate = restTemplate;
-        this.tmdbApiKey = System.getenv("TMDB_API_KEY");
-    }
+    @Autowired
+    private GraphStatsService graphStatsService;
+
+    @Autowired
+    private GraphReadiness graphReadiness;
+
+    @Autowired
+    private DatasetVersionService datasetVersion;
+
+    @Autowired
+    private QueryLogService queryLog;
+
+    private final int maxPhotoBatch = Integer.parseInt(System.getenv().getOrDefault("PHOTO_BATCH_MAX_IDS", "50"));
+    private final int maxGroupSize = Integer.parseInt(System.getenv().getOrDefault("GROUP_PATH_MAX_IDS", "1000"));
+    // Results carry the dataset version in their ETag, so caches may keep them long and revalidate after
+    private final String datasetCacheControl = "public, max-age=" + System.getenv().getOrDefault("HTTP_CACHE_MAX_AGE", "86400");
 
     @GetMapping("/health")
     public ResponseEntity<Map<String, String>> health() {
@@ -36,41 +57,151 @@ public class CelebrityController {
 
     @GetMapping("/graph-status")
     public ResponseEntity<Map<String, Object>> graphStatus() {
-        return ResponseEntity.ok(Map.of("building", false, "status", "ready"));
+        return ResponseEntity.ok(graphReadiness.status());
     }
     
-    @GetMapping("/database-stats")
-    public ResponseEntity<Map<String, Object>> getDatabaseStats() {
-        // This would need to be implemented in DatabaseGraphService
-        return ResponseEntity.ok(Map.of(
-            "message", "Database stats endpoint - implement in DatabaseGraphService",
-            "database_type", "MySQL"
-        ));
+    // Pre-rendered snapshot from GraphStatsService; nothing is counted per request
+    @GetMapping(value = "/database-stats", produces = "application/json")
+    public ResponseEntity<String> getDatabaseStats() {
+        String stats = graphStatsService.responseJson();
+        if (stats == null) {
+            return ResponseEntity.status(503)
+                    .header("Retry-After", "30")
+                    .body("{\"error\":\"Graph statistics are not available yet.\"}");
+        }
+        return ResponseEntity.ok()
+                .header("Cache-Control", "public, max-age=300")
+                .body(stats);
     }
 
     @GetMapping("/shortest-path")
     public ResponseEntity<Map<String, Object>> findShortestPath(
             @RequestParam String id1,
             @RequestParam String id2,
-            @RequestParam(name = "max", defaultValue = "5") int max) {
+            @RequestParam(name = "max", defaultValue = "5") int max,
+            @RequestParam(name = "timeoutMs", required = false) Long timeoutMs,
+            @RequestParam(name = "mode", defaultValue = "bfs") String mode,
+            @RequestParam(name = "excludeCelebrities", required = false) List<String> excludeCelebrities,
+            @RequestParam(name = "excludeTitles", required = false) List<String> excludeTitles,
+            @RequestHeader(name = "Accept", required = false) String accept,
+            @RequestHeader(name = "If-None-Match", required = false) String ifNoneMatch) {
         
-        List<String> results = databaseGraphService.findShortestPath(id1, id2);
+        PathMode pathMode = PathMode.parse(mode);
+        // The time budget is left out: it only decides whether a result is partial, and partial results (timed out or capped) are not cached
+        String etag = datasetVersion.etag("path", id1.trim(), id2.trim(), pathMode, sorted(excludeCelebrities), sorted(excludeTitles), accept);
+        if (matches(ifNoneMatch, etag)) {
+            return notModified(etag);
+        }
+
+        PathSearchResult result = databaseGraphService.findShortestPath(id1, id2, timeoutMs, pathMode,
+                excludeCelebrities != null ? excludeCelebrities : List.of(),
+                excludeTitles != null ? excludeTitles : List.of());
+        List<CelebrityPath> results = result.paths();
+        // Counted for prewarming the next instance; queries with exclusions are too specific to be worth replaying
+        if ((excludeCelebrities == null || excludeCelebrities.isEmpty()) && (excludeTitles == null || excludeTitles.isEmpty())) {
+            queryLog.recordPath(id1, id2, pathMode);
+        }
+        if (!results.isEmpty()) {
+            List<CelebrityPath.Node> nodes = results.get(0).nodes();
+            queryLog.recordCelebrity(nodes.get(0).id());
+            queryLog.recordCelebrity(nodes.get(nodes.size() - 1).id());
+        }
+        return pathResponse(result, etag);
+    }
+
+    private ResponseEntity<Map<String, Object>> pathResponse(PathSearchResult result, String etag) {
+        List<CelebrityPath> results = result.paths();
         if (results.isEmpty()) {
-            return ResponseEntity.ok(Map.of("error", "No path found."));
+            if (result.partial()) {
+                String error = result.outcome() == SearchMetrics.Outcome.CAP_HIT
+                        ? "Search reached its visited limit before a path was found."
+                        : "Search timed out before a path was found.";
+                return ResponseEntity.ok()
+                        .header("Cache-Control", "no-store")
+                        .body(Map.of("error", error, "partial", true));
+            }
+            return cacheable(etag, Map.of("error", "No path found."));
         }
-        
-        return ResponseEntity.ok(Map.of("results", results));
+        if (result.partial()) {
+            return ResponseEntity.ok()
+                    .header("Cache-Control", "no-store")
+                    .body(Map.of("results", results, "partial", true));
+        }
+        return cacheable(etag, Map.of("results", results, "partial", false));
     }
 
 
+    // Distance only, e.g. "are they within N hops"; microseconds when the in-memory graph has distance labels
+    @GetMapping("/separation")
+    public ResponseEntity<Map<String, Object>> getSeparation(
+            @RequestParam String id1,
+            @RequestParam String id2,
+            @RequestParam(name = "within", required = false) Integer within,
+            @RequestParam(name = "timeoutMs", required = false) Long timeoutMs,
+            @RequestHeader(name = "Accept", required = false) String accept,
+            @RequestHeader(name = "If-None-Match", required = false) String ifNoneMatch) {
+        String etag = datasetVersion.etag("separation", id1.trim(), id2.trim(), within, accept);
+        if (matches(ifNoneMatch, etag)) {
+            return notModified(etag);
+        }
+        Integer distance = databaseGraphService.separation(id1, id2, timeoutMs);
+        if (distance == null) {
+            return ResponseEntity.ok()
+                    .header("Cache-Control", "no-store")
+                    .body(Map.of("error", "Search stopped before the distance was known.", "partial", true));
+        }
+        Map<String, Object> body = new java.util.LinkedHashMap<>();
+        body.put("connected", distance >= 0);
+        if (distance >= 0) body.put("distance", distance);
+        if (within != null) body.put("within", distance >= 0 && distance <= within);
+        return cacheable(etag, body);
+    }
+
+    // Closest link between two groups: either ids1/ids2 (celebrity ids) or title1/title2 (their casts)
+    @GetMapping("/group-path")
+    public ResponseEntity<Map<String, Object>> findGroupPath(
+            @RequestParam(name = "ids1", required = false) List<String> ids1,
+            @RequestParam(name = "ids2", required = false) List<String> ids2,
+            @RequestParam(name = "title1", required = false) String title1,
+            @RequestParam(name = "title2", required = false) String title2,
+            @RequestParam(name = "timeoutMs", required = false) Long timeoutMs,
+            @RequestHeader(name = "Accept", required = false) String accept,
+            @RequestHeader(name = "If-None-Match", required = false) String ifNoneMatch) {
+        boolean byIds = ids1 != null && ids2 != null;
+        boolean byTitles = title1 != null && title2 != null;
+        if (byIds == byTitles) {
+            throw new IllegalArgumentException("Give either ids1 and ids2 or title1 and title2");
+        }
+        if (byIds && (ids1.size() > maxGroupSize || ids2.size() > maxGroupSize)) {
+            throw new IllegalArgumentException("At most " + maxGroupSize + " ids per group");
+        }
+        String etag = byIds
+                ? datasetVersion.etag("group-path", sorted(ids1), sorted(ids2), accept)
+                : datasetVersion.etag("cast-path", title1.trim(), title2.trim(), accept);
+        if (matches(ifNoneMatch, etag)) {
+            return notModified(etag);
+        }
+
+        PathSearchResult result = byIds
+                ? databaseGraphService.findShortestPathBetween(ids1, ids2, timeoutMs)
+                : databaseGraphService.findShortestPathBetweenCasts(title1, title2, timeoutMs);
+        return pathResponse(result, etag);
+    }
+
     @GetMapping("/search-celebrities-graph")
-    public ResponseEntity<List<Map<String, Object>>> searchCelebritiesGraph(@RequestParam String q) {
+    public ResponseEntity<List<Map<String, Object>>> searchCelebritiesGraph(
+            @RequestParam String q,
+            @RequestHeader(name = "Accept", required = false) String accept,
+            @RequestHeader(name = "If-None-Match", required = false) String ifNoneMatch) {
         String trimmed = q == null ? "" : q.trim();
+        String etag = datasetVersion.etag("suggest", trimmed, accept);
+        if (matches(ifNoneMatch, etag)) {
+            return notModified(etag);
+        }
         if (trimmed.length() < 2) {
-            return ResponseEntity.ok()
-                    .header("Cache-Control", "public, max-age=60")
-                    .body(java.util.Collections.emptyList());
+            return cacheable(etag, java.util.Collections.emptyList());
         }
+        queryLog.recordSuggestion(trimmed);
         List<Map<String, Object>> results = new ArrayList<>();
         
         // Use database search method
@@ -79,90 +210,74 @@ public class CelebrityController {
             results.add(Map.of("nconst", celebrity.getId(), "name", celebrity.getName()));
         }
 
+        return cacheable(etag, results);
+    }
+
+    // Long-lived caching with a weak ETag once the dataset version is known, a short blind max-age before
+    private <T> ResponseEntity<T> cacheable(String etag, T body) {
+        if (etag == null) {
+            return ResponseEntity.ok()
+                    .header("Cache-Control", "public, max-age=60")
+                    .body(body);
+        }
         return ResponseEntity.ok()
-                .header("Cache-Control", "public, max-age=60")
-                .body(results);
+                .eTag(etag)
+                .header("Cache-Control", datasetCacheControl)
+                .header("Vary", "Accept")
+                .body(body);
     }
 
+    private <T> ResponseEntity<T> notModified(String etag) {
+        return ResponseEntity.status(304)
+                .eTag(etag)
+                .header("Cache-Control", datasetCacheControl)
+                .header("Vary", "Accept")
+                .build();
+    }
+
+    // If-None-Match uses the weak comparison, so a tag weakened by a compressing proxy still matches
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || etag == null) return false;
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) tag = tag.substring(2);
+            if (tag.equals("*") || tag.equals(etag.startsWith("W/") ? etag.substring(2) : etag)) return true;
+        }
+        return false;
+    }
+
+    private static List<String> sorted(List<String> ids) {
+        return ids == null ? List.of() : ids.stream().map(String::trim).sorted().toList();
+    }
+
+    // Async: a cache miss releases the request thread while TMDB is queried
     @GetMapping("/celebrity-photo")
-    public ResponseEntity<Map<String, Object>> getCelebrityPhoto(
+    public CompletableFuture<ResponseEntity<Map<String, Object>>> getCelebrityPhoto(
             @RequestParam String celebrityId,
             @RequestParam(required = false) String celebrityName) {
-        if (tmdbApiKey == null || tmdbApiKey.isEmpty()) {
-            return ResponseEntity.ok(Map.of("photoUrl", ""));
+        if (!photoService.isEnabled()) {
+            return CompletableFuture.completedFuture(ResponseEntity.ok(Map.of("photoUrl", "")));
         }
-
-        String trimmedId = celebrityId.trim();
-        
-        if (failedPhotoLookups.contains(trimmedId)) {
-            return ResponseEntity.ok(Map.of("photoUrl", ""));
-        }
-        
-        String cachedPhoto = photoCache.get(trimmedId);
-        if (cachedPhoto != null) {
-            return ResponseEntity.ok(Map.of("photoUrl", cachedPhoto));
-        }
-
-        try {
-            String tmdbPersonId = getTmdbPersonIdFromImdb(trimmedId);
-            if (tmdbPersonId != null) {
-                String photoUrl = getPhotoByTmdbId(tmdbPersonId);
-                if (photoUrl != null) {
-                    photoCache.put(trimmedId, photoUrl);
-                    return ResponseEntity.ok(Map.of("photoUrl", photoUrl));
-                }
-            }
-        } catch (Exception e) {
-            System.err.println("Error fetching celebrity photo for ID " + trimmedId + ": " + e.getMessage());
-        }
-        
-        failedPhotoLookups.add(trimmedId);
-        return ResponseEntity.ok(Map.of("photoUrl", ""));
+        queryLog.recordCelebrity(celebrityId);
+        return photoService.photoUrl(celebrityId)
+                .thenApply(photoUrl -> ResponseEntity.ok(Map.of("photoUrl", photoUrl)));
     }
-    
-    private String getTmdbPersonIdFromImdb(String imdbId) {
-        try {
-            // Use TMDB's find API to get person by IMDb ID
-            String findUrl = "https://api.themoviedb.org/3/find/" + imdbId + "?api_key=" + tmdbApiKey + "&external_source=imdb_id";
-            
-            @SuppressWarnings("unchecked")
-            Map<String, Object> findResponse = restTemplate.getForObject(findUrl, Map.class);
-            
-            if (findResponse != null) {
-                Object personResultsObj = findResponse.get("person_results");
-                if (personResultsObj instanceof List<?> personResults && !personResults.isEmpty()) {
-                    Object firstPerson = personResults.get(0);
-                    if (firstPerson instanceof Map<?, ?> person) {
-                        Object idObj = person.get("id");
-                        if (idObj instanceof Number) {
-                            return String.valueOf(((Number) idObj).intValue());
-                        }
-                    }
-                }
-            }
-        } catch (Exception e) {
-            System.err.println("Error finding TMDB person ID for IMDb ID " + imdbId + ": " + e.getMessage());
+
+    // Batch variant for suggestion lists and paths: one request, misses fetched in parallel
+    @GetMapping("/celebrity-photos")
+    public CompletableFuture<ResponseEntity<Map<String, Object>>> getCelebrityPhotos(
+            @RequestParam List<String> celebrityIds) {
+        if (celebrityIds.size() > maxPhotoBatch) {
+            throw new IllegalArgumentException("At most " + maxPhotoBatch + " celebrityIds per request");
         }
-        return null;
-    }
-    
-    private String getPhotoByTmdbId(String tmdbPersonId) {
-        try {
-            String personUrl = "https://api.themoviedb.org/3/person/" + tmdbPersonId + "?api_key=" + tmdbApiKey;
-            
-            @SuppressWarnings("unchecked")
-            Map<String, Object> personResponse = restTemplate.getForObject(personUrl, Map.class);
-            
-            if (personResponse != null) {
-                Object profilePathObj = personResponse.get("profile_path");
-                if (profilePathObj instanceof String profilePath && !profilePath.isEmpty()) {
-                    return "https://image.tmdb.org/t/p/w500" + profilePath;
-                }
-            }
-        } catch (Exception e) {
-            System.err.println("Error fetching person details for TMDB ID " + tmdbPersonId + ": " + e.getMessage());
+        if (!photoService.isEnabled()) {
+            Map<String, String> empty = new java.util.LinkedHashMap<>();
+            celebrityIds.forEach(id -> empty.put(id.trim(), ""));
+            return CompletableFuture.completedFuture(ResponseEntity.ok(Map.of("photos", empty)));
         }
-        return null;
+        celebrityIds.forEach(queryLog::recordCelebrity);
+        return photoService.photoUrls(celebrityIds)
+                .thenApply(photos -> ResponseEntity.ok(Map.of("photos", photos)));
     }
     
     // Exception handler for parameter binding errors
@@ -172,6 +287,25 @@ public class CelebrityController {
         return ResponseEntity.badRequest().body(Map.of("error", error));
     }
     
+    // Path-search bulkhead is full: tell clients to back off briefly
+    @ExceptionHandler(SearchRejectedException.class)
+    public ResponseEntity<Map<String, Object>> handleSearchRejected(SearchRejectedException ex) {
+        return ResponseEntity.status(503)
+                .header("Retry-After", "1")
+                .body(Map.of("error", ex.getMessage()));
+    }
+
+    // Graph still loading: report warm-up progress and when to come back
+    @ExceptionHandler(GraphNotReadyException.class)
+    public ResponseEntity<Map<String, Object>> handleGraphNotReady(GraphNotReadyException ex) {
+        Map<String, Object> body = new java.util.LinkedHashMap<>(graphReadiness.status());
+        body.put("error", ex.getMessage());
+        body.put("warming", true);
+        return ResponseEntity.status(503)
+                .header("Retry-After", String.valueOf(ex.getRetryAfterSeconds()))
+                .body(body);
+    }
+
     // Exception handler for missing required parameters
     @ExceptionHandler(IllegalArgumentException.class)
     public ResponseEntity<Map<String, Object>> handleIllegalArgument(IllegalArgumentException ex) {
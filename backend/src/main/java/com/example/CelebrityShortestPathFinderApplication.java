@@ -5,17 +5,20 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.client.RestTemplate;
-import com.example.service.DataLoadingService;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import com.example.service.GraphWarmupService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
-import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.event.EventListener;
 
+import java.time.Duration;
+
 @SpringBootApplication
 public class CelebrityShortestPathFinderApplication implements CommandLineRunner {
 
     @Autowired
-    private DataLoadingService dataLoadingService;
+    private GraphWarmupService graphWarmupService;
 
     public static void main(String[] args) {
         System.setProperty("server.address", "0.0.0.0");
@@ -29,19 +32,24 @@ public class CelebrityShortestPathFinderApplication implements CommandLineRunner
         System.out.println("Application started. Data loading will begin after context initialization...");
     }
     
-    @EventListener(ContextRefreshedEvent.class)
+    // Loading runs in the background so the server answers health checks right away;
+    // progress is reported by /api/graph-status and the readiness probe
+    @EventListener(ApplicationReadyEvent.class)
     public void onApplicationReady() {
-        System.out.println("Application context is ready. Checking if data loading is needed...");
-        dataLoadingService.loadDataFromFilesIfNeeded();
-        System.out.println("Data loading check completed!");
+        System.out.println("Application context is ready. Starting background data loading and warm-up...");
+        graphWarmupService.start();
     }
 
     @Configuration
     public static class AppConfig {
         
+        // TMDB client: fail fast instead of holding a thread while TMDB is slow or unreachable
         @Bean
-        public RestTemplate restTemplate() {
-            return new RestTemplate();
+        public RestTemplate restTemplate(RestTemplateBuilder builder) {
+            return builder
+                    .connectTimeout(Duration.ofMillis(Long.parseLong(System.getenv().getOrDefault("TMDB_CONNECT_TIMEOUT_MS", "2000"))))
+                    .readTimeout(Duration.ofMillis(Long.parseLong(System.getenv().getOrDefault("TMDB_READ_TIMEOUT_MS", "3000"))))
+                    .build();
         }
     }
 } 
\ No newline at end of file
@@ -0,0 +1,42 @@
+package com.example.entity;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+/**
+ * A remembered TMDB photo lookup, so the photo cache survives restarts.
+ * An empty {@code photoUrl} records that TMDB has no photo for the celebrity.
+ */
+@Entity
+@Table(name = "celebrity_photos", indexes = @Index(name = "idx_celebrity_photos_fetched_at", columnList = "fetched_at"))
+public class CelebrityPhoto {
+    @Id
+    @Column(name = "celebrity_id")
+    private String celebrityId;
+    
+    @Column(name = "photo_url", length = 500, nullable = false)
+    private String photoUrl;
+    
+    @Column(name = "fetched_at", nullable = false)
+    private Instant fetchedAt;
+    
+    // Constructors
+    public CelebrityPhoto() {}
+    
+    public CelebrityPhoto(String celebrityId, String photoUrl, Instant fetchedAt) {
+        this.celebrityId = celebrityId;
+        this.photoUrl = photoUrl;
+        this.fetchedAt = fetchedAt;
+    }
+    
+    // Getters and setters
+    public String getCelebrityId() { return celebrityId; }
+    public void setCelebrityId(String celebrityId) { this.celebrityId = celebrityId; }
+    
+    public String getPhotoUrl() { return photoUrl; }
+    public void setPhotoUrl(String photoUrl) { this.photoUrl = photoUrl; }
+    
+    public Instant getFetchedAt() { return fetchedAt; }
+    public void setFetchedAt(Instant fetchedAt) { this.fetchedAt = fetchedAt; }
+}
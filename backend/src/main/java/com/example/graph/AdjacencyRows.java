@@ -0,0 +1,207 @@
+package com.example.graph;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * The rows of one side of {@link CelebrityGraph}'s adjacency (a celebrity's titles, or a title's
+ * cast): ascending, duplicate-free int rows, either as one plain int array or delta-varint
+ * encoded. Encoded rows store the gaps between neighbours as 7-bit varints, so the ids sorted
+ * by IMDb number (which cluster by era) mostly take one or two bytes instead of four. Rows are
+ * grouped in blocks of {@value #BLOCK} with one byte offset per block; within a block each row
+ * starts with its encoded length, so finding a row skips at most 15 rows without decoding them.
+ * Row lengths stay in a plain offsets array either way, so degrees are O(1).
+ *
+ * <p>Searches read rows through a {@link Reader}: over plain rows it points into the backing
+ * array, over encoded rows it decodes into its own buffer; the loop over the row is the same.
+ */
+public final class AdjacencyRows {
+    static final int BLOCK = 16;
+    private static final int BLOCK_SHIFT = 4;
+    // Varints are decoded four bytes at a time; the encoded array is padded so the last one can be read whole
+    private static final VarHandle INT = MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final int PADDING = 4;
+
+    final int[] offsets;          // row r has offsets[r + 1] - offsets[r] values
+    private final int[] values;   // plain rows: row r is values[offsets[r]..offsets[r + 1]); null when encoded
+    private final byte[] bytes;   // encoded rows: per row a varint byte length, then varint gaps
+    private final int[] blockStarts;
+    private final int maxLength;
+
+    private AdjacencyRows(int[] offsets, int[] values, byte[] bytes, int[] blockStarts) {
+        this.offsets = offsets;
+        this.values = values;
+        this.bytes = bytes;
+        this.blockStarts = blockStarts;
+        int max = 0;
+        for (int r = 0; r + 1 < offsets.length; r++) max = Math.max(max, offsets[r + 1] - offsets[r]);
+        this.maxLength = max;
+    }
+
+    static AdjacencyRows plain(int[] offsets, int[] values) {
+        return new AdjacencyRows(offsets, values, null, null);
+    }
+
+    /** Encodes plain rows; the arrays can be dropped afterwards. */
+    static AdjacencyRows encode(int[] offsets, int[] values) {
+        int rows = offsets.length - 1;
+        int[] blockStarts = new int[(rows + BLOCK - 1) >>> BLOCK_SHIFT];
+        byte[] out = new byte[Math.max(16, values.length * 2)];
+        byte[] row = new byte[16];
+        int size = 0;
+        for (int r = 0; r < rows; r++) {
+            if ((r & (BLOCK - 1)) == 0) blockStarts[r >>> BLOCK_SHIFT] = size;
+            int length = 0;
+            int previous = 0;
+            for (int i = offsets[r]; i < offsets[r + 1]; i++) {
+                if (row.length - length < 5) row = Arrays.copyOf(row, row.length * 2);
+                length = writeVarint(row, length, values[i] - previous);
+                previous = values[i];
+            }
+            if (out.length - size < length + 5) out = Arrays.copyOf(out, Math.max(out.length + (out.length >> 1), size + length + 5));
+            size = writeVarint(out, size, length);
+            System.arraycopy(row, 0, out, size, length);
+            size += length;
+        }
+        return new AdjacencyRows(offsets, null, Arrays.copyOf(out, size + PADDING), blockStarts);
+    }
+
+    public boolean encoded() {
+        return values == null;
+    }
+
+    public int rowCount() {
+        return offsets.length - 1;
+    }
+
+    /** Values over all rows. */
+    public int size() {
+        return offsets[offsets.length - 1];
+    }
+
+    public int length(int row) {
+        return offsets[row + 1] - offsets[row];
+    }
+
+    /** Length of the longest row, the buffer a {@link Reader} needs. */
+    public int maxLength() {
+        return maxLength;
+    }
+
+    /** A copy of one row, ascending. */
+    public int[] row(int row) {
+        if (values != null) return Arrays.copyOfRange(values, offsets[row], offsets[row + 1]);
+        int[] out = new int[length(row)];
+        decode(seek(row), out, out.length);
+        return out;
+    }
+
+    /** Writes the values both rows hold to {@code out}, ascending; returns how many there are. */
+    int intersect(int a, int b, int[] out) {
+        if (values != null) {
+            return SortedIntersection.intersect(values, offsets[a], offsets[a + 1], values, offsets[b], offsets[b + 1], out);
+        }
+        int[] first = row(a);
+        int[] second = row(b);
+        return SortedIntersection.intersect(first, 0, first.length, second, 0, second.length, out);
+    }
+
+    /** A reader with its own buffer; not thread-safe, keep one per search or task. */
+    public Reader reader() {
+        return new Reader();
+    }
+
+    /** Approximate heap footprint in bytes. */
+    public long estimatedBytes() {
+        return 4L * offsets.length + (values != null ? 4L * values.length : bytes.length + 4L * blockStarts.length);
+    }
+
+    // Byte position of a row's length prefix: the block start, then whole rows skipped by their lengths
+    private int seek(int row) {
+        int position = blockStarts[row >>> BLOCK_SHIFT];
+        for (int skip = row & (BLOCK - 1); skip > 0; skip--) {
+            int length = bytes[position++];
+            if (length < 0) {
+                length &= 0x7F;
+                int shift = 7;
+                int b;
+                do {
+                    b = bytes[position++];
+                    length |= (b & 0x7F) << shift;
+                    shift += 7;
+                } while (b < 0);
+            }
+            position += length;
+        }
+        return position;
+    }
+
+    /** Decodes {@code count} values of the row whose length prefix is at {@code position}; returns the position after it. */
+    private int decode(int position, int[] out, int count) {
+        byte[] in = bytes;
+        int p = position;
+        // Skip the length prefix
+        while (in[p++] < 0) { }
+        int value = 0;
+        for (int k = 0; k < count; k++) {
+            // Without branching on each byte: the first clear high bit in the word ends the varint
+            int word = (int) INT.get(in, p);
+            int stops = ~word & 0x80808080;
+            if (stops == 0) {
+                // Five bytes: a gap of 2^28 or more
+                value += (word & 0x7F) | (word >>> 1 & 0x3F80) | (word >>> 2 & 0x1FC000) | (word >>> 3 & 0xFE00000) | in[p + 4] << 28;
+                p += 5;
+            } else {
+                int bits = Integer.numberOfTrailingZeros(stops) + 1;
+                word &= -1 >>> (32 - bits);
+                value += (word & 0x7F) | (word >>> 1 & 0x3F80) | (word >>> 2 & 0x1FC000) | (word >>> 3 & 0xFE00000);
+                p += bits >>> 3;
+            }
+            out[k] = value;
+        }
+        return p;
+    }
+
+    private static int writeVarint(byte[] out, int position, int value) {
+        while ((value & ~0x7F) != 0) {
+            out[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out[position++] = (byte) value;
+        return position;
+    }
+
+    /**
+     * Puts one row at a time in reach as {@code values[from..to)}. Reading the row after the
+     * last one read continues from where that one ended instead of seeking.
+     */
+    public final class Reader {
+        int[] values;
+        int from;
+        int to;
+        private final int[] buffer;
+        private int nextRow = -1;
+        private int nextPosition;
+
+        private Reader() {
+            buffer = AdjacencyRows.this.values != null ? null : new int[maxLength];
+        }
+
+        public void read(int row) {
+            if (buffer == null) {
+                values = AdjacencyRows.this.values;
+                from = offsets[row];
+                to = offsets[row + 1];
+                return;
+            }
+            int position = row == nextRow ? nextPosition : seek(row);
+            values = buffer;
+            from = 0;
+            to = offsets[row + 1] - offsets[row];
+            nextPosition = decode(position, buffer, to);
+            nextRow = row + 1;
+        }
+    }
+}
@@ -0,0 +1,350 @@
+package com.example.graph;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Parses decompressed cast.csv (title id, title name, cast ids, cast names per line, comma- or
+ * tab-separated: the loader's input) straight into a {@link CelebrityGraph} and its name
+ * stores, for serving without a database. The reading thread cuts the text into ~1 MB chunks
+ * at line ends; chunks are parsed on the common fork-join pool and merged back in file order,
+ * so the first name seen for an id wins as it does in the loader. Parsing works on the chunk's
+ * bytes: fields and names are offsets into the chunk, quoted fields are unescaped in place,
+ * and chunks are recycled, so there is no allocation per line.
+ *
+ * <p>Lines are split the way the loader splits them: tab-separated when the line has a tab,
+ * otherwise quote-aware CSV; cast lists are separated by ';', '|' or ',', whichever comes first
+ * in that order, and the i-th id pairs with the i-th name.
+ */
+public final class CastCsvReader {
+    private static final int CHUNK = 1 << 20;
+
+    /** The parsed graph and names, and how many lines were read and skipped as malformed. */
+    public record Dataset(CelebrityGraph graph, NameStore celebrityNames, NameStore titleNames,
+                          long lines, long malformedLines, long skippedLinks) {}
+
+    private CastCsvReader() {}
+
+    /**
+     * Reads the whole stream, header line first. {@code afterChunk} runs on the calling thread
+     * after each chunk is merged, e.g. to report progress from the compressed position.
+     */
+    public static Dataset read(InputStream in, boolean compressedAdjacency, Runnable afterChunk) throws IOException {
+        int maxInFlight = Math.max(2, 2 * ForkJoinPool.getCommonPoolParallelism());
+        ArrayDeque<Chunk> free = new ArrayDeque<>();
+        ArrayDeque<CompletableFuture<Chunk>> inFlight = new ArrayDeque<>();
+        Merge merge = new Merge();
+
+        Chunk chunk = new Chunk();
+        int length = 0;
+        boolean header = true;
+        boolean eof = false;
+        while (!eof) {
+            int n = in.read(chunk.data, length, chunk.data.length - length);
+            if (n < 0) {
+                eof = true;
+            } else {
+                length += n;
+                if (length < chunk.data.length) continue;
+            }
+            int end = eof ? length : lastNewline(chunk.data, length) + 1;
+            if (end == 0 && !eof) {
+                // A line longer than the buffer
+                chunk.data = Arrays.copyOf(chunk.data, chunk.data.length * 2);
+                continue;
+            }
+            Chunk next = free.isEmpty() ? new Chunk() : free.poll();
+            int rest = length - end;
+            if (next.data.length < rest * 2) next.data = new byte[rest * 2];
+            System.arraycopy(chunk.data, end, next.data, 0, rest);
+
+            chunk.start = 0;
+            chunk.end = end;
+            if (header) {
+                int newline = indexOf(chunk.data, (byte) '\n', 0, end);
+                chunk.start = newline < 0 ? end : newline + 1;
+                header = false;
+            }
+            Chunk parsing = chunk;
+            inFlight.add(CompletableFuture.supplyAsync(parsing::parse));
+            while (inFlight.size() >= maxInFlight) {
+                free.add(merge.add(inFlight.poll().join()));
+                afterChunk.run();
+            }
+            chunk = next;
+            length = rest;
+        }
+        while (!inFlight.isEmpty()) {
+            merge.add(inFlight.poll().join());
+            afterChunk.run();
+        }
+        return merge.build(compressedAdjacency);
+    }
+
+    private static int lastNewline(byte[] data, int length) {
+        for (int i = length - 1; i >= 0; i--) {
+            if (data[i] == '\n') return i;
+        }
+        return -1;
+    }
+
+    private static int indexOf(byte[] data, byte b, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (data[i] == b) return i;
+        }
+        return -1;
+    }
+
+    // Bytes 0..0x20 are what String.trim() strips; UTF-8 continuation bytes are negative and never match
+    private static boolean blank(byte b) {
+        return b >= 0 && b <= ' ';
+    }
+
+    /**
+     * One chunk of lines and what parsing it found: per credit (celebrity, title, name offset,
+     * name length) and per title line (title, name offset, name length), ids as IMDb numbers.
+     */
+    private static final class Chunk {
+        byte[] data = new byte[CHUNK];
+        int start;
+        int end;
+        int[] credits = new int[1 << 14];
+        int creditCount;
+        int[] titles = new int[1 << 12];
+        int titleCount;
+        int lines;
+        int malformed;
+        // Field bounds of the current line, and the parts of its two cast lists
+        private final int[] fields = new int[8];
+        private int[] ids = new int[64];
+        private int[] names = new int[64];
+
+        Chunk parse() {
+            creditCount = 0;
+            titleCount = 0;
+            lines = 0;
+            malformed = 0;
+            int p = start;
+            while (p < end) {
+                int newline = indexOf(data, (byte) '\n', p, end);
+                int lineEnd = newline < 0 ? end : newline;
+                int e = lineEnd > p && data[lineEnd - 1] == '\r' ? lineEnd - 1 : lineEnd;
+                parseLine(p, e);
+                p = lineEnd + 1;
+            }
+            return this;
+        }
+
+        private void parseLine(int from, int to) {
+            lines++;
+            int a = from;
+            while (a < to && blank(data[a])) a++;
+            if (a == to) return;
+            boolean tabs = indexOf(data, (byte) '\t', from, to) >= 0;
+            if ((tabs ? splitTabs(from, to) : splitCsv(from, to)) < 4) {
+                malformed++;
+                return;
+            }
+            int idFrom = trimStart(fields[0], fields[1]);
+            int idTo = trimEnd(idFrom, fields[1]);
+            int title = ImdbIds.parse("tt", data, idFrom, idTo);
+            int idCount = splitList(fields[4], fields[5], true);
+            int nameCount = splitList(fields[6], fields[7], false);
+
+            if (title >= 0) {
+                int nameFrom = trimStart(fields[2], fields[3]);
+                int nameTo = trimEnd(nameFrom, fields[3]);
+                if (nameFrom == nameTo) {
+                    nameFrom = idFrom;
+                    nameTo = idTo;
+                }
+                if (titleCount + 3 > titles.length) titles = Arrays.copyOf(titles, titles.length * 2);
+                titles[titleCount++] = title;
+                titles[titleCount++] = nameFrom;
+                titles[titleCount++] = nameTo - nameFrom;
+            }
+            int pairs = Math.min(idCount, nameCount);
+            if (creditCount + 4 * pairs > credits.length) {
+                credits = Arrays.copyOf(credits, Math.max(credits.length * 2, creditCount + 4 * pairs));
+            }
+            for (int i = 0; i < pairs; i++) {
+                credits[creditCount++] = ImdbIds.parse("nm", data, ids[2 * i], ids[2 * i + 1]);
+                credits[creditCount++] = title;
+                credits[creditCount++] = names[2 * i];
+                credits[creditCount++] = names[2 * i + 1] - names[2 * i];
+            }
+        }
+
+        // String.split("\t", -1): every field counts, the first four are kept
+        private int splitTabs(int from, int to) {
+            int count = 0;
+            int fieldStart = from;
+            for (int i = from; i <= to; i++) {
+                if (i == to || data[i] == '\t') {
+                    if (count < 4) {
+                        fields[2 * count] = fieldStart;
+                        fields[2 * count + 1] = i;
+                    }
+                    count++;
+                    fieldStart = i + 1;
+                }
+            }
+            return count;
+        }
+
+        // Quote-aware CSV, "" unescaped to " by shifting the field left in place; quotes around a field are trimmed
+        private int splitCsv(int from, int to) {
+            int count = 0;
+            int write = from;
+            int fieldStart = from;
+            boolean quoted = false;
+            for (int i = from; i < to; i++) {
+                byte b = data[i];
+                if (b == '"') {
+                    if (quoted && i + 1 < to && data[i + 1] == '"') {
+                        data[write++] = '"';
+                        i++;
+                    } else {
+                        quoted = !quoted;
+                    }
+                } else if (b == ',' && !quoted) {
+                    if (count < 4) trimQuotes(count, fieldStart, write);
+                    count++;
+                    fieldStart = write;
+                } else {
+                    data[write++] = b;
+                }
+            }
+            if (count < 4) trimQuotes(count, fieldStart, write);
+            return count + 1;
+        }
+
+        private void trimQuotes(int field, int from, int to) {
+            from = trimStart(from, to);
+            to = trimEnd(from, to);
+            if (to - from >= 2 && data[from] == '"' && data[to - 1] == '"') {
+                from++;
+                to--;
+            }
+            fields[2 * field] = from;
+            fields[2 * field + 1] = to;
+        }
+
+        /** Splits a cast list into its trimmed, non-empty parts; returns how many there are. */
+        private int splitList(int from, int to, boolean intoIds) {
+            from = trimStart(from, to);
+            to = trimEnd(from, to);
+            if (to - from >= 2 && data[from] == '"' && data[to - 1] == '"') {
+                from++;
+                to--;
+            }
+            if (from == to || (to - from == 4 && data[from] == 'n' && data[from + 1] == 'u' && data[from + 2] == 'l' && data[from + 3] == 'l')) {
+                return 0;
+            }
+            byte separator = indexOf(data, (byte) ';', from, to) >= 0 ? (byte) ';'
+                    : indexOf(data, (byte) '|', from, to) >= 0 ? (byte) '|' : (byte) ',';
+            int[] parts = intoIds ? ids : names;
+            int count = 0;
+            int partStart = from;
+            for (int i = from; i <= to; i++) {
+                if (i == to || data[i] == separator) {
+                    int s = trimStart(partStart, i);
+                    int e = trimEnd(s, i);
+                    if (s < e) {
+                        if (2 * count + 2 > parts.length) parts = Arrays.copyOf(parts, parts.length * 2);
+                        parts[2 * count] = s;
+                        parts[2 * count + 1] = e;
+                        count++;
+                    }
+                    partStart = i + 1;
+                }
+            }
+            if (intoIds) ids = parts;
+            else names = parts;
+            return count;
+        }
+
+        private int trimStart(int from, int to) {
+            while (from < to && blank(data[from])) from++;
+            return from;
+        }
+
+        private int trimEnd(int from, int to) {
+            while (to > from && blank(data[to - 1])) to--;
+            return to;
+        }
+    }
+
+    /** Folds parsed chunks, in file order, into the graph builder and the first name per id. */
+    private static final class Merge {
+        private final CelebrityGraph.Builder builder = new CelebrityGraph.Builder();
+        private final BitSet namedCelebrities = new BitSet();
+        private final BitSet namedTitles = new BitSet();
+        // Names staged by IMDb number until the dense ids exist: (number, offset, length) into the arena
+        private byte[] arena = new byte[1 << 20];
+        private int arenaUsed;
+        private int[] celebrityNames = new int[1 << 15];
+        private int celebrityNameCount;
+        private int[] titleNames = new int[1 << 15];
+        private int titleNameCount;
+        private long lines;
+        private long malformed;
+
+        Chunk add(Chunk chunk) {
+            lines += chunk.lines;
+            malformed += chunk.malformed;
+            int[] credits = chunk.credits;
+            for (int i = 0; i < chunk.creditCount; i += 4) {
+                int celebrity = credits[i];
+                builder.add(celebrity, credits[i + 1]);
+                if (celebrity >= 0 && !namedCelebrities.get(celebrity)) {
+                    namedCelebrities.set(celebrity);
+                    celebrityNames = stage(celebrityNames, celebrityNameCount, celebrity, chunk.data, credits[i + 2], credits[i + 3]);
+                    celebrityNameCount += 3;
+                }
+            }
+            int[] titles = chunk.titles;
+            for (int i = 0; i < chunk.titleCount; i += 3) {
+                int title = titles[i];
+                if (!namedTitles.get(title)) {
+                    namedTitles.set(title);
+                    titleNames = stage(titleNames, titleNameCount, title, chunk.data, titles[i + 1], titles[i + 2]);
+                    titleNameCount += 3;
+                }
+            }
+            return chunk;
+        }
+
+        private int[] stage(int[] staged, int count, int imdb, byte[] data, int offset, int length) {
+            if (count + 3 > staged.length) staged = Arrays.copyOf(staged, staged.length * 2);
+            if (arenaUsed + length > arena.length) arena = Arrays.copyOf(arena, Math.max(arena.length * 2, arenaUsed + length));
+            System.arraycopy(data, offset, arena, arenaUsed, length);
+            staged[count] = imdb;
+            staged[count + 1] = arenaUsed;
+            staged[count + 2] = length;
+            arenaUsed += length;
+            return staged;
+        }
+
+        Dataset build(boolean compressedAdjacency) {
+            long skipped = builder.skipped();
+            CelebrityGraph graph = builder.build(compressedAdjacency);
+            NameStore.Builder celebrities = new NameStore.Builder(graph.celebrityCount());
+            for (int i = 0; i < celebrityNameCount; i += 3) {
+                int c = graph.celebrityOf(celebrityNames[i]);
+                if (c >= 0) celebrities.put(c, arena, celebrityNames[i + 1], celebrityNames[i + 2]);
+            }
+            NameStore.Builder titles = new NameStore.Builder(graph.titleCount());
+            for (int i = 0; i < titleNameCount; i += 3) {
+                int t = graph.titleOf(titleNames[i]);
+                if (t >= 0) titles.put(t, arena, titleNames[i + 1], titleNames[i + 2]);
+            }
+            return new Dataset(graph, celebrities.build(), titles.build(), lines, malformed, skipped);
+        }
+    }
+}
@@ -0,0 +1,294 @@
+package com.example.graph;
+
+import java.util.Arrays;
+
+/**
+ * The celebrity/title graph in memory, as two adjacency row sets (celebrity to titles, title
+ * to cast) over dense int ids, plain or delta-varint encoded ({@link AdjacencyRows}). Dense ids
+ * are positions in the ascending list of numeric IMDb ids, so a String id maps to its node with
+ * one binary search and every adjacency row is sorted. Immutable once built; safe to share
+ * between searches.
+ */
+public final class CelebrityGraph {
+    private final int[] celebrityImdb;   // dense celebrity id -> numeric IMDb id, ascending
+    private final int[] titleImdb;       // dense title id -> numeric IMDb id, ascending
+    final AdjacencyRows titleRows;       // row c: the titles of celebrity c
+    final AdjacencyRows castRows;        // row t: the cast of title t
+
+    private CelebrityGraph(int[] celebrityImdb, int[] titleImdb, AdjacencyRows titleRows, AdjacencyRows castRows) {
+        this.celebrityImdb = celebrityImdb;
+        this.titleImdb = titleImdb;
+        this.titleRows = titleRows;
+        this.castRows = castRows;
+    }
+
+    public int celebrityCount() {
+        return celebrityImdb.length;
+    }
+
+    public int titleCount() {
+        return titleImdb.length;
+    }
+
+    /** Celebrity–title links. */
+    public int edgeCount() {
+        return titleRows.size();
+    }
+
+    /** Whether the adjacency rows are delta-varint encoded. */
+    public boolean compressed() {
+        return titleRows.encoded();
+    }
+
+    /** Dense id of a celebrity, or -1 when it is not in the graph. */
+    public int celebrity(String imdbId) {
+        int value = ImdbIds.parse("nm", imdbId);
+        return value < 0 ? -1 : Math.max(-1, Arrays.binarySearch(celebrityImdb, value));
+    }
+
+    /** Dense id of the celebrity with this numeric IMDb id, or -1. */
+    int celebrityOf(int imdb) {
+        return Math.max(-1, Arrays.binarySearch(celebrityImdb, imdb));
+    }
+
+    /** Dense id of the title with this numeric IMDb id, or -1. */
+    int titleOf(int imdb) {
+        return Math.max(-1, Arrays.binarySearch(titleImdb, imdb));
+    }
+
+    public String celebrityId(int celebrity) {
+        return ImdbIds.format("nm", celebrityImdb[celebrity]);
+    }
+
+    /** Dense id of a title, or -1 when it is not in the graph. */
+    public int title(String imdbId) {
+        int value = ImdbIds.parse("tt", imdbId);
+        return value < 0 ? -1 : Math.max(-1, Arrays.binarySearch(titleImdb, value));
+    }
+
+    public String titleId(int title) {
+        return ImdbIds.format("tt", titleImdb[title]);
+    }
+
+    /** Number of titles of a celebrity. */
+    public int degree(int celebrity) {
+        return titleRows.length(celebrity);
+    }
+
+    public int castSize(int title) {
+        return castRows.length(title);
+    }
+
+    /** A copy of the celebrity's titles, ascending. */
+    public int[] titlesOf(int celebrity) {
+        return titleRows.row(celebrity);
+    }
+
+    /** A copy of the title's cast, ascending. */
+    public int[] castOf(int title) {
+        return castRows.row(title);
+    }
+
+    /** Titles two celebrities share, ascending. */
+    public int[] sharedTitles(int a, int b) {
+        int[] shared = new int[Math.min(degree(a), degree(b))];
+        int count = titleRows.intersect(a, b, shared);
+        return count == shared.length ? shared : Arrays.copyOf(shared, count);
+    }
+
+    /** Reads celebrities' title rows; one per search or task. */
+    AdjacencyRows.Reader titleReader() {
+        return titleRows.reader();
+    }
+
+    /** Reads titles' cast rows; one per search or task. */
+    AdjacencyRows.Reader castReader() {
+        return castRows.reader();
+    }
+
+    /**
+     * A 64-bit hash of the ids and adjacency, so data derived from one graph (such as a stored
+     * {@link HubTable}) can tell whether it still matches.
+     */
+    public long fingerprint() {
+        long hash = 1;
+        for (int[] array : new int[][]{celebrityImdb, titleImdb, titleRows.offsets}) {
+            hash = hash * 0x9E3779B97F4A7C15L + array.length;
+            for (int value : array) hash = (hash ^ value) * 0x100000001B3L;
+        }
+        // The title rows in order, as one array; the same hash whichever way they are stored
+        hash = hash * 0x9E3779B97F4A7C15L + titleRows.size();
+        AdjacencyRows.Reader row = titleReader();
+        for (int c = 0; c < celebrityCount(); c++) {
+            row.read(c);
+            for (int i = row.from; i < row.to; i++) hash = (hash ^ row.values[i]) * 0x100000001B3L;
+        }
+        return hash;
+    }
+
+    /** Approximate heap footprint in bytes. */
+    public long estimatedBytes() {
+        return 4L * (celebrityImdb.length + titleImdb.length) + titleRows.estimatedBytes() + castRows.estimatedBytes();
+    }
+
+    /**
+     * Collects celebrity–title links in any order, duplicates allowed, and turns them into a
+     * graph. Links are buffered as two int arrays (8 bytes per link) until {@link #build()}.
+     */
+    public static final class Builder {
+        private int[] celebrities = new int[1 << 16];
+        private int[] linkedTitles = new int[1 << 16];
+        private int size;
+        private long skipped;
+
+        /** Adds a link; returns false (and skips it) when either id is not a canonical IMDb id. */
+        public boolean add(String celebrityId, String titleId) {
+            return add(ImdbIds.parse("nm", celebrityId), ImdbIds.parse("tt", titleId));
+        }
+
+        /** Adds a link by numeric IMDb ids, as {@link ImdbIds#parse} returns them; -1 skips it. */
+        public boolean add(int celebrity, int title) {
+            if (celebrity < 0 || title < 0) {
+                skipped++;
+                return false;
+            }
+            if (size == celebrities.length) {
+                int capacity = size + (size >> 1);
+                celebrities = Arrays.copyOf(celebrities, capacity);
+                linkedTitles = Arrays.copyOf(linkedTitles, capacity);
+            }
+            celebrities[size] = celebrity;
+            linkedTitles[size] = title;
+            size++;
+            return true;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        /** Links rejected by {@link #add} because of a non-canonical id. */
+        public long skipped() {
+            return skipped;
+        }
+
+        public CelebrityGraph build() {
+            return build(false);
+        }
+
+        /** Builds the graph, with delta-varint encoded adjacency rows when {@code compressed}. */
+        public CelebrityGraph build(boolean compressed) {
+            // Rewrite the buffered links to dense ids in place
+            int[] celebrityImdb = toDenseIds(celebrities, size);
+            int[] titleImdb = toDenseIds(linkedTitles, size);
+
+            // Three counting-sort passes leave every row sorted: links grouped by title (unsorted rows),
+            // then celebrity rows filled in title order, then title rows filled in celebrity order.
+            int[] castOffsets = offsets(linkedTitles, size, titleImdb.length);
+            int[] castByTitle = scatter(linkedTitles, celebrities, size, castOffsets);
+            celebrities = linkedTitles = null; // release the link buffers before the next allocations
+
+            int[] titleOffsets = new int[celebrityImdb.length + 1];
+            for (int c : castByTitle) titleOffsets[c + 1]++;
+            prefixSum(titleOffsets);
+            int[] titles = new int[castByTitle.length];
+            int[] fill = Arrays.copyOf(titleOffsets, celebrityImdb.length);
+            for (int t = 0; t < titleImdb.length; t++) {
+                for (int i = castOffsets[t]; i < castOffsets[t + 1]; i++) {
+                    titles[fill[castByTitle[i]]++] = t;
+                }
+            }
+            titles = dropDuplicates(titleOffsets, titles);
+
+            castOffsets = new int[titleImdb.length + 1];
+            for (int t : titles) castOffsets[t + 1]++;
+            prefixSum(castOffsets);
+            int[] cast = new int[titles.length];
+            fill = Arrays.copyOf(castOffsets, titleImdb.length);
+            for (int c = 0; c < celebrityImdb.length; c++) {
+                for (int i = titleOffsets[c]; i < titleOffsets[c + 1]; i++) {
+                    cast[fill[titles[i]]++] = c;
+                }
+            }
+            if (!compressed) {
+                return new CelebrityGraph(celebrityImdb, titleImdb, AdjacencyRows.plain(titleOffsets, titles),
+                        AdjacencyRows.plain(castOffsets, cast));
+            }
+            AdjacencyRows castRows = AdjacencyRows.encode(castOffsets, cast);
+            cast = null;
+            return new CelebrityGraph(celebrityImdb, titleImdb, AdjacencyRows.encode(titleOffsets, titles), castRows);
+        }
+
+        /**
+         * Replaces {@code values[0..size)} by their rank among the distinct values and returns those,
+         * ascending. IMDb numbers are dense enough for a bitmap of the values seen plus a popcount
+         * per word to give each rank in O(1), with no sort; very sparse values are sorted and searched.
+         */
+        private static int[] toDenseIds(int[] values, int size) {
+            int max = 0;
+            for (int i = 0; i < size; i++) max = Math.max(max, values[i]);
+            int words = (max >>> 6) + 1;
+            if (words > 4L * size + 1024) {
+                int[] sorted = Arrays.copyOf(values, size);
+                Arrays.parallelSort(sorted);
+                int distinct = 0;
+                for (int i = 0; i < sorted.length; i++) {
+                    if (i == 0 || sorted[i] != sorted[i - 1]) sorted[distinct++] = sorted[i];
+                }
+                sorted = Arrays.copyOf(sorted, distinct);
+                for (int i = 0; i < size; i++) values[i] = Arrays.binarySearch(sorted, values[i]);
+                return sorted;
+            }
+            long[] seen = new long[words];
+            for (int i = 0; i < size; i++) seen[values[i] >>> 6] |= 1L << values[i];
+            int[] ranks = new int[words]; // distinct values in the words before
+            int distinct = 0;
+            for (int w = 0; w < words; w++) {
+                ranks[w] = distinct;
+                distinct += Long.bitCount(seen[w]);
+            }
+            int[] sorted = new int[distinct];
+            for (int w = 0, n = 0; w < words; w++) {
+                for (long bits = seen[w]; bits != 0; bits &= bits - 1) sorted[n++] = (w << 6) | Long.numberOfTrailingZeros(bits);
+            }
+            for (int i = 0; i < size; i++) {
+                int v = values[i];
+                values[i] = ranks[v >>> 6] + Long.bitCount(seen[v >>> 6] & ((1L << v) - 1));
+            }
+            return sorted;
+        }
+
+        private static int[] offsets(int[] keys, int size, int count) {
+            int[] offsets = new int[count + 1];
+            for (int i = 0; i < size; i++) offsets[keys[i] + 1]++;
+            prefixSum(offsets);
+            return offsets;
+        }
+
+        private static int[] scatter(int[] keys, int[] values, int size, int[] offsets) {
+            int[] out = new int[size];
+            int[] fill = Arrays.copyOf(offsets, offsets.length - 1);
+            for (int i = 0; i < size; i++) out[fill[keys[i]]++] = values[i];
+            return out;
+        }
+
+        private static void prefixSum(int[] offsets) {
+            for (int i = 1; i < offsets.length; i++) offsets[i] += offsets[i - 1];
+        }
+
+        /** Removes repeated entries from sorted rows, rewriting the offsets; returns the compacted array. */
+        private static int[] dropDuplicates(int[] offsets, int[] rows) {
+            int out = 0;
+            for (int r = 0; r + 1 < offsets.length; r++) {
+                int start = offsets[r];
+                int end = offsets[r + 1];
+                offsets[r] = out;
+                for (int i = start; i < end; i++) {
+                    if (i == start || rows[i] != rows[i - 1]) rows[out++] = rows[i];
+                }
+            }
+            offsets[offsets.length - 1] = out;
+            return out == rows.length ? rows : Arrays.copyOf(rows, out);
+        }
+    }
+}
@@ -0,0 +1,250 @@
+package com.example.graph;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Exact hop distances between any two celebrities from a 2-hop label index (pruned landmark
+ * labeling). Every celebrity has a label: (hub, distance) pairs sorted by hub, where hubs are
+ * celebrities ranked by degree. For any connected pair some hub on a shortest path between them
+ * is in both labels, so their distance is the smallest sum over hubs the labels share: one
+ * merge of two short sorted arrays, no search.
+ *
+ * <p>Built with one BFS per celebrity in rank order. A BFS from hub h stops at every celebrity
+ * whose distance from h the labels already give, so later BFSes stay small and labels short.
+ * Workers run the BFSes of consecutive hubs at once, each pruning with the labels of the hubs
+ * before the batch; that prunes a little less than running them in turn, so labels come out
+ * slightly longer, but every distance is still exact.
+ */
+public final class DistanceLabels {
+    private static final int FORMAT = 1;
+    private static final int MAX_DISTANCE = 255; // unsigned byte
+
+    private final int[] offsets; // celebrity c's entries are [offsets[c], offsets[c + 1])
+    private final int[] hubs;    // hub ranks, ascending within a label
+    private final byte[] distances;
+
+    private DistanceLabels(int[] offsets, int[] hubs, byte[] distances) {
+        this.offsets = offsets;
+        this.hubs = hubs;
+        this.distances = distances;
+    }
+
+    /**
+     * Builds the labels, or returns null once they would hold more than {@code maxEntries}
+     * pairs (5 bytes each) or a distance beyond 255 hops.
+     */
+    public static DistanceLabels build(CelebrityGraph graph, long maxEntries) {
+        int n = graph.celebrityCount();
+        long limit = Math.min(maxEntries, Integer.MAX_VALUE - 8); // offsets are ints
+        long[] ranked = new long[n];
+        for (int c = 0; c < n; c++) ranked[c] = ((long) graph.degree(c) << 32) | c;
+        Arrays.sort(ranked);
+        int[] order = new int[n]; // rank -> celebrity, highest degree first
+        for (int r = 0; r < n; r++) order[r] = (int) ranked[n - 1 - r];
+
+        int[][] labelHubs = new int[n][];
+        byte[][] labelDistances = new byte[n][];
+        int[] labelSizes = new int[n];
+        int workers = Math.max(1, Math.min(n, Runtime.getRuntime().availableProcessors()));
+        Bfs[] bfs = new Bfs[workers];
+        for (int w = 0; w < workers; w++) bfs[w] = new Bfs(graph);
+        long entries = 0;
+        for (int first = 0; first < n; first += workers) {
+            int batch = Math.min(workers, n - first);
+            int from = first;
+            // Labels only grow between batches, so the BFSes of a batch share them read-only
+            boolean fits = IntStream.range(0, batch).parallel()
+                    .allMatch(w -> bfs[w].run(from + w, order[from + w], labelHubs, labelDistances, labelSizes));
+            if (!fits) return null;
+            for (int w = 0; w < batch; w++) {
+                Bfs b = bfs[w];
+                for (int i = 0; i < b.reached; i++) {
+                    int v = b.visited[i];
+                    int size = labelSizes[v];
+                    if (labelHubs[v] == null) {
+                        labelHubs[v] = new int[4];
+                        labelDistances[v] = new byte[4];
+                    } else if (size == labelHubs[v].length) {
+                        labelHubs[v] = Arrays.copyOf(labelHubs[v], size * 2);
+                        labelDistances[v] = Arrays.copyOf(labelDistances[v], size * 2);
+                    }
+                    labelHubs[v][size] = from + w;
+                    labelDistances[v][size] = (byte) b.reachedDepth[i];
+                    labelSizes[v] = size + 1;
+                }
+                entries += b.reached;
+            }
+            if (entries > limit) return null;
+        }
+
+        int[] offsets = new int[n + 1];
+        for (int c = 0; c < n; c++) offsets[c + 1] = offsets[c] + labelSizes[c];
+        int[] hubs = new int[offsets[n]];
+        byte[] distances = new byte[offsets[n]];
+        for (int c = 0; c < n; c++) {
+            if (labelSizes[c] == 0) continue;
+            System.arraycopy(labelHubs[c], 0, hubs, offsets[c], labelSizes[c]);
+            System.arraycopy(labelDistances[c], 0, distances, offsets[c], labelSizes[c]);
+            labelHubs[c] = null;
+            labelDistances[c] = null;
+        }
+        return new DistanceLabels(offsets, hubs, distances);
+    }
+
+    /** Hops between two celebrities (dense ids), or -1 when they are not connected. */
+    public int distance(int a, int b) {
+        if (a == b) return 0;
+        int i = offsets[a];
+        int iEnd = offsets[a + 1];
+        int j = offsets[b];
+        int jEnd = offsets[b + 1];
+        int best = Integer.MAX_VALUE;
+        while (i < iEnd && j < jEnd) {
+            int hi = hubs[i];
+            int hj = hubs[j];
+            if (hi < hj) {
+                i++;
+            } else if (hi > hj) {
+                j++;
+            } else {
+                best = Math.min(best, (distances[i++] & 0xFF) + (distances[j++] & 0xFF));
+            }
+        }
+        return best == Integer.MAX_VALUE ? -1 : best;
+    }
+
+    public int celebrityCount() {
+        return offsets.length - 1;
+    }
+
+    /** Label entries over all celebrities. */
+    public long entries() {
+        return hubs.length;
+    }
+
+    public long estimatedBytes() {
+        return 4L * offsets.length + 5L * hubs.length;
+    }
+
+    public void writeTo(DataOutputStream out) throws IOException {
+        out.writeInt(FORMAT);
+        out.writeInt(celebrityCount());
+        for (int offset : offsets) out.writeInt(offset);
+        for (int hub : hubs) out.writeInt(hub);
+        out.write(distances);
+    }
+
+    /** Reads labels written by {@link #writeTo} for the same graph; sizes and hub order are checked. */
+    public static DistanceLabels readFrom(DataInputStream in, CelebrityGraph graph) throws IOException {
+        if (in.readInt() != FORMAT) throw new IOException("Unknown distance label format");
+        int n = in.readInt();
+        if (n != graph.celebrityCount()) throw new IOException("Distance labels do not match the graph");
+        int[] offsets = new int[n + 1];
+        for (int c = 0; c <= n; c++) {
+            offsets[c] = in.readInt();
+            if (c == 0 ? offsets[c] != 0 : offsets[c] < offsets[c - 1]) throw new IOException("Distance labels are corrupt");
+        }
+        int[] hubs = new int[offsets[n]];
+        for (int c = 0; c < n; c++) {
+            for (int i = offsets[c]; i < offsets[c + 1]; i++) {
+                hubs[i] = in.readInt();
+                if (hubs[i] < 0 || hubs[i] >= n || (i > offsets[c] && hubs[i] <= hubs[i - 1])) {
+                    throw new IOException("Distance labels are corrupt");
+                }
+            }
+        }
+        byte[] distances = new byte[offsets[n]];
+        in.readFully(distances);
+        return new DistanceLabels(offsets, hubs, distances);
+    }
+
+    /** One worker's pruned BFS, reused for every hub it handles. */
+    private static final class Bfs {
+        final AdjacencyRows.Reader titles;
+        final AdjacencyRows.Reader cast;
+        final int[] stamp;
+        final int[] titleStamp;
+        final int[] queue;
+        final int[] hubDistance; // by hub rank: the root's label, unpacked; MAX_VALUE elsewhere
+        int[] visited = new int[64];      // celebrities that get the root in their label
+        int[] reachedDepth = new int[64];
+        int reached;
+        int epoch;
+
+        Bfs(CelebrityGraph graph) {
+            titles = graph.titleReader();
+            cast = graph.castReader();
+            stamp = new int[graph.celebrityCount()];
+            titleStamp = new int[graph.titleCount()];
+            queue = new int[graph.celebrityCount()];
+            hubDistance = new int[graph.celebrityCount()];
+            Arrays.fill(hubDistance, Integer.MAX_VALUE);
+        }
+
+        /** Collects the celebrities whose labels gain (rank, distance); false if one is beyond 255 hops. */
+        boolean run(int rank, int root, int[][] labelHubs, byte[][] labelDistances, int[] labelSizes) {
+            epoch++;
+            reached = 0;
+            int rootSize = labelSizes[root];
+            for (int i = 0; i < rootSize; i++) hubDistance[labelHubs[root][i]] = labelDistances[root][i] & 0xFF;
+            try {
+                stamp[root] = epoch;
+                queue[0] = root;
+                int head = 0;
+                int size = 1;
+                int levelEnd = 1;
+                int depth = 0;
+                while (head < size) {
+                    if (head == levelEnd) {
+                        levelEnd = size;
+                        depth++;
+                    }
+                    int u = queue[head++];
+                    // Pruned: a hub ranked higher already gives a path this short, so u and everything behind it are covered
+                    if (covered(u, depth, labelHubs, labelDistances, labelSizes)) continue;
+                    if (depth > MAX_DISTANCE) return false;
+                    record(u, depth);
+                    titles.read(u);
+                    for (int x = titles.from; x < titles.to; x++) {
+                        int t = titles.values[x];
+                        if (titleStamp[t] == epoch) continue;
+                        titleStamp[t] = epoch;
+                        cast.read(t);
+                        for (int y = cast.from; y < cast.to; y++) {
+                            int v = cast.values[y];
+                            if (stamp[v] == epoch) continue;
+                            stamp[v] = epoch;
+                            queue[size++] = v;
+                        }
+                    }
+                }
+                return true;
+            } finally {
+                for (int i = 0; i < rootSize; i++) hubDistance[labelHubs[root][i]] = Integer.MAX_VALUE;
+            }
+        }
+
+        private boolean covered(int u, int depth, int[][] labelHubs, byte[][] labelDistances, int[] labelSizes) {
+            int[] hubs = labelHubs[u];
+            byte[] distances = labelDistances[u];
+            for (int i = 0; i < labelSizes[u]; i++) {
+                int d = hubDistance[hubs[i]];
+                if (d != Integer.MAX_VALUE && d + (distances[i] & 0xFF) <= depth) return true;
+            }
+            return false;
+        }
+
+        private void record(int u, int depth) {
+            if (reached == visited.length) {
+                visited = Arrays.copyOf(visited, reached * 2);
+                reachedDepth = Arrays.copyOf(reachedDepth, reached * 2);
+            }
+            visited[reached] = u;
+            reachedDepth[reached++] = depth;
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package com.example.graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Fewest-hops search over the in-memory graph: the database BFS's bidirectional search, with
+ * the same smaller-frontier-first rule and up to {@code maxPaths} shortest paths through
+ * distinct meeting points, but over dense ids and whole frontier levels. Each side expands a
+ * title once, so a big ensemble cast is scanned once per side rather than once per member.
+ * {@link PathExclusions} are tested in the inner loops, one bit per title and per co-star.
+ */
+public final class HopPathFinder {
+    private static final int EXPIRY_CHECK_INTERVAL = 256;
+
+    private final CelebrityGraph graph;
+    private final ScratchPool<Scratch> scratchPool;
+
+    /**
+     * Outcome of one search. {@code paths} hold dense celebrity ids from source to target, all of
+     * the shortest length; empty when no path was found or the search gave up early.
+     */
+    public record Result(List<int[]> paths, int expanded, int maxFrontier, boolean capHit, boolean timedOut) {}
+
+    public HopPathFinder(CelebrityGraph graph) {
+        this(graph, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Holds at most {@code maxScratch} scratch sets (see {@link #scratchBytes}); a search arriving
+     * while all are in use waits for one, and times out if its budget runs out first.
+     */
+    public HopPathFinder(CelebrityGraph graph, int maxScratch) {
+        this.graph = graph;
+        this.scratchPool = new ScratchPool<>(maxScratch, () -> new Scratch(graph));
+    }
+
+    /** Heap of one search's scratch: a stamp and parent per celebrity and a stamp per title, for each side. */
+    public static long scratchBytes(CelebrityGraph graph) {
+        return 2 * 4L * (2L * graph.celebrityCount() + graph.titleCount());
+    }
+
+    public CelebrityGraph graph() {
+        return graph;
+    }
+
+    /**
+     * Up to {@code maxPaths} shortest paths avoiding {@code exclusions}. Gives up once more than
+     * {@code maxVisited} celebrities have been reached or {@code expired} reports the budget spent.
+     */
+    public Result find(int source, int target, int maxPaths, int maxVisited, PathExclusions exclusions, BooleanSupplier expired) {
+        if (source == target) return new Result(List.of(new int[]{source}), 0, 0, false, false);
+        return find(new int[]{source}, new int[]{target}, maxPaths, maxVisited, exclusions, expired);
+    }
+
+    /**
+     * Shortest paths from any of {@code sources} to any of {@code targets}: every member of a set
+     * starts at depth 0 on its side, as if linked from one virtual node, so the whole set-to-set
+     * question is one search. Paths start at a source and end at a target; celebrities in both
+     * sets come back as one-node paths. Duplicates in a set are ignored.
+     */
+    public Result find(int[] sources, int[] targets, int maxPaths, int maxVisited, PathExclusions exclusions, BooleanSupplier expired) {
+        Scratch s = scratchPool.acquire(expired);
+        if (s == null) return new Result(List.of(), 0, 0, false, true);
+        try {
+            return search(s, sources, targets, maxPaths, maxVisited, exclusions, expired);
+        } finally {
+            scratchPool.release(s);
+        }
+    }
+
+    private Result search(Scratch s, int[] sources, int[] targets, int maxPaths, int maxVisited,
+                          PathExclusions exclusions, BooleanSupplier expired) {
+        int epoch = s.nextEpoch();
+        Side forward = s.forward;
+        Side backward = s.backward;
+        forward.start(sources, epoch);
+        backward.start(targets, epoch);
+        long[] excludedTitles = exclusions.titles;
+        long[] excludedCelebrities = exclusions.celebrities;
+        AdjacencyRows.Reader titles = s.titles;
+        AdjacencyRows.Reader cast = s.cast;
+        maxPaths = Math.min(maxPaths, s.meetings.length);
+
+        int shortest = Integer.MAX_VALUE;
+        int meetings = 0;
+        int expanded = 0;
+        int visited = forward.size + backward.size;
+        int maxFrontier = Math.max(forward.size, backward.size);
+        // Sets that share members are already connected
+        for (int f = 0; f < backward.size && meetings < maxPaths; f++) {
+            int v = backward.frontier[f];
+            if (forward.stamp[v] == epoch) {
+                shortest = 0;
+                s.meetings[meetings++] = v;
+            }
+        }
+        while (meetings == 0 && forward.size > 0 && backward.size > 0) {
+            // Smaller frontier first, as in the database BFS
+            boolean isForward = forward.size <= backward.size;
+            Side side = isForward ? forward : backward;
+            Side other = isForward ? backward : forward;
+            int depth = side.depth + 1;
+            int nextSize = 0;
+            for (int f = 0; f < side.size; f++) {
+                int u = side.frontier[f];
+                if (++expanded % EXPIRY_CHECK_INTERVAL == 0 && expired.getAsBoolean()) {
+                    return new Result(List.of(), expanded, maxFrontier, false, true);
+                }
+                titles.read(u);
+                for (int i = titles.from; i < titles.to; i++) {
+                    int t = titles.values[i];
+                    if (side.titleStamp[t] == epoch) continue;
+                    side.titleStamp[t] = epoch;
+                    if (excludedTitles != null && (excludedTitles[t >>> 6] & (1L << t)) != 0) continue;
+                    cast.read(t);
+                    for (int j = cast.from; j < cast.to; j++) {
+                        int v = cast.values[j];
+                        if (side.stamp[v] == epoch) continue;
+                        if (excludedCelebrities != null && (excludedCelebrities[v >>> 6] & (1L << v)) != 0) continue;
+                        side.stamp[v] = epoch;
+                        side.parent[v] = u;
+                        if (other.stamp[v] == epoch) {
+                            int length = depth + other.depthOf(v);
+                            if (length < shortest) {
+                                shortest = length;
+                                meetings = 0;
+                            }
+                            if (length == shortest && meetings < maxPaths) s.meetings[meetings++] = v;
+                        }
+                        nextSize = side.push(nextSize, v);
+                    }
+                }
+                if (visited + nextSize > maxVisited) {
+                    return new Result(List.of(), expanded, maxFrontier, true, false);
+                }
+            }
+            visited += nextSize;
+            side.advance(nextSize);
+            maxFrontier = Math.max(maxFrontier, nextSize);
+            // Every path through this level is now known; later levels can only be longer
+            if (meetings > 0) break;
+        }
+        List<int[]> paths = new ArrayList<>(meetings);
+        for (int m = 0; m < meetings; m++) {
+            paths.add(s.pathThrough(s.meetings[m]));
+        }
+        return new Result(paths, expanded, maxFrontier, false, false);
+    }
+
+    /** One direction of the search: the current level and per-celebrity parent. */
+    private static final class Side {
+        final int[] stamp;      // epoch in which parent was last written
+        final int[] parent;
+        final int[] titleStamp; // epoch in which this side last expanded the title
+        int[] frontier = new int[256];
+        int[] next = new int[256];
+        int size;
+        int depth;
+
+        Side(int n, int titles) {
+            stamp = new int[n];
+            parent = new int[n];
+            titleStamp = new int[titles];
+        }
+
+        void start(int[] nodes, int epoch) {
+            if (frontier.length < nodes.length) frontier = new int[nodes.length];
+            size = 0;
+            for (int node : nodes) {
+                if (stamp[node] == epoch) continue;
+                stamp[node] = epoch;
+                parent[node] = -1;
+                frontier[size++] = node;
+            }
+            depth = 0;
+        }
+
+        int push(int size, int node) {
+            if (size == next.length) next = Arrays.copyOf(next, size * 2);
+            next[size] = node;
+            return size + 1;
+        }
+
+        // Only asked at meeting points, a handful per search, so a parent walk beats a depth per celebrity
+        int depthOf(int node) {
+            int depth = 0;
+            for (int c = parent[node]; c >= 0; c = parent[c]) depth++;
+            return depth;
+        }
+
+        void advance(int nextSize) {
+            int[] swap = frontier;
+            frontier = next;
+            next = swap;
+            size = nextSize;
+            depth++;
+        }
+    }
+
+    /** Reusable per-search state, two slots per celebrity and one per title on each side. */
+    private static final class Scratch {
+        final Side forward;
+        final Side backward;
+        final AdjacencyRows.Reader titles;
+        final AdjacencyRows.Reader cast;
+        final int[] meetings = new int[64];
+        int epoch;
+
+        Scratch(CelebrityGraph graph) {
+            forward = new Side(graph.celebrityCount(), graph.titleCount());
+            backward = new Side(graph.celebrityCount(), graph.titleCount());
+            titles = graph.titleReader();
+            cast = graph.castReader();
+        }
+
+        int nextEpoch() {
+            if (++epoch == 0) {
+                for (Side side : new Side[]{forward, backward}) {
+                    Arrays.fill(side.stamp, 0);
+                    Arrays.fill(side.titleStamp, 0);
+                }
+                epoch = 1;
+            }
+            return epoch;
+        }
+
+        /** Source-to-target path: forward parents up to the meeting point, backward parents after it. */
+        int[] pathThrough(int meeting) {
+            int head = forward.depthOf(meeting) + 1;
+            int[] path = new int[head + backward.depthOf(meeting)];
+            int i = head - 1;
+            for (int c = meeting; c >= 0; c = forward.parent[c]) path[i--] = c;
+            i = head;
+            for (int c = backward.parent[meeting]; c >= 0; c = backward.parent[c]) path[i++] = c;
+            return path;
+        }
+    }
+}
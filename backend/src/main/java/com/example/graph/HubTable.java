@@ -0,0 +1,209 @@
+package com.example.graph;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * All-pairs hop distances and next hops among a fixed set of hub celebrities (the most
+ * queried or best connected), so a search between two hubs is a table walk instead of a BFS.
+ * For hubs i and j, {@code distances[i * n + j]} is their distance and {@code nextHops[i * n + j]}
+ * the first celebrity after i on a shortest path to j. Both directions of a pair are written by
+ * the same BFS, so the first hop from each end lies on one path: paths of up to three hops
+ * come straight from the table, and longer ones continue from whichever end steps onto a hub.
+ *
+ * <p>Built with one BFS per hub, spread over the common fork-join pool; each BFS only records
+ * pairs with hubs of lower index and stops once it has reached them all.
+ */
+public final class HubTable {
+    private static final int FORMAT = 3; // 2 held distances only
+    private static final byte UNREACHABLE = (byte) 255;
+    private static final byte TOO_FAR = (byte) 254; // connected, but beyond what a byte holds
+
+    private final int[] hubs;         // dense celebrity ids, ascending, so a lookup is a binary search
+    private final byte[] distances;   // unsigned, hubs.length^2
+    private final int[] nextHops;
+
+    private HubTable(int[] hubs, byte[] distances, int[] nextHops) {
+        this.hubs = hubs;
+        this.distances = distances;
+        this.nextHops = nextHops;
+    }
+
+    /** Builds the table for up to {@code candidates.length} hubs; duplicate or unknown ids are dropped. */
+    public static HubTable build(CelebrityGraph graph, int[] candidates) {
+        int[] hubs = Arrays.stream(candidates).filter(c -> c >= 0 && c < graph.celebrityCount()).sorted().distinct().toArray();
+        int n = hubs.length;
+        byte[] distances = new byte[n * n];
+        int[] nextHops = new int[n * n];
+        Arrays.fill(distances, UNREACHABLE);
+        Arrays.fill(nextHops, -1);
+        for (int i = 0; i < n; i++) {
+            distances[i * n + i] = 0;
+        }
+        int workers = Math.max(1, Math.min(n, Runtime.getRuntime().availableProcessors()));
+        // Each BFS writes only the cells of its own pairs, so workers share the arrays without locking
+        IntStream.range(0, workers).parallel().forEach(w -> {
+            Bfs bfs = new Bfs(graph, hubs);
+            for (int j = w; j < n; j += workers) bfs.fill(j, distances, nextHops);
+        });
+        return new HubTable(hubs, distances, nextHops);
+    }
+
+    public int size() {
+        return hubs.length;
+    }
+
+    /** Position of a celebrity among the hubs, or -1 when it is not one. */
+    public int hubIndex(int celebrity) {
+        return Math.max(-1, Arrays.binarySearch(hubs, celebrity));
+    }
+
+    /**
+     * A shortest path between two hubs as dense ids from {@code source} to {@code target}, an
+     * empty array when they are not connected, or null when the table can't answer (either one
+     * is not a hub, or the path leaves the hubs for more than two consecutive celebrities).
+     */
+    public int[] path(int source, int target) {
+        int l = hubIndex(source);
+        int r = hubIndex(target);
+        if (l < 0 || r < 0) return null;
+        int d = distance(l, r);
+        if (d == (UNREACHABLE & 0xFF)) return new int[0];
+        if (d == (TOO_FAR & 0xFF)) return null;
+        int[] path = new int[d + 1];
+        int head = 0;
+        int tail = d;
+        path[0] = source;
+        path[d] = target;
+        // Walk in from both ends while a step lands on another hub
+        while (tail - head > 3) {
+            int a = nextHops[l * hubs.length + r];
+            int ai = hubIndex(a);
+            if (ai >= 0) {
+                path[++head] = a;
+                l = ai;
+                continue;
+            }
+            int b = nextHops[r * hubs.length + l];
+            int bi = hubIndex(b);
+            if (bi < 0) return null;
+            path[--tail] = b;
+            r = bi;
+        }
+        // At most two celebrities left, and the pair's own entries name them
+        if (tail - head >= 2) path[head + 1] = nextHops[l * hubs.length + r];
+        if (tail - head == 3) path[head + 2] = nextHops[r * hubs.length + l];
+        return path;
+    }
+
+    private int distance(int i, int j) {
+        return distances[i * hubs.length + j] & 0xFF;
+    }
+
+    public long estimatedBytes() {
+        return 4L * hubs.length + distances.length + 4L * nextHops.length;
+    }
+
+    public void writeTo(DataOutputStream out) throws IOException {
+        out.writeInt(FORMAT);
+        out.writeInt(hubs.length);
+        for (int hub : hubs) out.writeInt(hub);
+        out.write(distances);
+        for (int next : nextHops) out.writeInt(next);
+    }
+
+    /** Reads a table written by {@link #writeTo} for the same graph; ids are checked against its size. */
+    public static HubTable readFrom(DataInputStream in, CelebrityGraph graph) throws IOException {
+        if (in.readInt() != FORMAT) throw new IOException("Unknown hub table format");
+        int n = in.readInt();
+        int[] hubs = new int[n];
+        for (int i = 0; i < n; i++) {
+            hubs[i] = in.readInt();
+            if (hubs[i] < 0 || hubs[i] >= graph.celebrityCount() || (i > 0 && hubs[i] <= hubs[i - 1])) {
+                throw new IOException("Hub table does not match the graph");
+            }
+        }
+        byte[] distances = new byte[n * n];
+        in.readFully(distances);
+        int[] nextHops = new int[n * n];
+        for (int i = 0; i < nextHops.length; i++) {
+            nextHops[i] = in.readInt();
+            if (nextHops[i] < -1 || nextHops[i] >= graph.celebrityCount()) throw new IOException("Hub table does not match the graph");
+        }
+        return new HubTable(hubs, distances, nextHops);
+    }
+
+    /** One worker's BFS state, reused for every hub it handles. */
+    private static final class Bfs {
+        final AdjacencyRows.Reader titles;
+        final AdjacencyRows.Reader cast;
+        final int[] hubs;
+        final int[] stamp;
+        final int[] parent;
+        final int[] titleStamp;
+        final int[] queue;
+        int epoch;
+
+        Bfs(CelebrityGraph graph, int[] hubs) {
+            this.titles = graph.titleReader();
+            this.cast = graph.castReader();
+            this.hubs = hubs;
+            stamp = new int[graph.celebrityCount()];
+            parent = new int[graph.celebrityCount()];
+            titleStamp = new int[graph.titleCount()];
+            queue = new int[graph.celebrityCount()];
+        }
+
+        /** Fills every pair (i, j) with i < j from one BFS out of hub j. */
+        void fill(int j, byte[] distances, int[] nextHops) {
+            if (j == 0) return;
+            int n = hubs.length;
+            int root = hubs[j];
+            epoch++;
+            stamp[root] = epoch;
+            parent[root] = -1;
+            queue[0] = root;
+            int head = 0;
+            int size = 1;
+            int levelEnd = 1;
+            int depth = 0;
+            int remaining = j;
+            while (head < size && remaining > 0) {
+                if (head == levelEnd) {
+                    levelEnd = size;
+                    depth++;
+                }
+                int u = queue[head++];
+                titles.read(u);
+                for (int x = titles.from; x < titles.to; x++) {
+                    int t = titles.values[x];
+                    if (titleStamp[t] == epoch) continue;
+                    titleStamp[t] = epoch;
+                    cast.read(t);
+                    for (int y = cast.from; y < cast.to; y++) {
+                        int v = cast.values[y];
+                        if (stamp[v] == epoch) continue;
+                        stamp[v] = epoch;
+                        parent[v] = u;
+                        queue[size++] = v;
+                        int i = Arrays.binarySearch(hubs, 0, j, v);
+                        if (i < 0) continue;
+                        remaining--;
+                        int d = depth + 1;
+                        byte code = d >= (TOO_FAR & 0xFF) ? TOO_FAR : (byte) d;
+                        distances[i * n + j] = code;
+                        distances[j * n + i] = code;
+                        // v's parent leads toward the root; the celebrity just below the root leads back to v
+                        nextHops[i * n + j] = u;
+                        int below = v;
+                        while (parent[below] != root) below = parent[below];
+                        nextHops[j * n + i] = below;
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.graph;
+
+/**
+ * Converts IMDb ids ({@code nm0000123}, {@code tt0111161}) to and from their numeric part,
+ * so ids can be held in {@code int[]} instead of one String per entry. Only canonical ids
+ * (two-letter prefix, at least seven zero-padded digits) convert, so every parsed id
+ * formats back to the exact same string.
+ */
+public final class ImdbIds {
+    private static final int MIN_DIGITS = 7;
+
+    private ImdbIds() {}
+
+    /** The numeric part of {@code id}, or -1 when it is not a canonical IMDb id with that prefix. */
+    public static int parse(String prefix, String id) {
+        if (id == null || !id.startsWith(prefix)) return -1;
+        int digits = id.length() - prefix.length();
+        if (digits < MIN_DIGITS || digits > 9) return -1;
+        int value = 0;
+        for (int i = prefix.length(); i < id.length(); i++) {
+            char c = id.charAt(i);
+            if (c < '0' || c > '9') return -1;
+            value = value * 10 + (c - '0');
+        }
+        // A longer-than-minimum id with a leading zero would not round-trip
+        if (digits > MIN_DIGITS && id.charAt(prefix.length()) == '0') return -1;
+        return value;
+    }
+
+    /** {@link #parse(String, String)} over the ASCII bytes {@code bytes[from..to)}, without making a String. */
+    public static int parse(String prefix, byte[] bytes, int from, int to) {
+        int digits = to - from - prefix.length();
+        if (digits < MIN_DIGITS || digits > 9) return -1;
+        for (int i = 0; i < prefix.length(); i++) {
+            if (bytes[from + i] != prefix.charAt(i)) return -1;
+        }
+        int start = from + prefix.length();
+        int value = 0;
+        for (int i = start; i < to; i++) {
+            int c = bytes[i];
+            if (c < '0' || c > '9') return -1;
+            value = value * 10 + (c - '0');
+        }
+        if (digits > MIN_DIGITS && bytes[start] == '0') return -1;
+        return value;
+    }
+
+    public static String format(String prefix, int value) {
+        String digits = Integer.toString(value);
+        if (digits.length() >= MIN_DIGITS) return prefix + digits;
+        StringBuilder sb = new StringBuilder(prefix.length() + MIN_DIGITS).append(prefix);
+        for (int i = digits.length(); i < MIN_DIGITS; i++) sb.append('0');
+        return sb.append(digits).toString();
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.graph;
+
+import java.util.Arrays;
+
+/**
+ * Binary min-heap of int node ids in {@code [0, capacity)} keyed by int priorities, with a
+ * position index so a queued node's key can be lowered in place. No boxing and no garbage
+ * per operation; {@link #clear()} resets only the positions of nodes still queued, so one
+ * heap can be reused across searches.
+ */
+public final class IndexedIntHeap {
+    private final int[] position;   // node -> heap slot + 1, 0 when not queued
+    private int[] nodes = new int[256];
+    private int[] keys = new int[256];
+    private int size;
+
+    public IndexedIntHeap(int capacity) {
+        this.position = new int[capacity];
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean contains(int node) {
+        return position[node] != 0;
+    }
+
+    /** Queues the node, or lowers its key when it is queued with a larger one. Returns false when nothing changed. */
+    public boolean offer(int node, int key) {
+        int slot = position[node] - 1;
+        if (slot < 0) {
+            if (size == nodes.length) {
+                nodes = Arrays.copyOf(nodes, size * 2);
+                keys = Arrays.copyOf(keys, size * 2);
+            }
+            siftUp(size++, node, key);
+            return true;
+        }
+        if (key >= keys[slot]) return false;
+        siftUp(slot, node, key);
+        return true;
+    }
+
+    public int peekKey() {
+        return keys[0];
+    }
+
+    /** Removes and returns the node with the smallest key. */
+    public int poll() {
+        int top = nodes[0];
+        position[top] = 0;
+        if (--size > 0) {
+            siftDown(0, nodes[size], keys[size]);
+        }
+        return top;
+    }
+
+    public void clear() {
+        for (int i = 0; i < size; i++) position[nodes[i]] = 0;
+        size = 0;
+    }
+
+    private void siftUp(int slot, int node, int key) {
+        while (slot > 0) {
+            int parent = (slot - 1) >>> 1;
+            if (keys[parent] <= key) break;
+            move(nodes[parent], keys[parent], slot);
+            slot = parent;
+        }
+        move(node, key, slot);
+    }
+
+    private void siftDown(int slot, int node, int key) {
+        int half = size >>> 1;
+        while (slot < half) {
+            int child = 2 * slot + 1;
+            if (child + 1 < size && keys[child + 1] < keys[child]) child++;
+            if (key <= keys[child]) break;
+            move(nodes[child], keys[child], slot);
+            slot = child;
+        }
+        move(node, key, slot);
+    }
+
+    private void move(int node, int key, int slot) {
+        nodes[slot] = node;
+        keys[slot] = key;
+        position[node] = slot + 1;
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.graph;
+
+import java.util.Arrays;
+
+/**
+ * Weighted distances from a few landmark celebrities to every celebrity, for A* lower
+ * bounds (the ALT technique). By the triangle inequality {@code |d(L,v) - d(L,t)|} never
+ * exceeds the cost between v and t, and a celebrity reachable from a landmark while the
+ * other is not proves the pair disconnected. Landmarks are picked farthest-first: the
+ * highest-degree celebrity, then repeatedly the celebrity farthest from all landmarks so far.
+ *
+ * <p>Distances are stored as 16-bit values, node-major (a celebrity's distances to all landmarks
+ * are adjacent, so one bound is one cache line). Link costs are small integers, so they are
+ * exact; the rare farther distance is capped, which keeps bounds valid.
+ */
+public final class Landmarks {
+    /** Returned by {@link #lowerBound} when no path can exist. */
+    public static final int UNREACHABLE = Integer.MAX_VALUE;
+    private static final char UNSEEN = Character.MAX_VALUE;
+    private static final int MAX_COST = Character.MAX_VALUE - 1;
+
+    private final int[] landmarks;
+    private final char[] distances; // celebrity c's distance to landmark i at c * count + i
+
+    private Landmarks(int[] landmarks, char[] distances) {
+        this.landmarks = landmarks;
+        this.distances = distances;
+    }
+
+    /** No landmarks: every bound is 0, which turns A* into plain Dijkstra. */
+    public static Landmarks none() {
+        return new Landmarks(new int[0], new char[0]);
+    }
+
+    /** Picks up to {@code count} landmarks and runs one full search from each with {@code finder}'s link costs. */
+    public static Landmarks compute(WeightedPathFinder finder, int count) {
+        CelebrityGraph graph = finder.graph();
+        int n = graph.celebrityCount();
+        count = Math.min(count, n);
+        int[] chosen = new int[count];
+        char[][] columns = new char[count][];
+        int[] nearest = new int[n]; // cost to the closest landmark so far, -1 while unreached
+        Arrays.fill(nearest, -1);
+
+        int next = 0;
+        for (int c = 1; c < n; c++) {
+            if (graph.degree(c) > graph.degree(next)) next = c;
+        }
+        int found = 0;
+        while (found < count) {
+            chosen[found] = next;
+            int[] costs = finder.costsFrom(next);
+            char[] column = new char[n];
+            int farthest = -1;
+            for (int c = 0; c < n; c++) {
+                int d = costs[c];
+                column[c] = d < 0 ? UNSEEN : (char) Math.min(MAX_COST, d);
+                if (d >= 0 && (nearest[c] < 0 || d < nearest[c])) nearest[c] = d;
+                if (nearest[c] > 0 && (farthest < 0 || nearest[c] > nearest[farthest])) farthest = c;
+            }
+            columns[found++] = column;
+            if (farthest < 0) break;
+            next = farthest;
+        }
+
+        char[] distances = new char[n * found];
+        for (int i = 0; i < found; i++) {
+            for (int c = 0; c < n; c++) distances[c * found + i] = columns[i][c];
+        }
+        return new Landmarks(Arrays.copyOf(chosen, found), distances);
+    }
+
+    public int count() {
+        return landmarks.length;
+    }
+
+    /** A lower bound on the cost between two celebrities, or {@link #UNREACHABLE}. */
+    public int lowerBound(int from, int to) {
+        int k = landmarks.length;
+        int best = 0;
+        for (int i = 0, a0 = from * k, b0 = to * k; i < k; i++) {
+            int a = distances[a0 + i];
+            int b = distances[b0 + i];
+            if ((a == UNSEEN) != (b == UNSEEN)) return UNREACHABLE;
+            int gap = a > b ? a - b : b - a;
+            if (gap > best) best = gap;
+        }
+        return best;
+    }
+
+    /**
+     * {@code lowerBound(v, toward) - lowerBound(v, from)} in one pass over v's distances, or
+     * UNREACHABLE when v provably cannot reach {@code toward}.
+     */
+    public int potential(int v, int from, int toward) {
+        int k = landmarks.length;
+        int ahead = 0;
+        int behind = 0;
+        for (int i = 0, v0 = v * k, t0 = toward * k, f0 = from * k; i < k; i++) {
+            int d = distances[v0 + i];
+            int t = distances[t0 + i];
+            int f = distances[f0 + i];
+            if ((d == UNSEEN) != (t == UNSEEN)) return UNREACHABLE;
+            ahead = Math.max(ahead, Math.abs(d - t));
+            behind = Math.max(behind, Math.abs(d - f));
+        }
+        return ahead - behind;
+    }
+
+    public long estimatedBytes() {
+        return 4L * landmarks.length + 2L * distances.length;
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.graph;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Up to 64 breadth-first searches in one pass over the graph (MS-BFS): bit i of a celebrity's
+ * word says whether source i has reached it, so one OR moves all 64 frontiers across a link.
+ * Each level is two pull phases, both split over the common fork-join pool without locks:
+ * every title collects the frontier bits of its cast that have not used it yet, then every
+ * celebrity collects the bits of its titles it has not seen. Cost per level is one sweep of
+ * the links whatever the number of sources, which is what makes sampling thousands of
+ * sources affordable.
+ *
+ * <p>Holds three words per celebrity and two per title; not thread-safe, reuse one per job.
+ */
+public final class MultiSourceBfs {
+    private static final int CHUNK = 4096;
+
+    private final CelebrityGraph graph;
+    private final long[] seen;
+    private long[] frontier;
+    private long[] next;
+    private final long[] titleDone;
+    private final long[] titleFrontier;
+
+    /**
+     * Per batch: {@code distances[d]} pairs at distance d (d >= 1), and per source (in the order
+     * given) the celebrities it reached, their summed distance and its eccentricity (the
+     * largest distance it reached).
+     */
+    public record Result(long[] distances, int[] reached, long[] distanceSums, int[] eccentricity) {}
+
+    public MultiSourceBfs(CelebrityGraph graph) {
+        this.graph = graph;
+        int n = graph.celebrityCount();
+        seen = new long[n];
+        frontier = new long[n];
+        next = new long[n];
+        titleDone = new long[graph.titleCount()];
+        titleFrontier = new long[graph.titleCount()];
+    }
+
+    /** Heap held by the per-celebrity and per-title words. */
+    public long estimatedBytes() {
+        return 8L * (3L * seen.length + 2L * titleDone.length);
+    }
+
+    /** Runs the BFS from each of up to 64 sources. */
+    public Result run(int[] sources) {
+        if (sources.length > 64) throw new IllegalArgumentException("At most 64 sources per batch");
+        int k = sources.length;
+        Arrays.fill(seen, 0);
+        Arrays.fill(frontier, 0);
+        Arrays.fill(titleDone, 0);
+        for (int i = 0; i < k; i++) {
+            seen[sources[i]] |= 1L << i;
+            frontier[sources[i]] |= 1L << i;
+        }
+        int[] reached = new int[k];
+        long[] distanceSums = new long[k];
+        int[] eccentricity = new int[k];
+        long[] distances = new long[16];
+        int titleChunks = (graph.titleCount() + CHUNK - 1) / CHUNK;
+        int celebrityChunks = (graph.celebrityCount() + CHUNK - 1) / CHUNK;
+        Level[] levels = new Level[celebrityChunks];
+        for (int c = 0; c < celebrityChunks; c++) levels[c] = new Level(k, graph.titleReader());
+        AdjacencyRows.Reader[] castReaders = new AdjacencyRows.Reader[titleChunks];
+        for (int c = 0; c < titleChunks; c++) castReaders[c] = graph.castReader();
+
+        for (int depth = 1; ; depth++) {
+            IntStream.range(0, titleChunks).parallel().forEach(c -> collectTitles(c, castReaders[c]));
+            IntStream.range(0, celebrityChunks).parallel().forEach(c -> collectCelebrities(c, levels[c]));
+
+            long pairs = 0;
+            long found = 0;
+            for (Level level : levels) {
+                pairs += level.pairs;
+                found |= level.found;
+                for (int i = 0; i < k; i++) {
+                    reached[i] += level.reached[i];
+                    distanceSums[i] += (long) depth * level.reached[i];
+                }
+                level.clear();
+            }
+            if (pairs == 0) break;
+            if (depth == distances.length) distances = Arrays.copyOf(distances, depth * 2);
+            distances[depth] = pairs;
+            for (long bits = found; bits != 0; bits &= bits - 1) {
+                eccentricity[Long.numberOfTrailingZeros(bits)] = depth;
+            }
+            long[] swap = frontier;
+            frontier = next;
+            next = swap;
+        }
+        int maxDepth = distances.length - 1;
+        while (maxDepth > 0 && distances[maxDepth] == 0) maxDepth--;
+        return new Result(Arrays.copyOf(distances, maxDepth + 1), reached, distanceSums, eccentricity);
+    }
+
+    // Phase 1: for each title, the sources whose frontier holds a cast member and that haven't crossed it yet
+    private void collectTitles(int chunk, AdjacencyRows.Reader cast) {
+        int end = Math.min(graph.titleCount(), (chunk + 1) * CHUNK);
+        for (int t = chunk * CHUNK; t < end; t++) {
+            long bits = 0;
+            cast.read(t);
+            for (int i = cast.from; i < cast.to; i++) bits |= frontier[cast.values[i]];
+            bits &= ~titleDone[t];
+            titleFrontier[t] = bits;
+            titleDone[t] |= bits;
+        }
+    }
+
+    // Phase 2: each celebrity takes the new sources arriving through any of its titles
+    private void collectCelebrities(int chunk, Level level) {
+        int end = Math.min(graph.celebrityCount(), (chunk + 1) * CHUNK);
+        for (int c = chunk * CHUNK; c < end; c++) {
+            long bits = 0;
+            AdjacencyRows.Reader titles = level.titles;
+            titles.read(c);
+            for (int i = titles.from; i < titles.to; i++) bits |= titleFrontier[titles.values[i]];
+            bits &= ~seen[c];
+            next[c] = bits;
+            if (bits == 0) continue;
+            seen[c] |= bits;
+            level.found |= bits;
+            level.pairs += Long.bitCount(bits);
+            for (long b = bits; b != 0; b &= b - 1) level.reached[Long.numberOfTrailingZeros(b)]++;
+        }
+    }
+
+    /** One chunk's counts for the current level, merged after the phase, and its row reader. */
+    private static final class Level {
+        final int[] reached;
+        final AdjacencyRows.Reader titles;
+        long pairs;
+        long found;
+
+        Level(int sources, AdjacencyRows.Reader titles) {
+            reached = new int[sources];
+            this.titles = titles;
+        }
+
+        void clear() {
+            Arrays.fill(reached, 0);
+            pairs = 0;
+            found = 0;
+        }
+    }
+}
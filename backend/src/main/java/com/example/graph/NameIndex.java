@@ -0,0 +1,115 @@
+package com.example.graph;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * The ids of a {@link NameStore} in case-insensitive name order, for the lookups the database
+ * answers from its lower(name) indexes: alphabetical prefix pages, exact matches, and bounded
+ * substring scans. Holds one int per name; names are decoded from the store while searching,
+ * so a few million of them add no Strings to the heap. Immutable once built.
+ */
+public final class NameIndex {
+    private final NameStore names;
+    private final int[] order; // ids with a name, by lower-cased name, then id
+
+    private NameIndex(NameStore names, int[] order) {
+        this.names = names;
+        this.order = order;
+    }
+
+    /**
+     * Sorts the named ids. A first pass orders them by their first two lower-cased chars packed
+     * with the id into one long, so only ids sharing those two chars are compared as Strings.
+     */
+    public static NameIndex build(NameStore names) {
+        long[] packed = new long[names.size()];
+        int count = 0;
+        for (int id = 0; id < names.size(); id++) {
+            if (!names.contains(id)) continue;
+            String lower = lower(names.name(id));
+            int key = (lower.isEmpty() ? 0 : lower.charAt(0) << 16) | (lower.length() < 2 ? 0 : lower.charAt(1));
+            packed[count++] = (long) (key ^ Integer.MIN_VALUE) << 32 | id;
+        }
+        Arrays.sort(packed, 0, count);
+        int[] order = new int[count];
+        for (int i = 0; i < count; i++) order[i] = (int) packed[i];
+        for (int from = 0; from < count; ) {
+            int to = from + 1;
+            while (to < count && packed[to] >>> 32 == packed[from] >>> 32) to++;
+            if (to - from > 1) sortRun(names, order, from, to);
+            from = to;
+        }
+        return new NameIndex(names, order);
+    }
+
+    private static void sortRun(NameStore names, int[] order, int from, int to) {
+        String[] lower = new String[to - from];
+        Integer[] ids = new Integer[to - from];
+        for (int i = from; i < to; i++) {
+            ids[i - from] = i - from;
+            lower[i - from] = lower(names.name(order[i]));
+        }
+        // Stable, so equal names stay in id order
+        Arrays.sort(ids, (a, b) -> lower[a].compareTo(lower[b]));
+        int[] sorted = new int[to - from];
+        for (int i = 0; i < sorted.length; i++) sorted[i] = order[from + ids[i]];
+        System.arraycopy(sorted, 0, order, from, sorted.length);
+    }
+
+    private static String lower(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+    public int size() {
+        return order.length;
+    }
+
+    /** Ids whose name starts with {@code prefix}, ignoring case, alphabetically from {@code offset}. */
+    public int[] startingWith(String prefix, int offset, int limit) {
+        String needle = lower(prefix);
+        int[] out = new int[Math.max(0, Math.min(limit, order.length))];
+        int found = 0;
+        for (int i = lowerBound(needle) + Math.max(0, offset); i < order.length && found < out.length; i++) {
+            if (!lower(names.name(order[i])).startsWith(needle)) break;
+            out[found++] = order[i];
+        }
+        return Arrays.copyOf(out, found);
+    }
+
+    /** An id whose name equals {@code name} ignoring case (the lowest such id), or -1. */
+    public int exact(String name) {
+        String needle = lower(name);
+        int i = lowerBound(needle);
+        return i < order.length && lower(names.name(order[i])).equals(needle) ? order[i] : -1;
+    }
+
+    /** Up to {@code limit} ids whose name contains {@code fragment} ignoring case, in id order. A scan of all names. */
+    public int[] containing(String fragment, int limit) {
+        String needle = lower(fragment);
+        int[] out = new int[Math.max(0, Math.min(limit, order.length))];
+        int found = 0;
+        for (int id = 0; id < names.size() && found < out.length; id++) {
+            String name = names.name(id);
+            if (name != null && lower(name).contains(needle)) out[found++] = id;
+        }
+        return Arrays.copyOf(out, found);
+    }
+
+    /** Heap held by the order array. */
+    public long estimatedBytes() {
+        return 4L * order.length;
+    }
+
+    // First position whose lower-cased name is not less than needle
+    private int lowerBound(String needle) {
+        int low = 0;
+        int high = order.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (lower(names.name(order[mid])).compareTo(needle) < 0) low = mid + 1;
+            else high = mid;
+        }
+        return low;
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.graph;
+
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Display names keyed by dense id, kept off-heap: one direct buffer of UTF-8 bytes in id order
+ * and a direct int offset table, so millions of names cost a few bytes each and nothing for the
+ * garbage collector to trace. {@link #bytes} hands out the encoded name without copying;
+ * {@link #name} decodes a String only when a response needs one. Immutable once built.
+ */
+public final class NameStore {
+    private final ByteBuffer utf8;
+    private final IntBuffer offsets; // name i is utf8[offsets[i]..offsets[i+1]); empty when unknown
+
+    private NameStore(ByteBuffer utf8, IntBuffer offsets) {
+        this.utf8 = utf8;
+        this.offsets = offsets;
+    }
+
+    public int size() {
+        return offsets.capacity() - 1;
+    }
+
+    /** True when a name was stored for the id. */
+    public boolean contains(int id) {
+        return offsets.get(id + 1) > offsets.get(id);
+    }
+
+    /** Read-only view of the UTF-8 name bytes; empty when the name is unknown. */
+    public ByteBuffer bytes(int id) {
+        int start = offsets.get(id);
+        return utf8.slice(start, offsets.get(id + 1) - start);
+    }
+
+    /** The decoded name, or null when unknown. */
+    public String name(int id) {
+        int start = offsets.get(id);
+        int length = offsets.get(id + 1) - start;
+        if (length == 0) return null;
+        byte[] encoded = new byte[length];
+        utf8.get(start, encoded);
+        return new String(encoded, StandardCharsets.UTF_8);
+    }
+
+    /** Direct memory held by the bytes and the offset table. */
+    public long offHeapBytes() {
+        return utf8.capacity() + 4L * offsets.capacity();
+    }
+
+    /**
+     * Collects names for ids in {@code [0, size)} in any order, staging their bytes on heap
+     * until {@link #build()} lays them out off-heap in id order. A later name for the same id wins.
+     */
+    public static final class Builder {
+        private final int[] start;
+        private final int[] length;
+        private byte[] staged = new byte[1 << 16];
+        private int used;
+
+        public Builder(int size) {
+            start = new int[size];
+            length = new int[size];
+        }
+
+        public void put(int id, String name) {
+            if (name == null) return;
+            byte[] encoded = name.getBytes(StandardCharsets.UTF_8);
+            put(id, encoded, 0, encoded.length);
+        }
+
+        /** Stores a name already encoded as UTF-8 in {@code utf8[offset..offset+length)}. */
+        public void put(int id, byte[] utf8, int offset, int length) {
+            if (used + length > staged.length) {
+                staged = Arrays.copyOf(staged, Math.max(staged.length * 2, used + length));
+            }
+            System.arraycopy(utf8, offset, staged, used, length);
+            start[id] = used;
+            this.length[id] = length;
+            used += length;
+        }
+
+        public NameStore build() {
+            long total = 0;
+            for (int len : length) total += len;
+            if (total > Integer.MAX_VALUE) throw new IllegalStateException("Names exceed 2 GB: " + total + " bytes");
+            ByteBuffer utf8 = ByteBuffer.allocateDirect((int) total);
+            IntBuffer offsets = ByteBuffer.allocateDirect(4 * (start.length + 1)).asIntBuffer();
+            for (int id = 0; id < start.length; id++) {
+                offsets.put(id, utf8.position());
+                utf8.put(staged, start[id], length[id]);
+            }
+            offsets.put(start.length, utf8.position());
+            staged = null;
+            return new NameStore(utf8.clear().asReadOnlyBuffer(), offsets.asReadOnlyBuffer());
+        }
+    }
+}
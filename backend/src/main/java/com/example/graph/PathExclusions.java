@@ -0,0 +1,50 @@
+package com.example.graph;
+
+import java.util.Collection;
+
+/**
+ * Celebrities and titles a path must not use, compiled per request into bitsets over the
+ * graph's dense ids so the search loops test one bit per node or title. Ids that are not in
+ * the graph are ignored.
+ */
+public final class PathExclusions {
+    public static final PathExclusions NONE = new PathExclusions(null, null);
+
+    final long[] celebrities; // null when no celebrity is excluded
+    final long[] titles;      // null when no title is excluded
+
+    private PathExclusions(long[] celebrities, long[] titles) {
+        this.celebrities = celebrities;
+        this.titles = titles;
+    }
+
+    public static PathExclusions compile(CelebrityGraph graph, Collection<String> celebrityIds, Collection<String> titleIds) {
+        long[] celebrities = null;
+        for (String id : celebrityIds) {
+            int c = graph.celebrity(id.trim());
+            if (c < 0) continue;
+            if (celebrities == null) celebrities = new long[(graph.celebrityCount() + 63) >>> 6];
+            celebrities[c >>> 6] |= 1L << c;
+        }
+        long[] titles = null;
+        for (String id : titleIds) {
+            int t = graph.title(id.trim());
+            if (t < 0) continue;
+            if (titles == null) titles = new long[(graph.titleCount() + 63) >>> 6];
+            titles[t >>> 6] |= 1L << t;
+        }
+        return celebrities == null && titles == null ? NONE : new PathExclusions(celebrities, titles);
+    }
+
+    public boolean isEmpty() {
+        return celebrities == null && titles == null;
+    }
+
+    public boolean excludesCelebrity(int celebrity) {
+        return celebrities != null && (celebrities[celebrity >>> 6] & (1L << celebrity)) != 0;
+    }
+
+    public boolean excludesTitle(int title) {
+        return titles != null && (titles[title >>> 6] & (1L << title)) != 0;
+    }
+}
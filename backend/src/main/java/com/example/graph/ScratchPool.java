@@ -0,0 +1,50 @@
+package com.example.graph;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+/**
+ * At most {@code maxScratch} per-search scratch sets, allocated on first use and kept for reuse.
+ * A search that finds them all in use waits for one, so the scratch heap stays bounded however
+ * many searches run at once.
+ */
+final class ScratchPool<T> {
+    private static final long WAIT_SLICE_MS = 10;
+
+    private final Supplier<T> factory;
+    private final Semaphore permits;
+    private final ConcurrentLinkedQueue<T> idle = new ConcurrentLinkedQueue<>();
+
+    ScratchPool(int maxScratch, Supplier<T> factory) {
+        this.factory = factory;
+        this.permits = new Semaphore(Math.max(1, maxScratch), true);
+    }
+
+    /** A scratch set, or null when {@code expired} reports the budget spent before one was free. */
+    T acquire(BooleanSupplier expired) {
+        try {
+            while (!permits.tryAcquire() && !permits.tryAcquire(WAIT_SLICE_MS, TimeUnit.MILLISECONDS)) {
+                if (expired.getAsBoolean()) return null;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+        T scratch = idle.poll();
+        if (scratch != null) return scratch;
+        try {
+            return factory.get();
+        } catch (RuntimeException | Error e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    void release(T scratch) {
+        idle.offer(scratch);
+        permits.release();
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.graph;
+
+/**
+ * Intersection of ascending, duplicate-free int ranges, such as two celebrities' title rows.
+ * {@link #intersect} picks a kernel by shape: galloping when one side is much longer (each
+ * element of the short side jumps ahead in the long one, so the cost follows the short side),
+ * otherwise a linear merge, or the SIMD block compare of {@link VectorIntersection} once
+ * {@link #enableVector()} has switched it on.
+ */
+public final class SortedIntersection {
+    // Past this length ratio a binary-searching gallop beats touching every element of the long side
+    private static final int GALLOP_RATIO = 32;
+
+    private static boolean vector;
+
+    private SortedIntersection() {}
+
+    /**
+     * Switches {@link #intersect} to the SIMD kernel for similar-sized inputs. Needs the
+     * {@code jdk.incubator.vector} module ({@code --add-modules jdk.incubator.vector}); returns
+     * false and keeps the scalar kernels when it is not in the boot layer.
+     */
+    public static boolean enableVector() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) return false;
+        vector = true;
+        return true;
+    }
+
+    public static boolean vectorEnabled() {
+        return vector;
+    }
+
+    /**
+     * Writes the values in both {@code a[aFrom..aTo)} and {@code b[bFrom..bTo)} to {@code out},
+     * ascending, and returns how many there are. {@code out} needs room for the shorter range.
+     */
+    public static int intersect(int[] a, int aFrom, int aTo, int[] b, int bFrom, int bTo, int[] out) {
+        int aLength = aTo - aFrom;
+        int bLength = bTo - bFrom;
+        if (aLength == 0 || bLength == 0) return 0;
+        if (aLength > bLength * GALLOP_RATIO) return gallop(b, bFrom, bTo, a, aFrom, aTo, out);
+        if (bLength > aLength * GALLOP_RATIO) return gallop(a, aFrom, aTo, b, bFrom, bTo, out);
+        if (vector) return VectorIntersection.intersect(a, aFrom, aTo, b, bFrom, bTo, out);
+        return merge(a, aFrom, aTo, b, bFrom, bTo, out);
+    }
+
+    /** Linear merge: O(|a| + |b|), best when the sizes are close. */
+    public static int merge(int[] a, int aFrom, int aTo, int[] b, int bFrom, int bTo, int[] out) {
+        return merge(a, aFrom, aTo, b, bFrom, bTo, out, 0);
+    }
+
+    /** {@link #merge} writing from {@code out[outFrom]}; returns the number written. */
+    static int merge(int[] a, int aFrom, int aTo, int[] b, int bFrom, int bTo, int[] out, int outFrom) {
+        int i = aFrom;
+        int j = bFrom;
+        int count = outFrom;
+        while (i < aTo && j < bTo) {
+            int x = a[i];
+            int y = b[j];
+            if (x == y) {
+                out[count++] = x;
+                i++;
+                j++;
+            } else if (x < y) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return count - outFrom;
+    }
+
+    /**
+     * For each value of the short range, an exponential then binary search forward in the long
+     * one: O(|short| log(|long| / |short|)).
+     */
+    public static int gallop(int[] small, int sFrom, int sTo, int[] large, int lFrom, int lTo, int[] out) {
+        int count = 0;
+        int low = lFrom;
+        for (int i = sFrom; i < sTo && low < lTo; i++) {
+            int value = small[i];
+            if (large[low] < value) {
+                // Double the step until it overshoots, then binary search the last step
+                int step = 1;
+                int high = low + 1;
+                while (high < lTo && large[high] < value) {
+                    low = high;
+                    step <<= 1;
+                    high = low + step;
+                }
+                high = Math.min(high, lTo - 1);
+                while (low < high) {
+                    int mid = (low + high) >>> 1;
+                    if (large[mid] < value) low = mid + 1;
+                    else high = mid;
+                }
+                if (large[low] < value) return count;
+            }
+            if (large[low] == value) out[count++] = value;
+        }
+        return count;
+    }
+}
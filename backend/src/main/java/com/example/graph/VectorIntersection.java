@@ -0,0 +1,52 @@
+package com.example.graph;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * SIMD kernel behind {@link SortedIntersection}: compares a block of {@code a} against every
+ * element of a block of {@code b} (one broadcast compare per element), then drops whichever
+ * block ends lower, so each step consumes a full vector of input instead of one element.
+ * Only loaded once {@link SortedIntersection#enableVector()} succeeded, since this class
+ * needs the incubating {@code jdk.incubator.vector} module.
+ */
+final class VectorIntersection {
+    private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+
+    private VectorIntersection() {}
+
+    static int intersect(int[] a, int aFrom, int aTo, int[] b, int bFrom, int bTo, int[] out) {
+        int lanes = SPECIES.length();
+        int i = aFrom;
+        int j = bFrom;
+        int count = 0;
+        while (i + lanes <= aTo && j + lanes <= bTo) {
+            int aLast = a[i + lanes - 1];
+            int bLast = b[j + lanes - 1];
+            // Blocks that don't overlap at all are skipped without a compare
+            if (aLast < b[j]) {
+                i += lanes;
+                continue;
+            }
+            if (bLast < a[i]) {
+                j += lanes;
+                continue;
+            }
+            IntVector block = IntVector.fromArray(SPECIES, a, i);
+            VectorMask<Integer> found = block.compare(VectorOperators.EQ, b[j]);
+            for (int k = 1; k < lanes; k++) {
+                found = found.or(block.compare(VectorOperators.EQ, b[j + k]));
+            }
+            // Inputs are duplicate-free, so a lane matches at most once; emit in a's order
+            for (long bits = found.toLong(); bits != 0; bits &= bits - 1) {
+                out[count++] = a[i + Long.numberOfTrailingZeros(bits)];
+            }
+            if (aLast <= bLast) i += lanes;
+            if (bLast <= aLast) j += lanes;
+        }
+        // Tails shorter than a vector: a value already matched above is smaller than everything left
+        return count + SortedIntersection.merge(a, i, aTo, b, j, bTo, out, count);
+    }
+}
@@ -0,0 +1,301 @@
+package com.example.graph;
+
+import java.util.Arrays;
+import java.util.function.BooleanSupplier;
+
+/**
+ * "Strongest connection" search over co-star links weighted by how close the tie is.
+ * Each shared title contributes a strength of {@code 1 / (1 + log2(castSize))}, so a
+ * two-person film counts far more than a 300-person ensemble, and shared titles add up.
+ * A link costs {@code HOP_COST * (1 + 1 / strength)}, rounded, and never less than HOP_COST.
+ *
+ * <p>The search is bidirectional A* with {@link Landmarks} lower bounds, using the symmetric
+ * potential {@code (bound to target - bound to source) / 2} on both sides so each side stays
+ * consistent and the usual meet-in-the-middle stopping rule holds. Without landmarks it is
+ * bidirectional Dijkstra. Per-search arrays are sized to the graph and pooled; validity is
+ * tracked with an epoch stamp, so a search only touches the nodes it reaches.
+ */
+public final class WeightedPathFinder {
+    /** Cost of one hop over an infinitely strong tie. */
+    public static final int HOP_COST = 64;
+    private static final int EXPIRY_CHECK_INTERVAL = 256;
+
+    private final CelebrityGraph graph;
+    private final Landmarks landmarks;
+    private final float[] titleStrength;
+    private final ScratchPool<Scratch> scratchPool;
+
+    /**
+     * Outcome of one search. {@code path} holds dense celebrity ids from source to target and is
+     * null when no path was found; {@code capHit}/{@code timedOut} say why a search gave up early.
+     */
+    public record Result(int[] path, long cost, int settled, int maxQueue, boolean capHit, boolean timedOut) {}
+
+    public WeightedPathFinder(CelebrityGraph graph, Landmarks landmarks) {
+        this(graph, landmarks, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Holds at most {@code maxScratch} scratch sets (see {@link #scratchBytes}); a search arriving
+     * while all are in use waits for one, and times out if its budget runs out first.
+     */
+    public WeightedPathFinder(CelebrityGraph graph, Landmarks landmarks, int maxScratch) {
+        this.graph = graph;
+        this.landmarks = landmarks;
+        this.scratchPool = new ScratchPool<>(maxScratch, () -> new Scratch(graph));
+        this.titleStrength = new float[graph.titleCount()];
+        for (int t = 0; t < titleStrength.length; t++) {
+            titleStrength[t] = strength(graph.castSize(t));
+        }
+    }
+
+    public CelebrityGraph graph() {
+        return graph;
+    }
+
+    public Landmarks landmarks() {
+        return landmarks;
+    }
+
+    /** Heap of one search's scratch: heap position, stamp, cost and parent per celebrity on each side, plus a strength. */
+    public static long scratchBytes(CelebrityGraph graph) {
+        return 4L * 9 * graph.celebrityCount();
+    }
+
+    static float strength(int castSize) {
+        return (float) (1 / (1 + Math.log(Math.max(2, castSize)) / Math.log(2)));
+    }
+
+    static int linkCost(double strength) {
+        return HOP_COST + (int) Math.min(Integer.MAX_VALUE / 4, Math.round(HOP_COST / strength));
+    }
+
+    /** Cost of the direct link between two co-stars, or -1 when they share no title. */
+    public int linkCost(int a, int b) {
+        float strength = 0; // summed in title order as in the search, so costs match exactly
+        for (int t : graph.sharedTitles(a, b)) strength += titleStrength[t];
+        return strength == 0 ? -1 : linkCost(strength);
+    }
+
+    /** The shared title with the smallest cast (the strongest single tie) not in {@code exclusions}, or -1. */
+    public int strongestSharedTitle(int a, int b, PathExclusions exclusions) {
+        int best = -1;
+        for (int t : graph.sharedTitles(a, b)) {
+            if (!exclusions.excludesTitle(t) && (best < 0 || graph.castSize(t) < graph.castSize(best))) best = t;
+        }
+        return best;
+    }
+
+    /**
+     * Cheapest path from {@code source} to {@code target} avoiding {@code exclusions}. Stops early once
+     * {@code maxSettled} celebrities have been expanded or {@code expired} reports the time budget is spent.
+     */
+    public Result find(int source, int target, int maxSettled, PathExclusions exclusions, BooleanSupplier expired) {
+        if (source == target) return new Result(new int[]{source}, 0, 0, 0, false, false);
+        if (landmarks.lowerBound(source, target) == Landmarks.UNREACHABLE) {
+            return new Result(null, 0, 0, 0, false, false);
+        }
+        Scratch s = scratchPool.acquire(expired);
+        if (s == null) return new Result(null, 0, 0, 0, false, true);
+        try {
+            return search(s, source, target, maxSettled, exclusions, expired);
+        } finally {
+            release(s);
+        }
+    }
+
+    private Result search(Scratch s, int source, int target, int maxSettled, PathExclusions exclusions, BooleanSupplier expired) {
+        int epoch = s.nextEpoch();
+        Side forward = s.forward;
+        Side backward = s.backward;
+        forward.reach(source, epoch, 0, -1);
+        forward.heap.offer(source, landmarks.potential(source, source, target));
+        backward.reach(target, epoch, 0, -1);
+        backward.heap.offer(target, landmarks.potential(target, target, source));
+
+        long best = Long.MAX_VALUE; // cheapest complete path seen so far
+        int meeting = -1;
+        int settled = 0;
+        int maxQueue = 2;
+        while (!forward.heap.isEmpty() && !backward.heap.isEmpty()) {
+            // Keys are doubled costs plus potentials that cancel across the two sides
+            if (meeting >= 0 && (long) forward.heap.peekKey() + backward.heap.peekKey() >= 2 * best) break;
+            if (++settled >= maxSettled) {
+                return new Result(null, 0, settled, maxQueue, true, false);
+            }
+            if (settled % EXPIRY_CHECK_INTERVAL == 0 && expired.getAsBoolean()) {
+                return new Result(null, 0, settled, maxQueue, false, true);
+            }
+
+            // Expand the smaller queue first, like the hop-count BFS
+            boolean isForward = forward.heap.size() <= backward.heap.size();
+            Side side = isForward ? forward : backward;
+            Side other = isForward ? backward : forward;
+            int toward = isForward ? target : source;
+            int from = isForward ? source : target;
+
+            int u = side.heap.poll();
+            int base = side.cost[u];
+            int touched = accumulateStrengths(s, u, exclusions);
+            for (int k = 0; k < touched; k++) {
+                int v = s.touched[k];
+                boolean seen = side.stamp[v] == epoch;
+                // Even the strongest possible tie costs HOP_COST, so a co-star reached this cheaply is final
+                if (seen && side.cost[v] <= base + HOP_COST) continue;
+                int next = base + linkCost(s.strength[v]);
+                if (seen && next >= side.cost[v]) continue;
+                if (meeting >= 0 && next + HOP_COST >= best && other.stamp[v] != epoch) continue; // can't beat the best path
+                // Twice the symmetric potential: bound to the goal minus bound back to the origin
+                int potential = landmarks.potential(v, from, toward);
+                if (potential == Landmarks.UNREACHABLE) continue;
+                side.reach(v, epoch, next, u);
+                side.heap.offer(v, 2 * next + potential);
+                if (other.stamp[v] == epoch && next + other.cost[v] < best) {
+                    best = next + other.cost[v];
+                    meeting = v;
+                }
+            }
+            maxQueue = Math.max(maxQueue, forward.heap.size() + backward.heap.size());
+        }
+        if (meeting < 0) {
+            return new Result(null, 0, settled, maxQueue, false, false);
+        }
+        return new Result(s.pathThrough(meeting), best, settled, maxQueue, false, false);
+    }
+
+    /**
+     * Sums title strengths per co-star of {@code u} into the scratch, skipping excluded titles and
+     * co-stars; returns how many co-stars were touched.
+     */
+    private int accumulateStrengths(Scratch s, int u, PathExclusions exclusions) {
+        long[] excludedTitles = exclusions.titles;
+        long[] excludedCelebrities = exclusions.celebrities;
+        // The previous pass's co-stars go back to zero, which marks a co-star not yet touched in this one
+        for (int k = 0; k < s.touchedCount; k++) s.strength[s.touched[k]] = 0;
+        int touched = 0;
+        AdjacencyRows.Reader titles = s.titles;
+        AdjacencyRows.Reader cast = s.cast;
+        titles.read(u);
+        for (int i = titles.from; i < titles.to; i++) {
+            int t = titles.values[i];
+            if (excludedTitles != null && (excludedTitles[t >>> 6] & (1L << t)) != 0) continue;
+            float strength = titleStrength[t];
+            cast.read(t);
+            for (int j = cast.from; j < cast.to; j++) {
+                int v = cast.values[j];
+                if (v == u) continue;
+                if (excludedCelebrities != null && (excludedCelebrities[v >>> 6] & (1L << v)) != 0) continue;
+                if (s.strength[v] == 0) {
+                    if (touched == s.touched.length) s.touched = Arrays.copyOf(s.touched, touched * 2);
+                    s.touched[touched++] = v;
+                }
+                s.strength[v] += strength;
+            }
+        }
+        s.touchedCount = touched;
+        return touched;
+    }
+
+    /** Costs from {@code source} to every celebrity (-1 when unreachable); one full Dijkstra, for landmarks. */
+    int[] costsFrom(int source) {
+        Scratch s = scratchPool.acquire(() -> false);
+        try {
+            int epoch = s.nextEpoch();
+            Side side = s.forward;
+            side.reach(source, epoch, 0, -1);
+            side.heap.offer(source, 0);
+            while (!side.heap.isEmpty()) {
+                int u = side.heap.poll();
+                int base = side.cost[u];
+                int touched = accumulateStrengths(s, u, PathExclusions.NONE);
+                for (int k = 0; k < touched; k++) {
+                    int v = s.touched[k];
+                    boolean seen = side.stamp[v] == epoch;
+                    if (seen && side.cost[v] <= base + HOP_COST) continue;
+                    int next = base + linkCost(s.strength[v]);
+                    if (seen && next >= side.cost[v]) continue;
+                    side.reach(v, epoch, next, u);
+                    side.heap.offer(v, next);
+                }
+            }
+            int[] costs = new int[graph.celebrityCount()];
+            for (int c = 0; c < costs.length; c++) {
+                costs[c] = side.stamp[c] == epoch ? side.cost[c] : -1;
+            }
+            return costs;
+        } finally {
+            release(s);
+        }
+    }
+
+    private void release(Scratch s) {
+        s.forward.heap.clear();
+        s.backward.heap.clear();
+        scratchPool.release(s);
+    }
+
+    /** One direction of the search: its queue and the best known cost and parent per celebrity. */
+    private static final class Side {
+        final IndexedIntHeap heap;
+        final int[] stamp;      // epoch in which cost/parent were last written
+        final int[] cost;
+        final int[] parent;
+
+        Side(int n) {
+            heap = new IndexedIntHeap(n);
+            stamp = new int[n];
+            cost = new int[n];
+            parent = new int[n];
+        }
+
+        void reach(int node, int epoch, int cost, int parent) {
+            this.stamp[node] = epoch;
+            this.cost[node] = cost;
+            this.parent[node] = parent;
+        }
+    }
+
+    /** Reusable per-search state, a few slots per celebrity. */
+    private static final class Scratch {
+        final Side forward;
+        final Side backward;
+        final float[] strength; // per co-star of the node being expanded; zero elsewhere, as every title has a positive strength
+        final AdjacencyRows.Reader titles;
+        final AdjacencyRows.Reader cast;
+        int[] touched = new int[1024];
+        int touchedCount;
+        int epoch;
+
+        Scratch(CelebrityGraph graph) {
+            int n = graph.celebrityCount();
+            forward = new Side(n);
+            backward = new Side(n);
+            strength = new float[n];
+            titles = graph.titleReader();
+            cast = graph.castReader();
+        }
+
+        int nextEpoch() {
+            if (++epoch == 0) {
+                Arrays.fill(forward.stamp, 0);
+                Arrays.fill(backward.stamp, 0);
+                epoch = 1;
+            }
+            return epoch;
+        }
+
+        /** Source-to-target path: forward parents up to the meeting point, backward parents after it. */
+        int[] pathThrough(int meeting) {
+            int head = 0;
+            for (int c = meeting; c >= 0; c = forward.parent[c]) head++;
+            int tail = 0;
+            for (int c = backward.parent[meeting]; c >= 0; c = backward.parent[c]) tail++;
+            int[] path = new int[head + tail];
+            int i = head - 1;
+            for (int c = meeting; c >= 0; c = forward.parent[c]) path[i--] = c;
+            i = head;
+            for (int c = backward.parent[meeting]; c >= 0; c = backward.parent[c]) path[i++] = c;
+            return path;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.repository;
+
+import com.example.entity.CelebrityPhoto;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface CelebrityPhotoRepository extends JpaRepository<CelebrityPhoto, String> {
+
+    // Newest lookups first, so a size-bounded warm-up keeps the most recent ones
+    List<CelebrityPhoto> findByFetchedAtAfterOrderByFetchedAtDesc(Instant since, Pageable pageable);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM CelebrityPhoto p WHERE p.fetchedAt < :photoCutoff OR (p.photoUrl = '' AND p.fetchedAt < :missingCutoff)")
+    int deleteExpired(@Param("photoCutoff") Instant photoCutoff, @Param("missingCutoff") Instant missingCutoff);
+}
@@ -0,0 +1,20 @@
+package com.example.service;
+
+import java.util.List;
+
+/**
+ * One path as the API returns it: the celebrities from start to end, and for each consecutive
+ * pair the title linking them ({@code edges.get(i)} joins {@code nodes.get(i)} and
+ * {@code nodes.get(i + 1)}). Names are plain strings, so commas and arrows in them are safe.
+ */
+public record CelebrityPath(List<Node> nodes, List<Edge> edges) {
+
+    public record Node(String id, String name) {}
+
+    /** A link between two co-stars; the title fields are null if no shared title was found. */
+    public record Edge(String titleId, String title) {}
+
+    public static CelebrityPath single(Node node) {
+        return new CelebrityPath(List.of(node), List.of());
+    }
+}
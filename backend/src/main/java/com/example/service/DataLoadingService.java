@@ -2,11 +2,14 @@ package com.example.service;
 
 import com.example.repository.CelebrityRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.jdbc.core.JdbcTemplate;
 
 import java.io.*;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Paths;
@@ -14,6 +17,7 @@ import java.util.*;
 import java.util.zip.GZIPInputStream;
 
 @Service
+@Profile("!standalone")
 public class DataLoadingService {
     
     @Autowired
@@ -21,8 +25,16 @@ public class DataLoadingService {
     
     @Autowired
     private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private GraphStatsService graphStatsService;
+
+    @Autowired
+    private GraphReadiness readiness;
+
+    @Autowired
+    private DatasetVersionService datasetVersion;
     
-    @Transactional(readOnly = true)
     public void loadDataFromFilesIfNeeded() {
         if (Boolean.parseBoolean(System.getenv().getOrDefault("SKIP_DATA_LOADING", "false"))) {
             System.out.println("Data loading skipped via SKIP_DATA_LOADING=true");
@@ -47,6 +59,7 @@ public class DataLoadingService {
             System.out.println("Database is empty. Checking for pre-built database...");
             
             // Try to restore from pre-built database
+            readiness.detail("restoring pre-built database");
             if (restoreFromPreBuiltDatabase()) {
                 System.out.println("Successfully restored from pre-built database!");
                 return;
@@ -54,6 +67,7 @@ public class DataLoadingService {
             
             System.out.println("❌ No pre-built database found!");
             System.out.println("🔄 Falling back to CSV loading for database creation...");
+            readiness.detail("loading cast.csv.gz");
             loadDataFromCSV();
             return;
         } catch (Exception e) {
@@ -61,6 +75,7 @@ public class DataLoadingService {
             System.out.println("Tables not found. Hibernate will create them automatically.");
             System.out.println("Checking for pre-built database...");
             
+            readiness.detail("restoring pre-built database");
             if (restoreFromPreBuiltDatabase()) {
                 System.out.println("Successfully restored from pre-built database!");
                 return;
@@ -68,6 +83,7 @@ public class DataLoadingService {
             
             System.out.println("❌ No pre-built database found!");
             System.out.println("🔄 Falling back to CSV loading for database creation...");
+            readiness.detail("loading cast.csv.gz");
             loadDataFromCSV();
         }
     }
@@ -121,8 +137,11 @@ public class DataLoadingService {
             System.err.println("⚠️ Warning: Some indexes may not have been created: " + e.getMessage());
         }
         
-        try (BufferedReader reader = new BufferedReader(
-                new InputStreamReader(new GZIPInputStream(Files.newInputStream(Paths.get(castFile))), StandardCharsets.UTF_8), 16 * 1024)) {
+        // Read through a FileChannel so its position (compressed bytes consumed) gives load progress
+        try (FileChannel channel = FileChannel.open(Paths.get(castFile));
+             BufferedReader reader = new BufferedReader(
+                new InputStreamReader(new GZIPInputStream(Channels.newInputStream(channel)), StandardCharsets.UTF_8), 16 * 1024)) {
+            long fileSize = Math.max(1, channel.size());
             
             String header = reader.readLine(); // header
             if (header == null) {
@@ -142,7 +161,8 @@ public class DataLoadingService {
             StringBuilder titleSQL = new StringBuilder("INSERT INTO titles (id, name, index_id) VALUES ");
             StringBuilder relationSQL = new StringBuilder("INSERT INTO celebrity_titles (celebrity_id, title_id) VALUES ");
             
-            Set<String> seenCelebrities = new HashSet<>();
+            // Degree/cast-size stats are gathered in the same pass; its degree map also tracks seen celebrities
+            GraphStatsCollector stats = new GraphStatsCollector(Integer.parseInt(System.getenv().getOrDefault("GRAPH_STATS_TOP_N", "25")));
             Set<String> seenTitles = new HashSet<>();
             
             int celebrityIndex = 0;
@@ -174,6 +194,7 @@ public class DataLoadingService {
                     if (titleIndex > 0) titleSQL.append(",");
                     titleSQL.append("('").append(titleId).append("','").append(titleName.isEmpty() ? titleId : titleName).append("',").append(titleIndex++).append(")");
                     seenTitles.add(titleId);
+                    stats.addTitle(titleId, cols[1].trim().isEmpty() ? titleId : cols[1].trim(), Math.min(personIds.length, personNames.length));
                 }
 
                 // Add celebrities and relationships
@@ -183,10 +204,9 @@ public class DataLoadingService {
                     String celebrityName = escapeSQL(personNames[i].trim());
                     
                     // Add celebrity if not seen
-                    if (!seenCelebrities.contains(celebrityId)) {
+                    if (stats.addCredit(celebrityId)) {
                         if (celebrityIndex > 0) celebritySQL.append(",");
                         celebritySQL.append("('").append(celebrityId).append("','").append(celebrityName.isEmpty() ? celebrityId : celebrityName).append("',").append(celebrityIndex++).append(")");
-                        seenCelebrities.add(celebrityId);
                     }
                     
                     // Add relationship
@@ -198,8 +218,10 @@ public class DataLoadingService {
                 // Execute bulk inserts every batchSize lines
                 if (lineCount % batchSize == 0) {
                     long elapsed = System.currentTimeMillis() - startTime;
-                    System.out.println("🚀 BULK PROCESSING " + lineCount + " lines | " + seenCelebrities.size() + " celebrities | " + seenTitles.size() + " titles | " + (elapsed/1000) + "s");
+                    System.out.println("🚀 BULK PROCESSING " + lineCount + " lines | " + stats.celebrityCount() + " celebrities | " + seenTitles.size() + " titles | " + (elapsed/1000) + "s");
                     executeBulkSQL(celebritySQL, titleSQL, relationSQL, celebrityIndex, titleIndex, relationCount);
+                    // Inserts dominate load time, so progress advances as batches land rather than as lines are read
+                    readiness.progress((double) channel.position() / fileSize);
                     
                     // Reset builders for next batch
                     celebritySQL = new StringBuilder("INSERT INTO celebrities (id, name, index_id) VALUES ");
@@ -218,7 +240,7 @@ public class DataLoadingService {
             long totalTime = System.currentTimeMillis() - startTime;
             System.out.println("🎉 ULTRA-FAST DATA LOADING COMPLETED! 🚀");
             System.out.println("📊 Processed " + lineCount + " lines in " + (totalTime/1000) + " seconds");
-            System.out.println("📊 Final counts: " + seenCelebrities.size() + " unique celebrities, " + seenTitles.size() + " unique titles");
+            System.out.println("📊 Final counts: " + stats.celebrityCount() + " unique celebrities, " + seenTitles.size() + " unique titles");
             System.out.println("⚡ Speed: " + (lineCount / Math.max(1, totalTime/1000)) + " lines/second");
             // Update planner statistics
             try {
@@ -226,6 +248,8 @@ public class DataLoadingService {
                 jdbcTemplate.execute("ANALYZE titles");
                 jdbcTemplate.execute("ANALYZE celebrity_titles");
             } catch (Exception ignored) {}
+            graphStatsService.record(stats);
+            datasetVersion.record("loader");
             
         } catch (IOException e) {
             System.err.println("❌ Error loading data: " + e.getMessage());
@@ -274,7 +298,7 @@ public class DataLoadingService {
         return input.replace("'", "''"); // Escape single quotes for SQL
     }
     
-    private String[] splitSmart(String line) {
+    static String[] splitSmart(String line) {
         // Prefer tab if present
         if (line.indexOf('\t') >= 0) {
             return line.split("\t", -1);
@@ -304,7 +328,7 @@ public class DataLoadingService {
         return out.toArray(new String[0]);
     }
     
-    private String[] splitList(String field) {
+    static String[] splitList(String field) {
         String f = trimQuotes(field);
         if (f.isEmpty() || f.equals("null")) return new String[0];
         
@@ -333,7 +357,7 @@ public class DataLoadingService {
                 .toArray(String[]::new);
     }
     
-    private String trimQuotes(String s) {
+    private static String trimQuotes(String s) {
         String t = s.trim();
         if (t.length() >= 2 && t.startsWith("\"") && t.endsWith("\"")) {
             return t.substring(1, t.length() - 1);
@@ -394,6 +418,7 @@ public class DataLoadingService {
             
             if (exitCode == 0) {
                 System.out.println("Database restored successfully from pre-built file!");
+                datasetVersion.record("restore");
                 return true;
             } else {
                 System.err.println("Failed to restore database. Exit code: " + exitCode);
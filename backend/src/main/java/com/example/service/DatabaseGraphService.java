@@ -1,14 +1,26 @@
 package com.example.service;
 
 import com.example.entity.Celebrity;
+import com.example.entity.Title;
+import com.example.graph.CelebrityGraph;
+import com.example.graph.CompactIdList;
+import com.example.graph.DistanceLabels;
+import com.example.graph.HopPathFinder;
+import com.example.graph.HubTable;
+import com.example.graph.NameStore;
+import com.example.graph.PathExclusions;
+import com.example.graph.WeightedPathFinder;
 import com.example.repository.CelebrityRepository;
 import com.example.repository.CelebrityTitleRepository;
 import com.example.repository.TitleRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import jakarta.annotation.PostConstruct;
 import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 
 import java.util.*;
 
@@ -18,6 +30,16 @@ public class DatabaseGraphService {
     private static final int DEFAULT_MAX_QUEUE = 200_000;
     private final int maxVisited = Integer.parseInt(System.getenv().getOrDefault("BFS_MAX_VISITED", String.valueOf(DEFAULT_MAX_VISITED)));
     private final int maxQueue = Integer.parseInt(System.getenv().getOrDefault("BFS_MAX_QUEUE", String.valueOf(DEFAULT_MAX_QUEUE)));
+    private static final boolean VERBOSE = Boolean.parseBoolean(System.getenv().getOrDefault("VERBOSE_LOGS", "false"));
+
+    // Wall-clock budget per path search (request override is capped at the max)
+    private final long defaultTimeoutMs = Long.parseLong(System.getenv().getOrDefault("SEARCH_TIMEOUT_MS", "10000"));
+    private final long maxTimeoutMs = Long.parseLong(System.getenv().getOrDefault("SEARCH_MAX_TIMEOUT_MS", "30000"));
+    // Bulkhead: at most this many path searches run at once, so they can't take every pooled
+    // connection and starve autocomplete; excess requests wait up to the queue timeout, then get a 503
+    private final int maxConcurrentSearches = Integer.parseInt(System.getenv().getOrDefault("SEARCH_MAX_CONCURRENT", "3"));
+    private final long searchQueueTimeoutMs = Long.parseLong(System.getenv().getOrDefault("SEARCH_QUEUE_TIMEOUT_MS", "2000"));
+    private final Semaphore searchPermits = new Semaphore(maxConcurrentSearches, true);
     
     @Autowired
     private CelebrityRepository celebrityRepository;
@@ -29,38 +51,496 @@ public class DatabaseGraphService {
     private final Cache<String, List<Celebrity>> searchCache = Caffeine.newBuilder()
             .maximumSize(5000)
             .expireAfterWrite(300, TimeUnit.SECONDS)
+            .recordStats()
+            .build();
+    
+    // Co-star lists of hot celebrities, shared across searches. Weighed by approximate bytes
+    // (ids kept as sorted int[]), so a few huge hub lists can't crowd out many small hot ones.
+    private final long neighborCacheBytes = Long.parseLong(System.getenv().getOrDefault("NEIGHBOR_CACHE_MB", "64")) * 1024 * 1024;
+    private final Cache<String, List<String>> neighborCache = Caffeine.newBuilder()
+            .maximumWeight(neighborCacheBytes)
+            .weigher((String id, List<String> neighbors) -> CompactIdList.estimatedBytes(neighbors))
+            .recordStats()
             .build();
     
     @Autowired
     private TitleRepository titleRepository;
+
+    @Autowired
+    private SearchMetrics searchMetrics;
+
+    @Autowired
+    private GraphStatsService graphStats;
+
+    @Autowired
+    private GraphReadiness readiness;
+
+    @Autowired
+    private InMemoryGraphService inMemoryGraph;
+
+    @PostConstruct
+    void registerMetrics() {
+        searchMetrics.monitor(searchCache, "searchCache");
+        searchMetrics.monitor(neighborCache, "neighborCache");
+        searchMetrics.registry().gauge("celebrity.path.active", searchPermits,
+                permits -> maxConcurrentSearches - permits.availablePermits());
+        // Suggestions and co-star lists were read from the data the old graph version was built from
+        inMemoryGraph.onSwap(version -> {
+            searchCache.invalidateAll();
+            neighborCache.invalidateAll();
+        });
+    }
     
-    public List<String> findShortestPath(String startQuery, String endQuery) {
-        String startId = resolveCelebrityId(startQuery);
-        String endId = resolveCelebrityId(endQuery);
+    public List<CelebrityPath> findShortestPath(String startQuery, String endQuery) {
+        return findShortestPath(startQuery, endQuery, null).paths();
+    }
+
+    /**
+     * Runs a path search within a time budget ({@code timeoutMs}, or the default when null,
+     * capped at SEARCH_MAX_TIMEOUT_MS). When the budget runs out the paths found so far are
+     * returned with a TIMED_OUT outcome. Throws {@link SearchRejectedException} when the
+     * bulkhead has no free slot within SEARCH_QUEUE_TIMEOUT_MS.
+     */
+    public PathSearchResult findShortestPath(String startQuery, String endQuery, Long timeoutMs) {
+        return findShortestPath(startQuery, endQuery, timeoutMs, PathMode.BFS);
+    }
+
+    /**
+     * As above, ranking paths by {@code mode}. {@link PathMode#WEIGHTED} needs the in-memory
+     * graph: it is rejected with IllegalArgumentException when GRAPH_IN_MEMORY is off, and
+     * with {@link GraphNotReadyException} while the graph is still being built.
+     */
+    public PathSearchResult findShortestPath(String startQuery, String endQuery, Long timeoutMs, PathMode mode) {
+        return findShortestPath(startQuery, endQuery, timeoutMs, mode, List.of(), List.of());
+    }
+
+    /**
+     * As above, with paths that avoid the given celebrities and titles. Exclusions are checked
+     * during the search over the in-memory graph, so the paths found are the shortest among
+     * those avoiding them; like weighted mode they need GRAPH_IN_MEMORY. Excluding the start or
+     * end celebrity is an IllegalArgumentException; unknown ids are ignored.
+     */
+    public PathSearchResult findShortestPath(String startQuery, String endQuery, Long timeoutMs, PathMode mode,
+                                             Collection<String> excludedCelebrityIds, Collection<String> excludedTitleIds) {
+        if (!readiness.isDataLoaded()) {
+            // A half-loaded graph would report wrong or missing paths, so ask the client to come back
+            throw notReady("The celebrity graph is still loading, please try again shortly.");
+        }
+        boolean excluding = !excludedCelebrityIds.isEmpty() || !excludedTitleIds.isEmpty();
+        if ((mode == PathMode.WEIGHTED || excluding) && !inMemoryGraph.isEnabled()) {
+            throw new IllegalArgumentException((mode == PathMode.WEIGHTED ? "Weighted paths need" : "Excluding celebrities or titles needs")
+                    + " the in-memory graph (GRAPH_IN_MEMORY=true)");
+        }
+        // Held until the search ends, so a hot swap can't free the version under it
+        GraphVersion graph = inMemoryGraph.acquire();
+        try {
+            if (graph == null && mode == PathMode.WEIGHTED) {
+                throw notReady("The in-memory graph for weighted paths is still being built, please try again shortly.");
+            }
+            // Once the in-memory graph is loaded it serves BFS too; until then only unconstrained queries can run
+            if (graph == null && excluding) {
+                throw notReady("The in-memory graph for exclusions is still being built, please try again shortly.");
+            }
+            return search(timeoutMs, mode, ctx -> graph == null
+                    ? findShortestPath(ctx, startQuery, endQuery)
+                    : mode == PathMode.WEIGHTED
+                    ? findStrongestPath(ctx, graph, startQuery, endQuery, excludedCelebrityIds, excludedTitleIds)
+                    : findShortestInMemory(ctx, graph, startQuery, endQuery, excludedCelebrityIds, excludedTitleIds));
+        } finally {
+            if (graph != null) graph.release();
+        }
+    }
+
+    /**
+     * Hops between two celebrities (ids or names, resolved as for paths), -1 when they are not
+     * connected, or null when the search ran out of time or hit the visited cap first. With
+     * distance labels on the in-memory graph this is a merge of two labels and needs no search
+     * slot; otherwise it is the length of the shortest path.
+     */
+    public Integer separation(String startQuery, String endQuery, Long timeoutMs) {
+        if (!readiness.isDataLoaded()) {
+            throw notReady("The celebrity graph is still loading, please try again shortly.");
+        }
+        GraphVersion version = inMemoryGraph.acquire();
+        try {
+            DistanceLabels labels = version != null ? version.distanceLabels() : null;
+            if (labels != null) {
+                SearchContext ctx = new SearchContext();
+                String startId = resolveCelebrityId(ctx, startQuery, version);
+                String endId = resolveCelebrityId(ctx, endQuery, version);
+                int source = startId != null ? version.graph().celebrity(startId) : -1;
+                int target = endId != null ? version.graph().celebrity(endId) : -1;
+                return source < 0 || target < 0 ? -1 : labels.distance(source, target);
+            }
+        } finally {
+            if (version != null) version.release();
+        }
+        PathSearchResult result = findShortestPath(startQuery, endQuery, timeoutMs);
+        if (!result.paths().isEmpty()) return result.paths().get(0).nodes().size() - 1;
+        return result.outcome() == SearchMetrics.Outcome.NO_PATH ? -1 : null;
+    }
+
+    /**
+     * Shortest paths from anyone in one group of celebrities to anyone in another, in a single
+     * search: both groups are seeded whole at depth 0 of the in-memory BFS. Unknown ids are
+     * ignored. Needs GRAPH_IN_MEMORY, like exclusions.
+     */
+    public PathSearchResult findShortestPathBetween(Collection<String> celebrityIds1, Collection<String> celebrityIds2, Long timeoutMs) {
+        return findBetweenGroups(graph -> celebrities(graph, celebrityIds1), graph -> celebrities(graph, celebrityIds2), timeoutMs);
+    }
+
+    /** As above, between the casts of two titles. An unknown title has an empty cast. */
+    public PathSearchResult findShortestPathBetweenCasts(String titleId1, String titleId2, Long timeoutMs) {
+        return findBetweenGroups(graph -> cast(graph, titleId1), graph -> cast(graph, titleId2), timeoutMs);
+    }
+
+    private PathSearchResult findBetweenGroups(Function<CelebrityGraph, int[]> sources, Function<CelebrityGraph, int[]> targets, Long timeoutMs) {
+        if (!readiness.isDataLoaded()) {
+            throw notReady("The celebrity graph is still loading, please try again shortly.");
+        }
+        if (!inMemoryGraph.isEnabled()) {
+            throw new IllegalArgumentException("Paths between groups need the in-memory graph (GRAPH_IN_MEMORY=true)");
+        }
+        GraphVersion graph = inMemoryGraph.acquire();
+        if (graph == null) {
+            throw notReady("The in-memory graph for paths between groups is still being built, please try again shortly.");
+        }
+        try {
+            int[] from = sources.apply(graph.graph());
+            int[] to = targets.apply(graph.graph());
+            return search(timeoutMs, PathMode.BFS, ctx -> findBetweenGroupsInMemory(ctx, graph, from, to));
+        } finally {
+            graph.release();
+        }
+    }
+
+    private static int[] celebrities(CelebrityGraph graph, Collection<String> ids) {
+        int[] dense = new int[ids.size()];
+        int count = 0;
+        for (String id : ids) {
+            int c = graph.celebrity(id.trim());
+            if (c >= 0) dense[count++] = c;
+        }
+        return Arrays.copyOf(dense, count);
+    }
+
+    private static int[] cast(CelebrityGraph graph, String titleId) {
+        int t = titleId == null ? -1 : graph.title(titleId.trim());
+        return t < 0 ? new int[0] : graph.castOf(t);
+    }
+
+    // Runs one search on the bulkhead within the time budget and records its metrics
+    private PathSearchResult search(Long timeoutMs, PathMode mode, Function<SearchContext, List<CelebrityPath>> finder) {
+        long budget = Math.max(1, Math.min(timeoutMs != null ? timeoutMs : defaultTimeoutMs, maxTimeoutMs));
+        SearchContext ctx = new SearchContext(budget);
+        ctx.mode = mode;
+        boolean acquired;
+        try {
+            acquired = searchPermits.tryAcquire(Math.min(searchQueueTimeoutMs, budget), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            searchMetrics.recordRejected();
+            throw new SearchRejectedException("Too many path searches in progress, please retry shortly.");
+        }
+        try {
+            List<CelebrityPath> paths = finder.apply(ctx);
+            SearchMetrics.Outcome outcome = ctx.timedOut ? SearchMetrics.Outcome.TIMED_OUT
+                    : !paths.isEmpty() ? SearchMetrics.Outcome.FOUND
+                    : ctx.capHit ? SearchMetrics.Outcome.CAP_HIT : SearchMetrics.Outcome.NO_PATH;
+            searchMetrics.recordSearch(ctx, outcome);
+            return new PathSearchResult(paths, outcome);
+        } finally {
+            searchPermits.release();
+        }
+    }
+
+    private GraphNotReadyException notReady(String message) {
+        long eta = readiness.etaSeconds();
+        return new GraphNotReadyException(message, eta < 0 ? 30 : Math.max(5, Math.min(eta, 300)));
+    }
+
+    private List<CelebrityPath> findShortestPath(SearchContext ctx, String startQuery, String endQuery) {
+        String startId = resolveCelebrityId(ctx, startQuery);
+        String endId = resolveCelebrityId(ctx, endQuery);
         if (startId == null || endId == null) {
             return Collections.emptyList();
         }
         try {
-            long startDegree = celebrityTitleRepository.countByCelebrityId(startId);
-            long endDegree = celebrityTitleRepository.countByCelebrityId(endId);
-            if (Boolean.parseBoolean(System.getenv().getOrDefault("VERBOSE_LOGS", "false"))) {
+            long startDegree = degreeOf(ctx, startId);
+            long endDegree = degreeOf(ctx, endId);
+            if (VERBOSE) {
                 System.out.println("BFS start: " + startId + " (deg=" + startDegree + "), end: " + endId + " (deg=" + endDegree + ")");
             }
             if (startDegree == 0 || endDegree == 0) {
                 return Collections.emptyList();
             }
         } catch (Exception ignored) {}
-        return bfs(startId, endId);
+        return bfs(ctx, startId, endId);
+    }
+
+    // BFS over the in-memory graph: same results as bfs(), with exclusions applied while expanding.
+    // Unconstrained pairs of hubs are answered by a walk of the hub table instead: one shortest
+    // path, returned up to five times with different shared titles along it.
+    private List<CelebrityPath> findShortestInMemory(SearchContext ctx, GraphVersion version, String startQuery, String endQuery,
+                                              Collection<String> excludedCelebrityIds, Collection<String> excludedTitleIds) {
+        String startId = resolveCelebrityId(ctx, startQuery, version);
+        String endId = resolveCelebrityId(ctx, endQuery, version);
+        if (startId == null || endId == null) {
+            return Collections.emptyList();
+        }
+        HopPathFinder finder = version.hopFinder();
+        CelebrityGraph graph = version.graph();
+        int source = graph.celebrity(startId);
+        int target = graph.celebrity(endId);
+        if (source < 0 || target < 0) {
+            return Collections.emptyList();
+        }
+        PathExclusions exclusions = compileExclusions(graph, source, target, excludedCelebrityIds, excludedTitleIds);
+        version.recordEndpoint(source);
+        version.recordEndpoint(target);
+        if (source == target) {
+            ctx.depth = 0;
+            return reconstructGraphPaths(ctx, version, List.of(new int[]{source}), List.of(new int[0]));
+        }
+        DistanceLabels labels = version.distanceLabels();
+        if (labels != null && labels.distance(source, target) < 0) {
+            searchMetrics.recordUnreachableSkip();
+            return Collections.emptyList();
+        }
+        HubTable hubTable = version.hubTable();
+        int[] tabulated = hubTable != null && exclusions.isEmpty() ? hubTable.path(source, target) : null;
+        List<int[]> found;
+        if (tabulated != null) {
+            searchMetrics.recordHubTableHit();
+            found = tabulated.length == 0 ? List.of() : List.<int[]>of(tabulated);
+        } else {
+            HopPathFinder.Result result = finder.find(source, target, 5, maxVisited, exclusions, ctx::expired);
+            ctx.nodesExpanded += result.expanded();
+            ctx.observeFrontier(result.maxFrontier());
+            ctx.capHit = result.capHit();
+            if (result.capHit()) {
+                if (VERBOSE) {
+                    System.out.println("BFS aborted: visited cap exceeded (" + maxVisited + ")");
+                }
+            }
+            found = result.paths();
+        }
+        if (found.isEmpty()) {
+            return Collections.emptyList();
+        }
+        ctx.depth = found.get(0).length - 1;
+        List<int[]> paths = new ArrayList<>();
+        List<int[]> hopTitles = new ArrayList<>();
+        if (found.size() == 1) {
+            // A direct connection or a tabulated path: one result per combination of shared titles, as in bfs()
+            int[] path = found.get(0);
+            for (int[] titles : titleVariants(graph, path, exclusions, 5)) {
+                paths.add(path);
+                hopTitles.add(titles);
+            }
+        } else {
+            for (int[] path : found) {
+                int[] titles = new int[path.length - 1];
+                for (int i = 0; i + 1 < path.length; i++) {
+                    titles[i] = firstSharedTitle(graph, path[i], path[i + 1], exclusions);
+                }
+                paths.add(path);
+                hopTitles.add(titles);
+            }
+        }
+        return reconstructGraphPaths(ctx, version, paths, hopTitles);
+    }
+
+    // Group-to-group BFS: up to five paths through distinct meeting points, each from some member of one group to some member of the other
+    private List<CelebrityPath> findBetweenGroupsInMemory(SearchContext ctx, GraphVersion version, int[] sources, int[] targets) {
+        if (sources.length == 0 || targets.length == 0) {
+            return Collections.emptyList();
+        }
+        HopPathFinder.Result result = version.hopFinder().find(sources, targets, 5, maxVisited, PathExclusions.NONE, ctx::expired);
+        ctx.nodesExpanded += result.expanded();
+        ctx.observeFrontier(result.maxFrontier());
+        ctx.capHit = result.capHit();
+        if (result.capHit()) {
+            if (VERBOSE) {
+                System.out.println("Group BFS aborted: visited cap exceeded (" + maxVisited + ")");
+            }
+        }
+        if (result.paths().isEmpty()) {
+            return Collections.emptyList();
+        }
+        CelebrityGraph graph = version.graph();
+        ctx.depth = result.paths().get(0).length - 1;
+        List<int[]> hopTitles = new ArrayList<>();
+        for (int[] path : result.paths()) {
+            int[] titles = new int[path.length - 1];
+            for (int i = 0; i + 1 < path.length; i++) {
+                titles[i] = firstSharedTitle(graph, path[i], path[i + 1], PathExclusions.NONE);
+            }
+            hopTitles.add(titles);
+        }
+        return reconstructGraphPaths(ctx, version, result.paths(), hopTitles);
+    }
+
+    /**
+     * Up to {@code limit} choices of a shared title per hop of {@code path}, in odometer order (the
+     * last hop's title changes first). Empty when some hop has no title left after exclusions.
+     */
+    private static List<int[]> titleVariants(CelebrityGraph graph, int[] path, PathExclusions exclusions, int limit) {
+        int hops = path.length - 1;
+        int[][] choices = new int[hops][];
+        for (int i = 0; i < hops; i++) {
+            choices[i] = Arrays.stream(graph.sharedTitles(path[i], path[i + 1])).filter(t -> !exclusions.excludesTitle(t)).toArray();
+            if (choices[i].length == 0) return List.of();
+        }
+        List<int[]> variants = new ArrayList<>();
+        int[] digits = new int[hops];
+        while (variants.size() < limit) {
+            int[] titles = new int[hops];
+            for (int i = 0; i < hops; i++) titles[i] = choices[i][digits[i]];
+            variants.add(titles);
+            int i = hops - 1;
+            while (i >= 0 && ++digits[i] == choices[i].length) digits[i--] = 0;
+            if (i < 0) break;
+        }
+        return variants;
+    }
+
+    private static int firstSharedTitle(CelebrityGraph graph, int a, int b, PathExclusions exclusions) {
+        for (int t : graph.sharedTitles(a, b)) {
+            if (!exclusions.excludesTitle(t)) return t;
+        }
+        return -1;
     }
 
-    private String resolveCelebrityId(String query) {
+    private static PathExclusions compileExclusions(CelebrityGraph graph, int source, int target,
+                                                    Collection<String> excludedCelebrityIds, Collection<String> excludedTitleIds) {
+        PathExclusions exclusions = PathExclusions.compile(graph, excludedCelebrityIds, excludedTitleIds);
+        if (exclusions.excludesCelebrity(source) || exclusions.excludesCelebrity(target)) {
+            throw new IllegalArgumentException("The start and end celebrities can't be excluded");
+        }
+        return exclusions;
+    }
+
+    // Weighted mode: one path, A* over the in-memory graph
+    private List<CelebrityPath> findStrongestPath(SearchContext ctx, GraphVersion version, String startQuery, String endQuery,
+                                           Collection<String> excludedCelebrityIds, Collection<String> excludedTitleIds) {
+        String startId = resolveCelebrityId(ctx, startQuery, version);
+        String endId = resolveCelebrityId(ctx, endQuery, version);
+        if (startId == null || endId == null) {
+            return Collections.emptyList();
+        }
+        WeightedPathFinder finder = version.weightedFinder();
+        CelebrityGraph graph = version.graph();
+        int source = graph.celebrity(startId);
+        int target = graph.celebrity(endId);
+        if (source < 0 || target < 0) {
+            return Collections.emptyList();
+        }
+        PathExclusions exclusions = compileExclusions(graph, source, target, excludedCelebrityIds, excludedTitleIds);
+        // Without labels, A* only learns a pair is unconnected by settling the whole component
+        DistanceLabels labels = version.distanceLabels();
+        if (labels != null && labels.distance(source, target) < 0) {
+            searchMetrics.recordUnreachableSkip();
+            return Collections.emptyList();
+        }
+        WeightedPathFinder.Result result = finder.find(source, target, maxVisited, exclusions, ctx::expired);
+        ctx.nodesExpanded += result.settled();
+        ctx.observeFrontier(result.maxQueue());
+        ctx.capHit = result.capHit();
+        if (result.capHit()) {
+            if (VERBOSE) {
+                System.out.println("Weighted search aborted: expansion cap reached (" + result.settled() + "/" + maxVisited + ")");
+            }
+        }
+        if (result.path() == null) {
+            return Collections.emptyList();
+        }
+        int[] path = result.path();
+        ctx.depth = path.length - 1;
+        // Each hop shows the shared title with the smallest cast
+        int[] hopTitles = new int[Math.max(0, path.length - 1)];
+        for (int i = 0; i + 1 < path.length; i++) {
+            hopTitles[i] = finder.strongestSharedTitle(path[i], path[i + 1], exclusions);
+        }
+        return reconstructGraphPaths(ctx, version, List.of(path), List.of(hopTitles));
+    }
+
+    /**
+     * Paths of dense ids and the title chosen per hop, as API paths. Names come from the off-heap
+     * name stores; any the stores lack are fetched in two batched queries, since paths share most
+     * of their people.
+     */
+    private List<CelebrityPath> reconstructGraphPaths(SearchContext ctx, GraphVersion version, List<int[]> paths, List<int[]> hopTitles) {
+        long reconstructStart = System.nanoTime();
+        CelebrityGraph graph = version.graph();
+        NameStore celebrityStore = version.celebrityNames();
+        NameStore titleStore = version.titleNames();
+        Map<String, String> celebrityNames = new HashMap<>();
+        Map<String, String> titleNames = new HashMap<>();
+        Set<String> missingCelebrities = new HashSet<>();
+        Set<String> missingTitles = new HashSet<>();
+        for (int p = 0; p < paths.size(); p++) {
+            for (int c : paths.get(p)) {
+                String name = celebrityStore.name(c);
+                if (name != null) celebrityNames.put(graph.celebrityId(c), name);
+                else missingCelebrities.add(graph.celebrityId(c));
+            }
+            for (int t : hopTitles.get(p)) {
+                if (t < 0) continue;
+                String name = titleStore.name(t);
+                if (name != null) titleNames.put(graph.titleId(t), name);
+                else missingTitles.add(graph.titleId(t));
+            }
+        }
+        if (!missingCelebrities.isEmpty()) {
+            ctx.dbQueries++;
+            celebrityRepository.findAllById(missingCelebrities).forEach(c -> celebrityNames.put(c.getId(), c.getName()));
+        }
+        if (!missingTitles.isEmpty()) {
+            ctx.dbQueries++;
+            titleRepository.findAllById(missingTitles).forEach(t -> titleNames.put(t.getId(), t.getName()));
+        }
+
+        List<CelebrityPath> results = new ArrayList<>(paths.size());
+        for (int p = 0; p < paths.size(); p++) {
+            List<CelebrityPath.Node> nodes = new ArrayList<>(paths.get(p).length);
+            for (int c : paths.get(p)) {
+                String id = graph.celebrityId(c);
+                nodes.add(new CelebrityPath.Node(id, celebrityNames.getOrDefault(id, id)));
+            }
+            List<CelebrityPath.Edge> edges = new ArrayList<>(hopTitles.get(p).length);
+            for (int t : hopTitles.get(p)) {
+                String titleId = t < 0 ? null : graph.titleId(t);
+                edges.add(new CelebrityPath.Edge(titleId, titleId == null ? null : titleNames.getOrDefault(titleId, titleId)));
+            }
+            results.add(new CelebrityPath(nodes, edges));
+        }
+        searchMetrics.recordReconstruction(System.nanoTime() - reconstructStart);
+        return results;
+    }
+
+    private String resolveCelebrityId(SearchContext ctx, String query) {
+        return resolveCelebrityId(ctx, query, null);
+    }
+
+    private String resolveCelebrityId(SearchContext ctx, String query, GraphVersion version) {
         if (query == null || query.isBlank()) return null;
         String q = query.trim();
         // If user passed an IMDb id (nm....) use it directly when present in DB
         if (q.startsWith("nm")) {
-            Optional<Celebrity> found = celebrityRepository.findById(q);
+            // Celebrities with a stored name in the in-memory graph exist; no round trip needed
+            if (version != null) {
+                int c = version.graph().celebrity(q);
+                if (c >= 0 && version.celebrityNames().contains(c)) return version.graph().celebrityId(c);
+            }
+            Optional<Celebrity> found = celebrity(ctx, q);
             if (found.isPresent()) {
-                System.out.println("Found celebrity by ID: " + q + " -> " + found.get().getName());
+                if (VERBOSE) {
+                    System.out.println("Found celebrity by ID: " + q + " -> " + found.get().getName());
+                }
                 return found.get().getId();
             } else {
                 System.out.println("Celebrity ID not found: " + q);
@@ -68,71 +548,64 @@ public class DatabaseGraphService {
             }
         }
         // Try exact name (case-insensitive)
+        ctx.dbQueries++;
         Optional<Celebrity> exact = celebrityRepository.findByNameIgnoreCase(q);
         if (exact.isPresent()) {
-            if (Boolean.parseBoolean(System.getenv().getOrDefault("VERBOSE_LOGS", "false"))) {
+            if (VERBOSE) {
                 System.out.println("Found celebrity by exact name: " + q + " -> " + exact.get().getId());
             }
             return exact.get().getId();
         }
         // Try partial name match limited (wider for better resolution)
+        ctx.dbQueries++;
         List<Celebrity> candidates = celebrityRepository.findTop50ByNameContainingIgnoreCase(q);
         if (!candidates.isEmpty()) {
-            if (Boolean.parseBoolean(System.getenv().getOrDefault("VERBOSE_LOGS", "false"))) {
+            if (VERBOSE) {
                 System.out.println("Found celebrity by partial name: " + q + " -> " + candidates.get(0).getId() + " (" + candidates.get(0).getName() + ")");
             }
             return candidates.get(0).getId();
         }
-        if (Boolean.parseBoolean(System.getenv().getOrDefault("VERBOSE_LOGS", "false"))) {
+        if (VERBOSE) {
             System.out.println("No celebrity found for query: " + q);
         }
         return null;
     }
     
-    private List<String> bfs(String startId, String endId) {
+    private List<CelebrityPath> bfs(SearchContext ctx, String startId, String endId) {
         // Check if start and end are the same
         if (startId.equals(endId)) {
-            List<String> result = new ArrayList<>();
-            celebrityRepository.findById(startId).ifPresent(c -> result.add(c.getName()));
-            return result;
+            ctx.depth = 0;
+            return celebrity(ctx, startId)
+                    .map(c -> List.of(CelebrityPath.single(new CelebrityPath.Node(startId, c.getName()))))
+                    .orElse(List.of());
         }
         
         // Check if start and end are directly connected
-        List<String> startNeighbors = celebrityTitleRepository.findConnectedCelebrityIds(startId);
+        List<String> startNeighbors = neighborsOf(ctx, startId);
+        ctx.nodesExpanded++;
         if (startNeighbors.contains(endId)) {
-            String startName = celebrityRepository.findById(startId).map(Celebrity::getName).orElse(startId);
-            String endName = celebrityRepository.findById(endId).map(Celebrity::getName).orElse(endId);
+            ctx.depth = 1;
+            List<CelebrityPath.Node> nodes = List.of(
+                    new CelebrityPath.Node(startId, celebrity(ctx, startId).map(Celebrity::getName).orElse(startId)),
+                    new CelebrityPath.Node(endId, celebrity(ctx, endId).map(Celebrity::getName).orElse(endId)));
             
             // Find shared titles between the two celebrities
-            List<String> startTitles = celebrityTitleRepository.findTitleIdsByCelebrityId(startId);
-            List<String> endTitles = celebrityTitleRepository.findTitleIdsByCelebrityId(endId);
-            List<String> sharedTitleIds = startTitles.stream().filter(endTitles::contains).toList();
+            List<String> startTitles = titlesOf(ctx, startId);
+            List<String> endTitles = titlesOf(ctx, endId);
+            List<String> sharedTitleIds = CompactIdList.intersection(startTitles, endTitles);
+            
+            List<CelebrityPath> results = new ArrayList<>();
             
-            // Get title names for shared titles (limit to first 5 for display)
-            List<String> sharedTitleNames = new ArrayList<>();
+            // Create multiple path results for different shared movies (first 5 for display)
             for (String titleId : sharedTitleIds.subList(0, Math.min(5, sharedTitleIds.size()))) {
-                titleRepository.findById(titleId).ifPresent(title -> sharedTitleNames.add(title.getName()));
+                String titleName = title(ctx, titleId).map(Title::getName).orElse(titleId);
+                results.add(new CelebrityPath(nodes, List.of(new CelebrityPath.Edge(titleId, titleName))));
             }
             
-            List<String> results = new ArrayList<>();
-            
-            // Create multiple path results for different shared movies
-            for (int i = 0; i < Math.min(5, sharedTitleIds.size()); i++) {
-                String titleId = sharedTitleIds.get(i);
-                String titleName = sharedTitleNames.get(i);
-                
-                String pathResult = startName + " -> " + endName + "\n" +
-                                   "START_ID:" + startId + "\n" +
-                                   "END_ID:" + endId + "\n" +
-                                   "ACTOR_IDS:" + startId + "," + endId + "\n" +
-                                   "MOVIE_IDS:" + titleId + "\n" +
-                                   "MOVIE_TITLES:" + titleName;
-                
-                results.add(pathResult);
+            if (VERBOSE) {
+                System.out.println("Direct connection found between " + startId + " and " + endId + ". Returning " + results.size() + " paths.");
             }
-            
-            System.out.println("Direct connection found between " + startId + " and " + endId + ". Returning " + results.size() + " paths.");
-            return results.isEmpty() ? List.of(startName + " -> " + endName + "\nSTART_ID:" + startId + "\nEND_ID:" + endId + "\nACTOR_IDS:" + startId + "," + endId) : results;
+            return results.isEmpty() ? List.of(new CelebrityPath(nodes, List.of(new CelebrityPath.Edge(null, null)))) : results;
         }
         
         // Bidirectional BFS - search from both ends simultaneously
@@ -153,25 +626,38 @@ public class DatabaseGraphService {
         // Start nodes have no parent
         forwardParent.put(startId, null);
         backwardParent.put(endId, null);
+        // Estimated titles behind each queue (hub degrees / mean degree from the stats snapshot)
+        long[] frontierCost = {graphStats.estimatedDegree(startId), graphStats.estimatedDegree(endId)};
         
-        List<String> allPaths = new ArrayList<>();
+        List<CelebrityPath> allPaths = new ArrayList<>();
         Set<String> foundMeetingPoints = new HashSet<>();
         int shortestPathLength = -1;
         
         while (!forwardQueue.isEmpty() && !backwardQueue.isEmpty() && allPaths.size() < 5) {
+            if (ctx.expired()) {
+                if (VERBOSE) {
+                    System.out.println("BFS stopped: time budget exhausted after " + ctx.nodesExpanded + " expansions, returning " + allPaths.size() + " paths");
+                }
+                break;
+            }
             if (forwardVisited.size() + backwardVisited.size() > maxVisited) {
-                System.out.println("BFS aborted: visited cap exceeded (" + (forwardVisited.size() + backwardVisited.size()) + "/" + maxVisited + ")");
+                ctx.capHit = true;
+                if (VERBOSE) {
+                    System.out.println("BFS aborted: visited cap exceeded (" + (forwardVisited.size() + backwardVisited.size()) + "/" + maxVisited + ")");
+                }
                 break;
             }
             
-            // Always expand the smaller queue first to maintain symmetry
-            // This ensures the same search pattern regardless of start/end order
+            // Always expand the cheaper frontier first to maintain symmetry: queued hubs count with
+            // their real degree, so a side holding a hub waits while the other side catches up.
+            // Without a stats snapshot every node costs 1 and this is the smaller-queue rule.
             String meetingPoint = null;
-            if (forwardQueue.size() <= backwardQueue.size()) {
-                meetingPoint = expandSearch(forwardQueue, forwardVisited, forwardParent, backwardVisited, true);
+            if (frontierCost[0] <= frontierCost[1]) {
+                meetingPoint = expandSearch(ctx, forwardQueue, forwardVisited, forwardParent, backwardVisited, frontierCost, true);
             } else {
-                meetingPoint = expandSearch(backwardQueue, backwardVisited, backwardParent, forwardVisited, false);
+                meetingPoint = expandSearch(ctx, backwardQueue, backwardVisited, backwardParent, forwardVisited, frontierCost, false);
             }
+            ctx.observeFrontier(Math.max(forwardQueue.size(), backwardQueue.size()));
             
             // Process meeting point if found
             if (meetingPoint != null && !foundMeetingPoints.contains(meetingPoint)) {
@@ -181,11 +667,12 @@ public class DatabaseGraphService {
                 // If this is the first path found, set the shortest length
                 if (shortestPathLength == -1) {
                     shortestPathLength = pathLength;
+                    ctx.depth = pathLength - 1;
                 }
                 
                 // Only add paths of the shortest length
                 if (pathLength == shortestPathLength) {
-                    List<String> path = reconstructBidirectionalPath(forwardParent, backwardParent, startId, endId, meetingPoint);
+                    List<CelebrityPath> path = reconstructBidirectionalPath(ctx, forwardParent, backwardParent, startId, endId, meetingPoint);
                     allPaths.addAll(path);
                 }
                 // If we found a longer path, we're done (BFS guarantees we won't find shorter ones)
@@ -198,14 +685,19 @@ public class DatabaseGraphService {
         return allPaths.isEmpty() ? Collections.emptyList() : allPaths;
     }
     
-    private String expandSearch(Queue<String> queue,
+    private String expandSearch(SearchContext ctx,
+                                Queue<String> queue,
                                 Set<String> visited,
                                 Map<String, String> parent,
                                 Set<String> otherVisited,
+                                long[] frontierCost,
                                 boolean expandingForward) {
         if (queue.isEmpty()) return null;
+        int side = expandingForward ? 0 : 1;
 
         String current = queue.poll();
+        frontierCost[side] -= graphStats.estimatedDegree(current);
+        ctx.nodesExpanded++;
 
         // Check if current node was already visited by the other search
         if (otherVisited.contains(current)) {
@@ -213,7 +705,7 @@ public class DatabaseGraphService {
         }
 
         // Explore neighbors
-        List<String> neighbors = celebrityTitleRepository.findConnectedCelebrityIds(current);
+        List<String> neighbors = neighborsOf(ctx, current);
         for (String neighbor : neighbors) {
             if (!visited.contains(neighbor)) {
                 visited.add(neighbor);
@@ -226,6 +718,7 @@ public class DatabaseGraphService {
                 
                 if (queue.size() < maxQueue) {
                     queue.offer(neighbor);
+                    frontierCost[side] += graphStats.estimatedDegree(neighbor);
                 }
             }
         }
@@ -257,11 +750,13 @@ public class DatabaseGraphService {
         return forwardLength + backwardLength;
     }
     
-    private List<String> reconstructBidirectionalPath(Map<String, String> forwardParent,
-                                                      Map<String, String> backwardParent,
-                                                      String start,
-                                                      String end,
-                                                      String meetingPoint) {
+    List<CelebrityPath> reconstructBidirectionalPath(SearchContext ctx,
+                                             Map<String, String> forwardParent,
+                                             Map<String, String> backwardParent,
+                                             String start,
+                                             String end,
+                                             String meetingPoint) {
+        long reconstructStart = System.nanoTime();
         // Reconstruct path from start to meeting point using forward parents
         List<String> forwardPath = new ArrayList<>();
         String current = meetingPoint;
@@ -283,14 +778,11 @@ public class DatabaseGraphService {
         fullPath.addAll(backwardPath);
 
         // Convert IDs to names and find connecting titles
-        List<String> pathNames = new ArrayList<>();
-        List<String> connectingTitleIds = new ArrayList<>();
-        List<String> connectingTitleNames = new ArrayList<>();
+        List<CelebrityPath.Node> nodes = new ArrayList<>(fullPath.size());
+        List<CelebrityPath.Edge> edges = new ArrayList<>(fullPath.size() - 1);
         
         for (String id : fullPath) {
-            celebrityRepository.findById(id).ifPresent(celebrity ->
-                pathNames.add(celebrity.getName())
-            );
+            nodes.add(new CelebrityPath.Node(id, celebrity(ctx, id).map(Celebrity::getName).orElse(id)));
         }
         
         // Find titles that connect each adjacent pair of celebrities
@@ -299,39 +791,65 @@ public class DatabaseGraphService {
             String celeb2 = fullPath.get(i + 1);
             
             // Find shared titles between adjacent celebrities
-            List<String> celeb1Titles = celebrityTitleRepository.findTitleIdsByCelebrityId(celeb1);
-            List<String> celeb2Titles = celebrityTitleRepository.findTitleIdsByCelebrityId(celeb2);
-            List<String> sharedTitles = celeb1Titles.stream().filter(celeb2Titles::contains).toList();
+            List<String> celeb1Titles = titlesOf(ctx, celeb1);
+            List<String> celeb2Titles = titlesOf(ctx, celeb2);
+            List<String> sharedTitles = CompactIdList.intersection(celeb1Titles, celeb2Titles);
             
             if (!sharedTitles.isEmpty()) {
                 String titleId = sharedTitles.get(0); // Take first shared title
-                connectingTitleIds.add(titleId);
-                titleRepository.findById(titleId).ifPresent(title -> 
-                    connectingTitleNames.add(title.getName())
-                );
+                edges.add(new CelebrityPath.Edge(titleId, title(ctx, titleId).map(Title::getName).orElse(titleId)));
+            } else {
+                edges.add(new CelebrityPath.Edge(null, null));
             }
         }
 
-        // Format as expected by frontend
-        String pathResult = String.join(" -> ", pathNames) + "\n" +
-                           "START_ID:" + start + "\n" +
-                           "END_ID:" + end + "\n" +
-                           "ACTOR_IDS:" + String.join(",", fullPath);
-        
-        if (!connectingTitleIds.isEmpty()) {
-            pathResult += "\nMOVIE_IDS:" + String.join(",", connectingTitleIds);
+        searchMetrics.recordReconstruction(System.nanoTime() - reconstructStart);
+        return List.of(new CelebrityPath(nodes, edges));
+    }
+
+    // Top hubs have their degree in the stats snapshot, so only other celebrities need a COUNT
+    private long degreeOf(SearchContext ctx, String celebrityId) {
+        int hubDegree = graphStats.hubDegree(celebrityId);
+        if (hubDegree > 0) return hubDegree;
+        ctx.dbQueries++;
+        return celebrityTitleRepository.countByCelebrityId(celebrityId);
+    }
+
+    // Repository access for path searches; each call is one DB round trip on the request's budget
+    private List<String> neighborsOf(SearchContext ctx, String celebrityId) {
+        List<String> cached = neighborCache.getIfPresent(celebrityId);
+        if (cached != null) {
+            return cached;
         }
-        if (!connectingTitleNames.isEmpty()) {
-            pathResult += "\nMOVIE_TITLES:" + String.join(",", connectingTitleNames);
+        // Loaded outside the cache's compute lock: a slow query must not block other keys
+        ctx.dbQueries++;
+        List<String> neighbors = CompactIdList.of("nm", celebrityTitleRepository.findConnectedCelebrityIds(celebrityId));
+        if (neighborCacheBytes > 0 && readiness.isDataLoaded()) {
+            neighborCache.put(celebrityId, neighbors);
         }
+        return neighbors;
+    }
 
-        return List.of(pathResult);
+    // Compact, so shared titles are a sorted int intersection rather than List.contains per title
+    private List<String> titlesOf(SearchContext ctx, String celebrityId) {
+        ctx.dbQueries++;
+        return CompactIdList.of("tt", celebrityTitleRepository.findTitleIdsByCelebrityId(celebrityId));
+    }
+
+    private Optional<Celebrity> celebrity(SearchContext ctx, String celebrityId) {
+        ctx.dbQueries++;
+        return celebrityRepository.findById(celebrityId);
+    }
+
+    private Optional<Title> title(SearchContext ctx, String titleId) {
+        ctx.dbQueries++;
+        return titleRepository.findById(titleId);
     }
     
     
     public List<Celebrity> searchCelebrities(String query) {
         // Check cache first
-        String cacheKey = query.toLowerCase().trim();
+        String cacheKey = query.toLowerCase(Locale.ROOT).trim();
         List<Celebrity> cached = searchCache.getIfPresent(cacheKey);
         if (cached != null) {
             return cached;
@@ -341,8 +859,10 @@ public class DatabaseGraphService {
         var page = org.springframework.data.domain.PageRequest.of(0, 10);
         List<Celebrity> results = celebrityRepository.findByNameStartingWithIgnoreCaseOrderByNameAsc(query, page).getContent();
         
-        // Cache and return results
-        searchCache.put(cacheKey, results);
+        // Cache and return results (not while loading: the table is still filling up)
+        if (readiness.isDataLoaded()) {
+            searchCache.put(cacheKey, results);
+        }
         return results;
     }
 }
@@ -0,0 +1,163 @@
+package com.example.service;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Identifies the dataset the API answers from, so path and suggestion responses can carry
+ * ETags that stay valid until the data changes. They are weak: within one version the same
+ * request may be answered by the database BFS (up to five paths) or the in-memory graph
+ * (possibly fewer), so bodies are equivalent but not byte-identical. A new version is recorded in
+ * dataset_version whenever the loader or the pre-built restore writes the data; instances
+ * sharing the database read the same row, so their ETags agree. When the in-memory graph is
+ * built from data whose fingerprint differs from the one the row was claimed by (an import
+ * outside the loader followed by an admin reload), a new version is recorded as well. Without a
+ * database the version is the graph's fingerprint, which instances built from the same file share.
+ */
+@Service
+public class DatasetVersionService {
+
+    @Autowired(required = false)
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private InMemoryGraphService inMemoryGraph;
+
+    private volatile String version;
+
+    @PostConstruct
+    void followGraphSwaps() {
+        inMemoryGraph.onSwap(next -> matchGraph(next.graph().fingerprint()));
+    }
+
+    /** The current version, or null until one is recorded or read back. */
+    public String current() {
+        return version;
+    }
+
+    /**
+     * A weak ETag for a response derived from the current dataset and {@code request}
+     * (the normalized parameters and representation), or null while there is no version.
+     */
+    public String etag(Object... request) {
+        String v = version;
+        return v == null ? null : etag(v, request);
+    }
+
+    /**
+     * The tag is a digest of a canonical rendering of the request (enums by name, collections
+     * joined in order), so it depends only on the values: every instance and every restart
+     * derives the same tag for the same version and request.
+     */
+    static String etag(String version, Object... request) {
+        StringBuilder canonical = new StringBuilder(version);
+        for (Object part : request) {
+            canonical.append('\u001f');
+            if (part instanceof Enum<?> e) {
+                canonical.append(e.name());
+            } else if (part instanceof Collection<?> values) {
+                canonical.append(String.join("\u001e", values.stream().map(String::valueOf).toList()));
+            } else if (part != null) {
+                canonical.append(part);
+            }
+        }
+        byte[] digest = sha256().digest(canonical.toString().getBytes(StandardCharsets.UTF_8));
+        return "W/\"" + version + "-" + HexFormat.of().formatHex(digest, 0, 16) + "\"";
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /** Reads the stored version, recording one if this database predates them. Called by warm-up. */
+    public void loadOrCreate() {
+        if (jdbcTemplate == null) return;
+        try {
+            ensureTable();
+            List<String> stored = jdbcTemplate.queryForList(
+                    "SELECT version FROM dataset_version ORDER BY recorded_at DESC LIMIT 1", String.class);
+            if (!stored.isEmpty()) {
+                version = stored.get(0);
+                System.out.println("🏷️ Dataset version " + version);
+                return;
+            }
+            insert("database", null);
+        } catch (Exception e) {
+            System.err.println("⚠️ Dataset version unavailable, responses are sent without ETags: " + e.getMessage());
+        }
+    }
+
+    /** Called once the loader or the restore has written a new dataset. */
+    void record(String source) {
+        if (jdbcTemplate == null) return;
+        try {
+            ensureTable();
+            insert(source, null);
+        } catch (Exception e) {
+            System.err.println("⚠️ Could not store dataset version: " + e.getMessage());
+        }
+    }
+
+    // The first graph built from a version claims it; a graph with other data gets a new version
+    private synchronized void matchGraph(long fingerprint) {
+        if (jdbcTemplate == null) {
+            version = Long.toUnsignedString(fingerprint, 36);
+            System.out.println("🏷️ Dataset version " + version + " (graph fingerprint)");
+            return;
+        }
+        try {
+            ensureTable();
+            List<Map<String, Object>> stored = jdbcTemplate.queryForList(
+                    "SELECT id, version, graph_fingerprint FROM dataset_version ORDER BY recorded_at DESC LIMIT 1");
+            if (stored.isEmpty()) {
+                insert("graph", fingerprint);
+                return;
+            }
+            Map<String, Object> row = stored.get(0);
+            Long claimed = (Long) row.get("graph_fingerprint");
+            if (claimed == null) {
+                jdbcTemplate.update("UPDATE dataset_version SET graph_fingerprint = ? WHERE id = ?", fingerprint, row.get("id"));
+                version = (String) row.get("version");
+            } else if (claimed == fingerprint) {
+                // Another instance may have recorded it first
+                version = (String) row.get("version");
+            } else {
+                insert("graph", fingerprint);
+            }
+        } catch (Exception e) {
+            System.err.println("⚠️ Could not match the dataset version to the graph: " + e.getMessage());
+        }
+    }
+
+    private void insert(String source, Long fingerprint) {
+        // Base 36 time plus a random suffix: short, and distinct across instances recording at once
+        String next = Long.toString(System.currentTimeMillis(), 36)
+                + Integer.toString(ThreadLocalRandom.current().nextInt(36 * 36 * 36 * 36), 36);
+        jdbcTemplate.update("DELETE FROM dataset_version");
+        jdbcTemplate.update("INSERT INTO dataset_version (version, recorded_at, source, graph_fingerprint) VALUES (?, ?, ?, ?)",
+                next, Timestamp.from(Instant.now()), source, fingerprint);
+        version = next;
+        System.out.println("🏷️ Recorded dataset version " + next + " (" + source + ")");
+    }
+
+    private void ensureTable() {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS dataset_version (id BIGSERIAL PRIMARY KEY, version TEXT NOT NULL, recorded_at TIMESTAMPTZ NOT NULL, source TEXT NOT NULL, graph_fingerprint BIGINT)");
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Exact count of nodes per degree, summarized into percentiles and power-of-two buckets.
+ * Fed either one node at a time by the CSV loader or as (degree, count) rows from SQL.
+ */
+final class DegreeHistogram {
+    private long[] counts = new long[64];
+    private int maxDegree = -1;
+
+    void add(int degree) {
+        add(degree, 1);
+    }
+
+    void add(int degree, long nodes) {
+        if (nodes <= 0) return;
+        if (degree >= counts.length) {
+            counts = Arrays.copyOf(counts, Math.max(degree + 1, counts.length * 2));
+        }
+        counts[degree] += nodes;
+        if (degree > maxDegree) maxDegree = degree;
+    }
+
+    GraphStats.DegreeSummary summary() {
+        long nodes = 0;
+        long degreeSum = 0;
+        int min = -1;
+        for (int d = 0; d <= maxDegree; d++) {
+            if (counts[d] == 0) continue;
+            if (min < 0) min = d;
+            nodes += counts[d];
+            degreeSum += d * counts[d];
+        }
+        if (nodes == 0) {
+            return new GraphStats.DegreeSummary(0, 0, 0, 0, 0, 0, 0, 0, List.of());
+        }
+        return new GraphStats.DegreeSummary(nodes, min, maxDegree, (double) degreeSum / nodes,
+                percentile(nodes, 0.50), percentile(nodes, 0.90), percentile(nodes, 0.99), percentile(nodes, 0.999),
+                buckets());
+    }
+
+    private int percentile(long nodes, double q) {
+        long rank = (long) Math.ceil(q * nodes);
+        long seen = 0;
+        for (int d = 0; d <= maxDegree; d++) {
+            seen += counts[d];
+            if (seen >= rank) return d;
+        }
+        return maxDegree;
+    }
+
+    // [0], [1], [2-3], [4-7], ... so the long tail stays readable
+    private List<GraphStats.Bucket> buckets() {
+        List<GraphStats.Bucket> buckets = new ArrayList<>();
+        if (counts[0] > 0) buckets.add(new GraphStats.Bucket(0, 0, counts[0]));
+        for (int from = 1; from <= maxDegree; from *= 2) {
+            int to = Math.min(maxDegree, from * 2 - 1);
+            long n = 0;
+            for (int d = from; d <= to; d++) n += counts[d];
+            if (n > 0) buckets.add(new GraphStats.Bucket(from, to, n));
+        }
+        return buckets;
+    }
+}
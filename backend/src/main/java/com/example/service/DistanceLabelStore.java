@@ -0,0 +1,110 @@
+package com.example.service;
+
+import com.example.graph.CelebrityGraph;
+import com.example.graph.DistanceLabels;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Keeps the last built {@link DistanceLabels} with the dataset, tagged with the fingerprint of
+ * the graph they were built from: in graph_distance_labels, or in the standalone profile in
+ * distance-labels.bin.gz next to cast.csv.gz. A restart on unchanged data reads them back
+ * instead of running the labeling again.
+ */
+@Component
+public class DistanceLabelStore {
+
+    @Autowired(required = false)
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired(required = false)
+    private StandaloneDataset standalone;
+
+    /** The stored labels when they were built from this graph, else null. */
+    DistanceLabels load(CelebrityGraph graph) {
+        try {
+            if (standalone != null) {
+                try (InputStream file = Files.newInputStream(file())) {
+                    return read(file, graph);
+                } catch (NoSuchFileException e) {
+                    return null;
+                }
+            }
+            if (jdbcTemplate == null) return null;
+            ensureTable();
+            List<byte[]> stored = jdbcTemplate.queryForList(
+                    "SELECT data FROM graph_distance_labels WHERE graph_fingerprint = ? ORDER BY computed_at DESC LIMIT 1",
+                    byte[].class, graph.fingerprint());
+            return stored.isEmpty() ? null : read(new ByteArrayInputStream(stored.get(0)), graph);
+        } catch (Exception e) {
+            System.err.println("⚠️ Stored distance labels unusable: " + e.getMessage());
+            return null;
+        }
+    }
+
+    void save(CelebrityGraph graph, DistanceLabels labels) {
+        try {
+            if (standalone != null) {
+                Path target = file();
+                Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+                try (OutputStream file = Files.newOutputStream(temp)) {
+                    write(file, graph, labels);
+                }
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                return;
+            }
+            if (jdbcTemplate == null) return;
+            ensureTable();
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            write(bytes, graph, labels);
+            jdbcTemplate.update("DELETE FROM graph_distance_labels");
+            jdbcTemplate.update("INSERT INTO graph_distance_labels (computed_at, graph_fingerprint, entries, data) VALUES (?, ?, ?, ?)",
+                    Timestamp.from(Instant.now()), graph.fingerprint(), labels.entries(), bytes.toByteArray());
+        } catch (Exception e) {
+            System.err.println("⚠️ Could not store distance labels: " + e.getMessage());
+        }
+    }
+
+    private Path file() {
+        return standalone.file().resolveSibling("distance-labels.bin.gz");
+    }
+
+    // The file has no table column to hold the fingerprint, so both formats lead with it
+    private static DistanceLabels read(InputStream raw, CelebrityGraph graph) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(raw, 1 << 16), 1 << 16))) {
+            if (in.readLong() != graph.fingerprint()) return null;
+            return DistanceLabels.readFrom(in, graph);
+        }
+    }
+
+    private static void write(OutputStream raw, CelebrityGraph graph, DistanceLabels labels) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(raw, 1 << 16), 1 << 16))) {
+            out.writeLong(graph.fingerprint());
+            labels.writeTo(out);
+        }
+    }
+
+    private void ensureTable() {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS graph_distance_labels (id BIGSERIAL PRIMARY KEY, computed_at TIMESTAMPTZ NOT NULL, graph_fingerprint BIGINT NOT NULL, entries BIGINT NOT NULL, data BYTEA NOT NULL)");
+    }
+}
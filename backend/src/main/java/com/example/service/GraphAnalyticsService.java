@@ -0,0 +1,231 @@
+package com.example.service;
+
+import com.example.graph.CelebrityGraph;
+import com.example.graph.MultiSourceBfs;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Batch "six degrees" statistics over the in-memory graph. A job samples source celebrities
+ * (those with at least one title), runs them through {@link MultiSourceBfs} 64 at a time on
+ * all cores, and stores the resulting {@link SeparationStats} in graph_analytics, plus
+ * GRAPH_ANALYTICS_FILE as JSON when set; without a database only the latest result is kept,
+ * in memory. Jobs run one at a time on a background thread.
+ */
+@Service
+public class GraphAnalyticsService {
+    private static final int PERIPHERAL = 10;
+
+    private final int defaultSources = Integer.parseInt(System.getenv().getOrDefault("GRAPH_ANALYTICS_SOURCES", "1024"));
+    private final String outputFile = System.getenv().getOrDefault("GRAPH_ANALYTICS_FILE", "");
+
+    @Autowired
+    private InMemoryGraphService inMemoryGraph;
+
+    @Autowired(required = false)
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "graph-analytics");
+        t.setDaemon(true);
+        return t;
+    });
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile double progress = -1;
+    private volatile String lastRun;
+    private volatile SeparationStats latest; // only kept without a database
+
+    /**
+     * Starts a job over {@code sources} sampled celebrities (GRAPH_ANALYTICS_SOURCES when null),
+     * with a random seed unless one is given. False when the in-memory graph is not built yet
+     * or a job is already running.
+     */
+    public boolean start(Integer sources, Long seed) {
+        if (!inMemoryGraph.isEnabled() || !running.compareAndSet(false, true)) return false;
+        GraphVersion version = inMemoryGraph.acquire();
+        if (version == null) {
+            running.set(false);
+            return false;
+        }
+        int count = Math.max(1, sources != null ? sources : defaultSources);
+        long actualSeed = seed != null ? seed : System.nanoTime();
+        progress = 0;
+        executor.submit(() -> {
+            try {
+                SeparationStats stats = run(version, count, actualSeed);
+                save(stats);
+                lastRun = "finished: " + stats.sources() + " sources in " + stats.elapsedMillis() / 1000 + "s";
+            } catch (Throwable t) {
+                lastRun = "failed: " + t.getClass().getSimpleName() + ": " + t.getMessage();
+                System.err.println("❌ Graph analytics failed: " + t.getMessage());
+                t.printStackTrace();
+            } finally {
+                version.release();
+                progress = -1;
+                running.set(false);
+            }
+        });
+        return true;
+    }
+
+    /** Job state and the latest stored result, if any. */
+    public Map<String, Object> status() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("running", running.get());
+        if (progress >= 0) status.put("progress", Math.round(progress * 100) / 100.0);
+        if (lastRun != null) status.put("lastRun", lastRun);
+        if (jdbcTemplate == null) {
+            if (latest != null) status.put("latest", latest);
+            return status;
+        }
+        try {
+            ensureTable();
+            List<String> stored = jdbcTemplate.queryForList(
+                    "SELECT stats FROM graph_analytics ORDER BY computed_at DESC LIMIT 1", String.class);
+            if (!stored.isEmpty()) status.put("latest", objectMapper.readTree(stored.get(0)));
+        } catch (Exception e) {
+            status.put("latestError", e.getMessage());
+        }
+        return status;
+    }
+
+    private SeparationStats run(GraphVersion version, int count, long seed) {
+        long start = System.currentTimeMillis();
+        CelebrityGraph graph = version.graph();
+        int[] sources = sample(graph, count, seed);
+        MultiSourceBfs bfs = new MultiSourceBfs(graph);
+        System.out.println("📐 Separation analytics: " + sources.length + " sources over graph v" + version.version()
+                + ", ~" + bfs.estimatedBytes() / (1024 * 1024) + " MB of BFS state");
+
+        long[] separations = new long[0];
+        int[] reached = new int[sources.length];
+        long[] distanceSums = new long[sources.length];
+        int[] eccentricity = new int[sources.length];
+        for (int from = 0; from < sources.length; from += 64) {
+            int[] batch = Arrays.copyOfRange(sources, from, Math.min(sources.length, from + 64));
+            MultiSourceBfs.Result result = bfs.run(batch);
+            if (result.distances().length > separations.length) separations = Arrays.copyOf(separations, result.distances().length);
+            for (int d = 1; d < result.distances().length; d++) separations[d] += result.distances()[d];
+            System.arraycopy(result.reached(), 0, reached, from, batch.length);
+            System.arraycopy(result.distanceSums(), 0, distanceSums, from, batch.length);
+            System.arraycopy(result.eccentricity(), 0, eccentricity, from, batch.length);
+            progress = (double) (from + batch.length) / sources.length;
+        }
+
+        long pairs = 0;
+        long sum = 0;
+        for (int d = 1; d < separations.length; d++) {
+            pairs += separations[d];
+            sum += d * separations[d];
+        }
+        List<SeparationStats.Count> separationCounts = new ArrayList<>();
+        for (int d = 1; d < separations.length; d++) separationCounts.add(new SeparationStats.Count(d, separations[d]));
+
+        int maxEccentricity = Arrays.stream(eccentricity).max().orElse(0);
+        long[] eccentricityCounts = new long[maxEccentricity + 1];
+        double reachedFraction = 0;
+        for (int i = 0; i < sources.length; i++) {
+            eccentricityCounts[eccentricity[i]]++;
+            reachedFraction += (double) reached[i] / Math.max(1, graph.celebrityCount() - 1);
+        }
+        List<SeparationStats.Count> eccentricityList = new ArrayList<>();
+        for (int e = 0; e <= maxEccentricity; e++) {
+            if (eccentricityCounts[e] > 0) eccentricityList.add(new SeparationStats.Count(e, eccentricityCounts[e]));
+        }
+        List<SeparationStats.Peripheral> peripheral = new ArrayList<>();
+        Integer[] order = new Integer[sources.length];
+        for (int i = 0; i < order.length; i++) order[i] = i;
+        Arrays.sort(order, Comparator.comparingInt((Integer i) -> eccentricity[i]).reversed());
+        for (int i = 0; i < Math.min(PERIPHERAL, order.length); i++) {
+            int s = order[i];
+            peripheral.add(new SeparationStats.Peripheral(graph.celebrityId(sources[s]), eccentricity[s],
+                    reached[s] == 0 ? 0 : (double) distanceSums[s] / reached[s]));
+        }
+
+        SeparationStats stats = new SeparationStats(version.version(), sources.length, seed, pairs,
+                pairs == 0 ? 0 : (double) sum / pairs, percentile(separations, pairs, 0.5), percentile(separations, pairs, 0.9),
+                reachedFraction / Math.max(1, sources.length),
+                Arrays.stream(eccentricity).average().orElse(0), percentile(eccentricityCounts, sources.length, 0.5),
+                maxEccentricity, separationCounts, eccentricityList, peripheral,
+                System.currentTimeMillis() - start, Instant.now());
+        System.out.println("📐 Separation analytics: average " + Math.round(stats.averageSeparation() * 100) / 100.0
+                + " hops, effective diameter " + stats.effectiveDiameter() + ", max eccentricity " + maxEccentricity
+                + " in " + stats.elapsedMillis() / 1000 + "s");
+        return stats;
+    }
+
+    // Distinct celebrities with at least one title; everyone when fewer are asked for than exist
+    private static int[] sample(CelebrityGraph graph, int count, long seed) {
+        int[] linked = new int[graph.celebrityCount()];
+        int n = 0;
+        for (int c = 0; c < graph.celebrityCount(); c++) {
+            if (graph.degree(c) > 0) linked[n++] = c;
+        }
+        count = Math.min(count, n);
+        SplittableRandom random = new SplittableRandom(seed);
+        // Partial Fisher-Yates: the first count slots end up a uniform sample
+        for (int i = 0; i < count; i++) {
+            int j = i + random.nextInt(n - i);
+            int swap = linked[i];
+            linked[i] = linked[j];
+            linked[j] = swap;
+        }
+        return Arrays.copyOf(linked, count);
+    }
+
+    // Smallest distance at or below which the given fraction of the counted items lie
+    private static int percentile(long[] counts, long total, double fraction) {
+        long seen = 0;
+        for (int d = 0; d < counts.length; d++) {
+            seen += counts[d];
+            if (total > 0 && seen >= fraction * total) return d;
+        }
+        return counts.length - 1;
+    }
+
+    private void save(SeparationStats stats) throws Exception {
+        String json = objectMapper.writeValueAsString(stats);
+        if (jdbcTemplate == null) {
+            latest = stats;
+        } else {
+            ensureTable();
+            jdbcTemplate.update("INSERT INTO graph_analytics (computed_at, graph_version, sources, stats) VALUES (?, ?, ?, ?)",
+                    Timestamp.from(stats.computedAt()), stats.graphVersion(), stats.sources(), json);
+        }
+        if (!outputFile.isEmpty()) {
+            Files.writeString(Path.of(outputFile), objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(stats));
+        }
+    }
+
+    private void ensureTable() {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS graph_analytics (id BIGSERIAL PRIMARY KEY, computed_at TIMESTAMPTZ NOT NULL, graph_version BIGINT NOT NULL, sources INT NOT NULL, stats TEXT NOT NULL)");
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        executor.shutdownNow();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+}
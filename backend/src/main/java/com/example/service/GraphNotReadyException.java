@@ -0,0 +1,18 @@
+package com.example.service;
+
+/**
+ * Thrown when a request needs the full graph while the background warm-up is still loading it.
+ * Mapped to a 503 with a Retry-After based on the warm-up ETA.
+ */
+public class GraphNotReadyException extends RuntimeException {
+    private final long retryAfterSeconds;
+
+    public GraphNotReadyException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.service;
+
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Where the background warm-up is: the current phase, its progress and an ETA.
+ * Backs {@code /api/graph-status} and the {@code graph} health indicator, which the
+ * readiness probe ({@code /actuator/health/readiness}) includes, so orchestrators only
+ * route traffic to instances that finished warming up.
+ */
+@Component("graph")
+public class GraphReadiness implements HealthIndicator {
+
+    public enum Phase {
+        STARTING("starting"),
+        LOADING_DATA("loading_data"),
+        COMPUTING_STATS("computing_stats"),
+        BUILDING_GRAPH("building_graph"),
+        PREWARMING_CACHES("prewarming_caches"),
+        READY("ready"),
+        FAILED("failed");
+
+        private final String label;
+
+        Phase(String label) { this.label = label; }
+    }
+
+    private final long startedAt = System.currentTimeMillis();
+    private volatile Phase phase = Phase.STARTING;
+    private volatile long phaseStartedAt = startedAt;
+    private volatile double progress = -1; // fraction of the current phase, -1 when unknown
+    private volatile String detail;
+    // Set only when the load step completes, so a warm-up that fails part-way through loading never counts as loaded
+    private volatile boolean dataLoaded;
+
+    void enter(Phase next) {
+        enter(next, null);
+    }
+
+    void enter(Phase next, String detail) {
+        this.phaseStartedAt = System.currentTimeMillis();
+        this.progress = -1;
+        this.detail = detail;
+        this.phase = next;
+        System.out.println("Warm-up phase: " + next.label + (detail != null ? " (" + detail + ")" : ""));
+    }
+
+    void dataLoaded() {
+        this.dataLoaded = true;
+    }
+
+    void detail(String detail) {
+        this.detail = detail;
+    }
+
+    /** Progress of the current phase, 0..1. */
+    void progress(double fraction) {
+        this.progress = Math.max(0, Math.min(1, fraction));
+    }
+
+    public Phase phase() {
+        return phase;
+    }
+
+    public boolean isReady() {
+        return phase == Phase.READY;
+    }
+
+    /**
+     * True once the database holds the full graph, even if stats are still being computed or a
+     * later phase failed; false after a failed or unfinished load.
+     */
+    public boolean isDataLoaded() {
+        return dataLoaded;
+    }
+
+    /** Seconds until the current phase is expected to finish, or -1 when there is no estimate yet. */
+    public long etaSeconds() {
+        double p = progress;
+        if (p < 0.01 || p >= 1) return -1;
+        long elapsed = System.currentTimeMillis() - phaseStartedAt;
+        return Math.round(elapsed * (1 - p) / p / 1000.0);
+    }
+
+    public Map<String, Object> status() {
+        Phase current = phase;
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("status", current == Phase.READY ? "ready" : current == Phase.FAILED ? "failed" : "loading");
+        status.put("building", current != Phase.READY && current != Phase.FAILED);
+        status.put("phase", current.label);
+        if (progress >= 0) status.put("percent", Math.round(progress * 1000) / 10.0);
+        long eta = etaSeconds();
+        if (eta >= 0) status.put("etaSeconds", eta);
+        if (detail != null) status.put("detail", detail);
+        status.put("elapsedSeconds", (System.currentTimeMillis() - startedAt) / 1000);
+        return status;
+    }
+
+    @Override
+    public Health health() {
+        Health.Builder builder = isReady() ? Health.up() : Health.outOfService();
+        return builder.withDetails(status()).build();
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.service;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Snapshot of the celebrity/title graph: sizes, the celebrity degree (titles per celebrity)
+ * and title cast-size distributions, the biggest hubs and the largest casts. Computed once
+ * by the loader or from the database and persisted in the graph_stats table.
+ */
+public record GraphStats(
+        long celebrities,
+        long titles,
+        long edges,
+        DegreeSummary celebrityDegree,
+        DegreeSummary titleCastSize,
+        List<Hub> topHubs,
+        List<LargeTitle> largestTitles,
+        Instant computedAt,
+        String source) {
+
+    public record DegreeSummary(long nodes, int min, int max, double mean,
+                                int p50, int p90, int p99, int p999, List<Bucket> buckets) {}
+
+    /** {@code count} nodes have a degree between {@code from} and {@code to}, inclusive. */
+    public record Bucket(int from, int to, long count) {}
+
+    public record Hub(String id, String name, int degree) {}
+
+    public record LargeTitle(String id, String name, int castSize) {}
+}
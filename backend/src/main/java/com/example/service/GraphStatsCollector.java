@@ -0,0 +1,79 @@
+package com.example.service;
+
+import java.util.*;
+
+/**
+ * Accumulates graph statistics while the CSV loader streams cast.csv.gz, so the snapshot
+ * comes out of the same pass that inserts the rows. The per-celebrity degree map doubles
+ * as the loader's "seen celebrities" set.
+ */
+final class GraphStatsCollector {
+    private final int topN;
+    private final Map<String, Integer> celebrityDegrees = new HashMap<>();
+    private final DegreeHistogram castSizes = new DegreeHistogram();
+    private final PriorityQueue<GraphStats.LargeTitle> largestTitles =
+            new PriorityQueue<>(Comparator.comparingInt(GraphStats.LargeTitle::castSize));
+    private long titles;
+    private long edges;
+
+    GraphStatsCollector(int topN) {
+        this.topN = topN;
+    }
+
+    /** Counts one cast credit; returns true the first time the celebrity is seen. */
+    boolean addCredit(String celebrityId) {
+        edges++;
+        return celebrityDegrees.merge(celebrityId, 1, Integer::sum) == 1;
+    }
+
+    void addTitle(String titleId, String titleName, int castSize) {
+        titles++;
+        castSizes.add(castSize);
+        if (largestTitles.size() < topN || castSize > largestTitles.peek().castSize()) {
+            largestTitles.offer(new GraphStats.LargeTitle(titleId, titleName, castSize));
+            if (largestTitles.size() > topN) largestTitles.poll();
+        }
+    }
+
+    int celebrityCount() {
+        return celebrityDegrees.size();
+    }
+
+    long titleCount() {
+        return titles;
+    }
+
+    DegreeHistogram celebrityDegreeHistogram() {
+        DegreeHistogram histogram = new DegreeHistogram();
+        for (int degree : celebrityDegrees.values()) histogram.add(degree);
+        return histogram;
+    }
+
+    DegreeHistogram castSizeHistogram() {
+        return castSizes;
+    }
+
+    long edgeCount() {
+        return edges;
+    }
+
+    /** The {@code n} highest-degree celebrities as (id, degree), highest first. */
+    List<Map.Entry<String, Integer>> topCelebrities(int n) {
+        PriorityQueue<Map.Entry<String, Integer>> heap = new PriorityQueue<>(Map.Entry.comparingByValue());
+        for (Map.Entry<String, Integer> e : celebrityDegrees.entrySet()) {
+            if (heap.size() < n || e.getValue() > heap.peek().getValue()) {
+                heap.offer(Map.entry(e.getKey(), e.getValue()));
+                if (heap.size() > n) heap.poll();
+            }
+        }
+        List<Map.Entry<String, Integer>> top = new ArrayList<>(heap);
+        top.sort(Map.Entry.<String, Integer>comparingByValue().reversed());
+        return top;
+    }
+
+    List<GraphStats.LargeTitle> largestTitles() {
+        List<GraphStats.LargeTitle> top = new ArrayList<>(largestTitles);
+        top.sort(Comparator.comparingInt(GraphStats.LargeTitle::castSize).reversed());
+        return top;
+    }
+}
@@ -0,0 +1,226 @@
+package com.example.service;
+
+import com.example.graph.CelebrityGraph;
+import com.example.graph.NameStore;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.*;
+
+/**
+ * Holds the current {@link GraphStats} snapshot. The snapshot is written by the CSV loader,
+ * or computed once from the database when none is stored, and persisted in graph_stats so
+ * later restarts just read it back. Without a database (the standalone profile) it is computed
+ * from each in-memory graph the service swaps in. {@code /api/database-stats} serves a pre-rendered copy,
+ * and the path search uses its hub degrees and mean degree to decide which frontier to expand.
+ */
+@Service
+public class GraphStatsService {
+    // Hubs kept for the search heuristics; the endpoint shows the first topN of them
+    private final int hubCount = Integer.parseInt(System.getenv().getOrDefault("GRAPH_STATS_HUBS", "1000"));
+    private final int topN = Integer.parseInt(System.getenv().getOrDefault("GRAPH_STATS_TOP_N", "25"));
+    private final boolean forceRefresh = Boolean.parseBoolean(System.getenv().getOrDefault("GRAPH_STATS_REFRESH", "false"));
+
+    @Autowired(required = false)
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private volatile GraphStats stats;
+    private volatile String responseJson;
+    private volatile Map<String, Integer> hubDegrees = Map.of();
+    private volatile int meanDegree = 1;
+
+    /** Loads the persisted snapshot, computing and storing one from the database if there is none. */
+    public void loadOrCompute() {
+        if (stats != null && !forceRefresh) return;
+        if (jdbcTemplate == null) return; // computed from the graph once it is built
+        try {
+            ensureTable();
+            if (!forceRefresh) {
+                List<String> stored = jdbcTemplate.queryForList(
+                        "SELECT stats FROM graph_stats ORDER BY computed_at DESC LIMIT 1", String.class);
+                if (!stored.isEmpty()) {
+                    publish(objectMapper.readValue(stored.get(0), GraphStats.class));
+                    System.out.println("📊 Graph stats loaded (computed " + stats.computedAt() + " by " + stats.source() + ")");
+                    return;
+                }
+            }
+            long start = System.currentTimeMillis();
+            System.out.println("📊 Computing graph stats from the database...");
+            save(computeFromDatabase());
+            System.out.println("📊 Graph stats computed in " + (System.currentTimeMillis() - start) / 1000 + "s");
+        } catch (Exception e) {
+            System.err.println("⚠️ Graph stats unavailable: " + e.getMessage());
+        }
+    }
+
+    /** Recomputes and stores the snapshot from the database, e.g. after the graph was reloaded. */
+    void recompute() {
+        if (jdbcTemplate == null) return;
+        try {
+            ensureTable();
+            save(computeFromDatabase());
+            System.out.println("📊 Graph stats recomputed");
+        } catch (Exception e) {
+            System.err.println("⚠️ Graph stats unavailable: " + e.getMessage());
+        }
+    }
+
+    /** Called by the CSV loader once its pass over cast.csv.gz is complete. */
+    void record(GraphStatsCollector collector) {
+        try {
+            ensureTable();
+            DegreeHistogram degrees = collector.celebrityDegreeHistogram();
+            List<GraphStats.Hub> hubs = withNames(collector.topCelebrities(hubCount));
+            save(new GraphStats(collector.celebrityCount(), collector.titleCount(), collector.edgeCount(),
+                    degrees.summary(), collector.castSizeHistogram().summary(), hubs,
+                    collector.largestTitles(), Instant.now(), "loader"));
+        } catch (Exception e) {
+            System.err.println("⚠️ Could not store graph stats: " + e.getMessage());
+        }
+    }
+
+    /** Computes the snapshot from an in-memory graph, for the standalone profile. */
+    void record(CelebrityGraph graph, NameStore celebrityNames, NameStore titleNames) {
+        try {
+            if (jdbcTemplate != null) ensureTable();
+            DegreeHistogram degrees = new DegreeHistogram();
+            long[] byDegree = new long[graph.celebrityCount()];
+            for (int c = 0; c < byDegree.length; c++) {
+                degrees.add(graph.degree(c));
+                byDegree[c] = ((long) graph.degree(c) << 32) | c;
+            }
+            DegreeHistogram castSizes = new DegreeHistogram();
+            long[] bySize = new long[graph.titleCount()];
+            for (int t = 0; t < bySize.length; t++) {
+                castSizes.add(graph.castSize(t));
+                bySize[t] = ((long) graph.castSize(t) << 32) | t;
+            }
+            Arrays.sort(byDegree);
+            Arrays.sort(bySize);
+            List<GraphStats.Hub> hubs = new ArrayList<>();
+            for (int i = byDegree.length - 1; i >= 0 && hubs.size() < hubCount; i--) {
+                int c = (int) byDegree[i];
+                hubs.add(new GraphStats.Hub(graph.celebrityId(c), celebrityNames.name(c), graph.degree(c)));
+            }
+            List<GraphStats.LargeTitle> largest = new ArrayList<>();
+            for (int i = bySize.length - 1; i >= 0 && largest.size() < topN; i--) {
+                int t = (int) bySize[i];
+                largest.add(new GraphStats.LargeTitle(graph.titleId(t), titleNames.name(t), graph.castSize(t)));
+            }
+            save(new GraphStats(graph.celebrityCount(), graph.titleCount(), graph.edgeCount(),
+                    degrees.summary(), castSizes.summary(), hubs, largest, Instant.now(), "graph"));
+            System.out.println("📊 Graph stats computed from the in-memory graph");
+        } catch (Exception e) {
+            System.err.println("⚠️ Graph stats unavailable: " + e.getMessage());
+        }
+    }
+
+    public Optional<GraphStats> current() {
+        return Optional.ofNullable(stats);
+    }
+
+    /** The snapshot as JSON, top lists cut to GRAPH_STATS_TOP_N; null until one is loaded. */
+    public String responseJson() {
+        return responseJson;
+    }
+
+    /** Degree of a top hub, or 0 when the celebrity is not one (or no snapshot is loaded). */
+    public int hubDegree(String celebrityId) {
+        return hubDegrees.getOrDefault(celebrityId, 0);
+    }
+
+    /** Expected number of titles for a celebrity: its hub degree, else the mean degree (1 without a snapshot). */
+    public int estimatedDegree(String celebrityId) {
+        return hubDegrees.getOrDefault(celebrityId, meanDegree);
+    }
+
+    private GraphStats computeFromDatabase() {
+        long celebrities = count("SELECT COUNT(*) FROM celebrities");
+        long titles = count("SELECT COUNT(*) FROM titles");
+
+        DegreeHistogram degrees = histogram("SELECT degree, COUNT(*) FROM (SELECT COUNT(*) AS degree FROM celebrity_titles GROUP BY celebrity_id) d GROUP BY degree");
+        DegreeHistogram castSizes = histogram("SELECT degree, COUNT(*) FROM (SELECT COUNT(*) AS degree FROM celebrity_titles GROUP BY title_id) d GROUP BY degree");
+        GraphStats.DegreeSummary linked = degrees.summary();
+        degrees.add(0, celebrities - linked.nodes()); // celebrities without any title
+        long edges = Math.round(linked.mean() * linked.nodes());
+
+        List<GraphStats.Hub> hubs = jdbcTemplate.query("""
+                SELECT d.celebrity_id, c.name, d.degree
+                FROM (SELECT celebrity_id, COUNT(*) AS degree FROM celebrity_titles
+                      GROUP BY celebrity_id ORDER BY degree DESC LIMIT ?) d
+                LEFT JOIN celebrities c ON c.id = d.celebrity_id
+                ORDER BY d.degree DESC
+                """, (rs, i) -> new GraphStats.Hub(rs.getString(1), rs.getString(2), rs.getInt(3)), hubCount);
+        List<GraphStats.LargeTitle> largest = jdbcTemplate.query("""
+                SELECT d.title_id, t.name, d.cast_size
+                FROM (SELECT title_id, COUNT(*) AS cast_size FROM celebrity_titles
+                      GROUP BY title_id ORDER BY cast_size DESC LIMIT ?) d
+                LEFT JOIN titles t ON t.id = d.title_id
+                ORDER BY d.cast_size DESC
+                """, (rs, i) -> new GraphStats.LargeTitle(rs.getString(1), rs.getString(2), rs.getInt(3)), topN);
+
+        return new GraphStats(celebrities, titles, edges, degrees.summary(), castSizes.summary(),
+                hubs, largest, Instant.now(), "database");
+    }
+
+    private List<GraphStats.Hub> withNames(List<Map.Entry<String, Integer>> top) {
+        Map<String, String> names = new HashMap<>();
+        if (!top.isEmpty()) {
+            String placeholders = String.join(",", Collections.nCopies(top.size(), "?"));
+            jdbcTemplate.query("SELECT id, name FROM celebrities WHERE id IN (" + placeholders + ")",
+                    rs -> { names.put(rs.getString(1), rs.getString(2)); },
+                    top.stream().map(Map.Entry::getKey).toArray());
+        }
+        List<GraphStats.Hub> hubs = new ArrayList<>(top.size());
+        for (Map.Entry<String, Integer> e : top) {
+            hubs.add(new GraphStats.Hub(e.getKey(), names.get(e.getKey()), e.getValue()));
+        }
+        return hubs;
+    }
+
+    private DegreeHistogram histogram(String sql) {
+        DegreeHistogram histogram = new DegreeHistogram();
+        jdbcTemplate.query(sql, rs -> { histogram.add(rs.getInt(1), rs.getLong(2)); });
+        return histogram;
+    }
+
+    private long count(String sql) {
+        Long n = jdbcTemplate.queryForObject(sql, Long.class);
+        return n == null ? 0 : n;
+    }
+
+    private void ensureTable() {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS graph_stats (id BIGSERIAL PRIMARY KEY, computed_at TIMESTAMPTZ NOT NULL, source TEXT NOT NULL, stats TEXT NOT NULL)");
+    }
+
+    private void save(GraphStats snapshot) throws Exception {
+        if (jdbcTemplate != null) {
+            String json = objectMapper.writeValueAsString(snapshot);
+            jdbcTemplate.update("DELETE FROM graph_stats");
+            jdbcTemplate.update("INSERT INTO graph_stats (computed_at, source, stats) VALUES (?, ?, ?)",
+                    Timestamp.from(snapshot.computedAt()), snapshot.source(), json);
+        }
+        publish(snapshot);
+    }
+
+    private void publish(GraphStats snapshot) throws Exception {
+        Map<String, Integer> hubs = new HashMap<>();
+        for (GraphStats.Hub hub : snapshot.topHubs()) hubs.put(hub.id(), hub.degree());
+        GraphStats view = new GraphStats(snapshot.celebrities(), snapshot.titles(), snapshot.edges(),
+                snapshot.celebrityDegree(), snapshot.titleCastSize(),
+                snapshot.topHubs().subList(0, Math.min(topN, snapshot.topHubs().size())),
+                snapshot.largestTitles().subList(0, Math.min(topN, snapshot.largestTitles().size())),
+                snapshot.computedAt(), snapshot.source());
+        this.hubDegrees = hubs;
+        this.meanDegree = Math.max(1, (int) Math.ceil(snapshot.celebrityDegree().mean()));
+        this.responseJson = objectMapper.writeValueAsString(view);
+        this.stats = snapshot;
+    }
+}
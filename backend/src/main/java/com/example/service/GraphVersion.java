@@ -0,0 +1,168 @@
+package com.example.service;
+
+import com.example.graph.CelebrityGraph;
+import com.example.graph.DistanceLabels;
+import com.example.graph.HopPathFinder;
+import com.example.graph.HubTable;
+import com.example.graph.NameIndex;
+import com.example.graph.NameStore;
+import com.example.graph.WeightedPathFinder;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * One immutable, fully built generation of the in-memory graph: adjacency, finders and names;
+ * only the hub table is attached later, once its background build finishes.
+ * Reference counted: the service holds one reference while the version is current and every
+ * search holds one while it runs, so a hot swap lets in-flight searches finish on the version
+ * they started with. When the last reference is released the contents are dropped, and the
+ * heap and direct buffers go back to the collector even if a stale GraphVersion is still
+ * referenced somewhere.
+ */
+public final class GraphVersion {
+    private final long version;
+    private final long builtAt = System.currentTimeMillis();
+    private final AtomicInteger references = new AtomicInteger(1);
+    private final Runnable onRelease;
+    private CelebrityGraph graph;
+    private HopPathFinder hopFinder;
+    private WeightedPathFinder weightedFinder;
+    private NameStore celebrityNames;
+    private NameStore titleNames;
+    private NameIndex celebrityIndex; // null unless the version serves name searches (standalone)
+    private volatile HubTable hubTable; // attached once built, after the version is already serving
+    private DistanceLabels distanceLabels; // null unless GRAPH_DISTANCE_LABELS is on and they fit
+    private AtomicIntegerArray endpointHits; // per celebrity; null unless hubs are ranked by queries
+
+    GraphVersion(long version, HopPathFinder hopFinder, WeightedPathFinder weightedFinder,
+                 NameStore celebrityNames, NameStore titleNames, NameIndex celebrityIndex, HubTable hubTable,
+                 DistanceLabels distanceLabels, AtomicIntegerArray endpointHits, Runnable onRelease) {
+        this.version = version;
+        this.graph = hopFinder.graph();
+        this.hopFinder = hopFinder;
+        this.weightedFinder = weightedFinder;
+        this.celebrityNames = celebrityNames;
+        this.titleNames = titleNames;
+        this.celebrityIndex = celebrityIndex;
+        this.hubTable = hubTable;
+        this.distanceLabels = distanceLabels;
+        this.endpointHits = endpointHits;
+        this.onRelease = onRelease;
+    }
+
+    public long version() {
+        return version;
+    }
+
+    public long builtAt() {
+        return builtAt;
+    }
+
+    public CelebrityGraph graph() {
+        checkLive();
+        return graph;
+    }
+
+    public HopPathFinder hopFinder() {
+        checkLive();
+        return hopFinder;
+    }
+
+    public WeightedPathFinder weightedFinder() {
+        checkLive();
+        return weightedFinder;
+    }
+
+    public NameStore celebrityNames() {
+        checkLive();
+        return celebrityNames;
+    }
+
+    public NameStore titleNames() {
+        checkLive();
+        return titleNames;
+    }
+
+    /** Celebrity names in search order, or null when name searches go to the database. */
+    public NameIndex celebrityIndex() {
+        checkLive();
+        return celebrityIndex;
+    }
+
+    /** Distances and next hops among the hub celebrities, or null while it is being built or when GRAPH_HUB_TABLE_SIZE is 0. */
+    public HubTable hubTable() {
+        checkLive();
+        return hubTable;
+    }
+
+    /** Exact distances between any two celebrities, or null when the version has no labels. */
+    public DistanceLabels distanceLabels() {
+        checkLive();
+        return distanceLabels;
+    }
+
+    /** Counts a search endpoint, for ranking the next version's hubs by how often they are queried. */
+    public void recordEndpoint(int celebrity) {
+        AtomicIntegerArray hits = endpointHits;
+        if (hits != null) hits.incrementAndGet(celebrity);
+    }
+
+    /** Called by the background build with a reference held, so never after the contents are dropped. */
+    void attachHubTable(HubTable table) {
+        checkLive();
+        hubTable = table;
+    }
+
+    AtomicIntegerArray endpointHits() {
+        checkLive();
+        return endpointHits;
+    }
+
+    /** Heap held by the adjacency arrays, landmark and hub tables, distance labels and the name index. */
+    public long heapBytes() {
+        checkLive();
+        return graph.estimatedBytes() + weightedFinder.landmarks().estimatedBytes()
+                + (celebrityIndex != null ? celebrityIndex.estimatedBytes() : 0)
+                + (hubTable != null ? hubTable.estimatedBytes() : 0)
+                + (distanceLabels != null ? distanceLabels.estimatedBytes() : 0)
+                + (endpointHits != null ? 4L * endpointHits.length() : 0);
+    }
+
+    public long offHeapBytes() {
+        checkLive();
+        return celebrityNames.offHeapBytes() + titleNames.offHeapBytes();
+    }
+
+    /** Takes a reference; false when the version was already released and must not be used. */
+    boolean retain() {
+        int count;
+        do {
+            count = references.get();
+            if (count == 0) return false;
+        } while (!references.compareAndSet(count, count + 1));
+        return true;
+    }
+
+    /** Drops a reference; the last one frees the contents. */
+    public void release() {
+        int count = references.decrementAndGet();
+        if (count < 0) throw new IllegalStateException("Graph version " + version + " released too often");
+        if (count == 0) {
+            graph = null;
+            hopFinder = null;
+            weightedFinder = null;
+            celebrityNames = null;
+            titleNames = null;
+            celebrityIndex = null;
+            hubTable = null;
+            distanceLabels = null;
+            endpointHits = null;
+            onRelease.run();
+        }
+    }
+
+    private void checkLive() {
+        if (references.get() == 0) throw new IllegalStateException("Graph version " + version + " was released");
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs data loading and warm-up on a single background thread after startup, so the
+ * web server answers health checks immediately and {@link GraphReadiness} reports
+ * progress while the graph is prepared.
+ */
+@Service
+public class GraphWarmupService {
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "graph-warmup");
+        t.setDaemon(true);
+        return t;
+    });
+
+    // Absent in the standalone profile, where the graph is built from cast.csv.gz directly
+    @Autowired(required = false)
+    private DataLoadingService dataLoadingService;
+
+    @Autowired
+    private GraphStatsService graphStatsService;
+
+    @Autowired
+    private DatasetVersionService datasetVersion;
+
+    @Autowired
+    private InMemoryGraphService inMemoryGraph;
+
+    @Autowired
+    private QueryLogService queryLog;
+
+    @Autowired
+    private GraphReadiness readiness;
+
+    @Autowired
+    private PhotoService photoService;
+
+    public void start() {
+        executor.submit(this::warmUp);
+    }
+
+    private void warmUp() {
+        long start = System.currentTimeMillis();
+        try {
+            if (dataLoadingService != null) {
+                readiness.enter(GraphReadiness.Phase.LOADING_DATA);
+                dataLoadingService.loadDataFromFilesIfNeeded();
+                System.out.println("Data loading check completed!");
+            }
+            readiness.dataLoaded();
+            photoService.loadPersistedPhotos();
+
+            readiness.enter(GraphReadiness.Phase.COMPUTING_STATS);
+            datasetVersion.loadOrCreate();
+            graphStatsService.loadOrCompute();
+
+            if (inMemoryGraph.isEnabled()) {
+                readiness.enter(GraphReadiness.Phase.BUILDING_GRAPH);
+                inMemoryGraph.build();
+            }
+
+            // Searches already run; readiness waits until the most frequent queries have filled the caches
+            if (queryLog.isEnabled()) {
+                readiness.enter(GraphReadiness.Phase.PREWARMING_CACHES);
+                queryLog.prewarm(readiness::progress);
+            }
+
+            readiness.enter(GraphReadiness.Phase.READY);
+            System.out.println("Graph warm-up finished in " + (System.currentTimeMillis() - start) / 1000 + "s");
+        } catch (Throwable t) {
+            readiness.enter(GraphReadiness.Phase.FAILED, t.getClass().getSimpleName() + ": " + t.getMessage());
+            System.err.println("❌ Graph warm-up failed: " + t.getMessage());
+            t.printStackTrace();
+        }
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        executor.shutdownNow();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.service;
+
+import com.example.graph.CelebrityGraph;
+import com.example.graph.HubTable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Keeps the last built {@link HubTable} with the dataset, tagged with the fingerprint of the
+ * graph it was built from: in graph_hub_table, or in the standalone profile in hub-table.bin.gz
+ * next to cast.csv.gz. A restart on unchanged data reads it back instead of running a BFS per hub.
+ */
+@Component
+public class HubTableStore {
+
+    @Autowired(required = false)
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired(required = false)
+    private StandaloneDataset standalone;
+
+    /** The stored table when it was built from this graph, else null. */
+    HubTable load(CelebrityGraph graph) {
+        try {
+            if (standalone != null) {
+                try (InputStream file = Files.newInputStream(file())) {
+                    return read(file, graph);
+                } catch (NoSuchFileException e) {
+                    return null;
+                }
+            }
+            if (jdbcTemplate == null) return null;
+            ensureTable();
+            List<byte[]> stored = jdbcTemplate.queryForList(
+                    "SELECT data FROM graph_hub_table WHERE graph_fingerprint = ? ORDER BY computed_at DESC LIMIT 1",
+                    byte[].class, graph.fingerprint());
+            return stored.isEmpty() ? null : read(new ByteArrayInputStream(stored.get(0)), graph);
+        } catch (Exception e) {
+            System.err.println("⚠️ Stored hub table unusable: " + e.getMessage());
+            return null;
+        }
+    }
+
+    void save(CelebrityGraph graph, HubTable table) {
+        try {
+            if (standalone != null) {
+                Path target = file();
+                Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+                try (OutputStream file = Files.newOutputStream(temp)) {
+                    write(file, graph, table);
+                }
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                return;
+            }
+            if (jdbcTemplate == null) return;
+            ensureTable();
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            write(bytes, graph, table);
+            jdbcTemplate.update("DELETE FROM graph_hub_table");
+            jdbcTemplate.update("INSERT INTO graph_hub_table (computed_at, graph_fingerprint, hubs, data) VALUES (?, ?, ?, ?)",
+                    Timestamp.from(Instant.now()), graph.fingerprint(), table.size(), bytes.toByteArray());
+        } catch (Exception e) {
+            System.err.println("⚠️ Could not store hub table: " + e.getMessage());
+        }
+    }
+
+    private Path file() {
+        return standalone.file().resolveSibling("hub-table.bin.gz");
+    }
+
+    // Same layout as DistanceLabelStore: the fingerprint leads, as the file has no column for it
+    private static HubTable read(InputStream raw, CelebrityGraph graph) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(raw, 1 << 16), 1 << 16))) {
+            if (in.readLong() != graph.fingerprint()) return null;
+            return HubTable.readFrom(in, graph);
+        }
+    }
+
+    private static void write(OutputStream raw, CelebrityGraph graph, HubTable table) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(raw, 1 << 16), 1 << 16))) {
+            out.writeLong(graph.fingerprint());
+            table.writeTo(out);
+        }
+    }
+
+    private void ensureTable() {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS graph_hub_table (id BIGSERIAL PRIMARY KEY, computed_at TIMESTAMPTZ NOT NULL, graph_fingerprint BIGINT NOT NULL, hubs INT NOT NULL, data BYTEA NOT NULL)");
+    }
+}
@@ -0,0 +1,468 @@
+package com.example.service;
+
+import com.example.graph.CastCsvReader;
+import com.example.graph.CelebrityGraph;
+import com.example.graph.DistanceLabels;
+import com.example.graph.HopPathFinder;
+import com.example.graph.HubTable;
+import com.example.graph.Landmarks;
+import com.example.graph.NameIndex;
+import com.example.graph.NameStore;
+import com.example.graph.SortedIntersection;
+import com.example.graph.WeightedPathFinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.DoubleConsumer;
+import java.util.function.ToLongFunction;
+
+/**
+ * Optional in-memory copy of the celebrity/title graph (GRAPH_IN_MEMORY=true), built from
+ * celebrity_titles during warm-up together with landmark distances and off-heap display
+ * names, and a distance/next-hop table among the hub celebrities. Once loaded it backs both the hop-count BFS and the weighted "strongest connection"
+ * search, including exclusion-constrained queries, and paths are named without touching the
+ * database; until then BFS queries the database. In the standalone profile it is always on and
+ * is built from cast.csv.gz instead, with a name index that serves the repositories.
+ *
+ * <p>The serving graph is a {@link GraphVersion} behind an atomic reference. {@link #reload()}
+ * rebuilds it from the database on a background thread while the current version keeps
+ * serving, validates it and swaps it in; searches {@link #acquire()} a version and release it
+ * when done, so the old one is freed once the last in-flight search finishes.
+ */
+@Service
+public class InMemoryGraphService {
+    private final boolean enabled = Boolean.parseBoolean(System.getenv().getOrDefault("GRAPH_IN_MEMORY", "false"));
+    private final int landmarkCount = Integer.parseInt(System.getenv().getOrDefault("GRAPH_LANDMARKS", "4"));
+    // A reload that would drop more than this fraction of the links is assumed to read a broken dataset
+    private final double maxShrink = Double.parseDouble(System.getenv().getOrDefault("GRAPH_RELOAD_MAX_SHRINK", "0.5"));
+    // Hubs get all-pairs distances and next hops (5 bytes per pair), built after the version is serving; "queries" ranks them by how often the previous version was asked
+    private final int hubTableSize = Integer.parseInt(System.getenv().getOrDefault("GRAPH_HUB_TABLE_SIZE", "1000"));
+    // Pruned landmark labels for exact distances; opt-in, as their size depends on how hub-centred the graph is
+    private final boolean distanceLabelsEnabled = Boolean.parseBoolean(System.getenv().getOrDefault("GRAPH_DISTANCE_LABELS", "false"));
+    private final long distanceLabelsMaxBytes = Long.parseLong(System.getenv().getOrDefault("GRAPH_DISTANCE_LABELS_MAX_MB", "512")) * 1024 * 1024;
+    private final boolean hubsByQueries = "queries".equalsIgnoreCase(System.getenv().getOrDefault("GRAPH_HUB_RANKING", "degree"));
+    // SIMD shared-title intersection; needs --add-modules jdk.incubator.vector in JAVA_OPTS
+    private final boolean simdIntersection = Boolean.parseBoolean(System.getenv().getOrDefault("GRAPH_SIMD_INTERSECTION", "false"));
+    // Cap on per-search scratch, split between the hop and weighted finders; at least one set each, further searches wait
+    private final long scratchPoolBytes = Long.parseLong(System.getenv().getOrDefault("GRAPH_SCRATCH_POOL_MB", "256")) * 1024 * 1024;
+    // Delta-varint adjacency rows: about half the heap of plain int rows, for some decoding per row read
+    private final boolean compressedAdjacency = Boolean.parseBoolean(System.getenv().getOrDefault("GRAPH_COMPRESSED_ADJACENCY", "false"));
+
+    @Autowired(required = false)
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired(required = false)
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired(required = false)
+    private StandaloneDataset standalone;
+
+    @Autowired
+    private GraphStatsService graphStats;
+
+    @Autowired
+    private GraphReadiness readiness;
+
+    @Autowired
+    private SearchMetrics searchMetrics;
+
+    @Autowired
+    private HubTableStore hubTableStore;
+
+    @Autowired
+    private DistanceLabelStore distanceLabelStore;
+
+    private final AtomicReference<GraphVersion> current = new AtomicReference<>();
+    private final AtomicLong versions = new AtomicLong();
+    private final AtomicInteger liveVersions = new AtomicInteger();
+    private final List<Consumer<GraphVersion>> swapListeners = new CopyOnWriteArrayList<>();
+
+    private final ExecutorService reloader = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "graph-reload");
+        t.setDaemon(true);
+        return t;
+    });
+    // One BFS per hub is too slow for the readiness path, so new versions serve without the table until it is built
+    private final ExecutorService hubTableBuilder = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "hub-table-build");
+        t.setDaemon(true);
+        return t;
+    });
+    private final AtomicBoolean reloading = new AtomicBoolean();
+    private volatile double reloadProgress = -1;
+    private volatile String reloadDetail;
+    private volatile String lastReload;
+
+    @PostConstruct
+    void configureIntersection() {
+        if (simdIntersection && !SortedIntersection.enableVector()) {
+            System.out.println("⚠️ GRAPH_SIMD_INTERSECTION needs --add-modules jdk.incubator.vector; using the scalar kernels");
+        }
+    }
+
+    @PostConstruct
+    void registerMetrics() {
+        searchMetrics.registry().gauge("celebrity.graph.memory.bytes", this, service -> service.measure(GraphVersion::heapBytes));
+        searchMetrics.registry().gauge("celebrity.graph.names.offheap.bytes", this, service -> service.measure(GraphVersion::offHeapBytes));
+        searchMetrics.registry().gauge("celebrity.graph.version", this, service -> service.measure(GraphVersion::version));
+        // More than one while searches still hold a version that has been swapped out
+        searchMetrics.registry().gauge("celebrity.graph.versions.live", liveVersions);
+    }
+
+    private double measure(ToLongFunction<GraphVersion> metric) {
+        GraphVersion version = acquire();
+        if (version == null) return 0;
+        try {
+            return metric.applyAsLong(version);
+        } finally {
+            version.release();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled || standalone != null;
+    }
+
+    /**
+     * The current version with a reference taken, or null until warm-up has built one. Callers
+     * must {@link GraphVersion#release()} it, typically in a finally block.
+     */
+    public GraphVersion acquire() {
+        while (true) {
+            GraphVersion version = current.get();
+            if (version == null || version.retain()) return version;
+            // Swapped out and released between the read and the retain; the reference now holds its successor
+        }
+    }
+
+    /** Called after every swap with the new version, e.g. to drop caches built from the old data. */
+    public void onSwap(Consumer<GraphVersion> listener) {
+        swapListeners.add(listener);
+    }
+
+    /** Builds the first version. Called by the warm-up thread. */
+    void build() throws Exception {
+        GraphVersion first = load(readiness::progress, readiness::detail, null);
+        publish(first);
+        if (standalone != null) recordStats(first);
+    }
+
+    /**
+     * Starts rebuilding the graph from its source in the background. Returns false when
+     * the graph is disabled, not built yet or already reloading.
+     */
+    public boolean reload() {
+        if (!isEnabled() || current.get() == null || !reloading.compareAndSet(false, true)) return false;
+        reloadProgress = 0;
+        reloadDetail = "reading " + source();
+        reloader.submit(() -> {
+            long start = System.currentTimeMillis();
+            GraphVersion previous = acquire();
+            try {
+                GraphVersion next = load(fraction -> reloadProgress = fraction, detail -> reloadDetail = detail, previous);
+                String problem = validate(next);
+                if (problem != null) {
+                    next.release();
+                    lastReload = "rejected: " + problem;
+                    System.out.println("⚠️ Graph reload rejected: " + problem);
+                } else {
+                    publish(next);
+                    // The stats snapshot describes the old data too; it only feeds frontier estimates, so it can lag the swap
+                    reloadDetail = "recomputing graph stats";
+                    recordStats(next);
+                    lastReload = "swapped in version " + next.version() + " after " + (System.currentTimeMillis() - start) / 1000 + "s";
+                }
+            } catch (Throwable t) {
+                lastReload = "failed: " + t.getClass().getSimpleName() + ": " + t.getMessage();
+                System.err.println("❌ Graph reload failed: " + t.getMessage());
+                t.printStackTrace();
+            } finally {
+                if (previous != null) previous.release();
+                reloadProgress = -1;
+                reloadDetail = null;
+                reloading.set(false);
+            }
+        });
+        return true;
+    }
+
+    /** Current version, reload state and how many versions are still held. */
+    public Map<String, Object> status() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("enabled", isEnabled());
+        status.put("source", source());
+        GraphVersion version = acquire();
+        if (version != null) {
+            try {
+                status.put("version", version.version());
+                status.put("builtAt", version.builtAt());
+                status.put("celebrities", version.graph().celebrityCount());
+                status.put("titles", version.graph().titleCount());
+                status.put("links", version.graph().edgeCount());
+                status.put("adjacency", version.graph().compressed() ? "delta-varint" : "int");
+                status.put("graphBytes", version.graph().estimatedBytes());
+                status.put("hubTableSize", version.hubTable() != null ? version.hubTable().size() : 0);
+                status.put("distanceLabelEntries", version.distanceLabels() != null ? version.distanceLabels().entries() : 0);
+            } finally {
+                version.release();
+            }
+        }
+        status.put("liveVersions", liveVersions.get());
+        status.put("reloading", reloading.get());
+        if (reloadProgress >= 0) status.put("reloadProgress", Math.round(reloadProgress * 100) / 100.0);
+        if (reloadDetail != null) status.put("reloadDetail", reloadDetail);
+        if (lastReload != null) status.put("lastReload", lastReload);
+        return status;
+    }
+
+    private String validate(GraphVersion next) {
+        CelebrityGraph graph = next.graph();
+        if (graph.celebrityCount() == 0 || graph.edgeCount() == 0) return "the new graph is empty";
+        GraphVersion old = acquire();
+        if (old == null) return null;
+        try {
+            long before = old.graph().edgeCount();
+            if (graph.edgeCount() < before * (1 - maxShrink)) {
+                return "links would shrink from " + before + " to " + graph.edgeCount() + " (GRAPH_RELOAD_MAX_SHRINK=" + maxShrink + ")";
+            }
+            return null;
+        } finally {
+            old.release();
+        }
+    }
+
+    private String source() {
+        return standalone != null ? standalone.file().toString() : "celebrity_titles";
+    }
+
+    private void recordStats(GraphVersion version) {
+        if (standalone != null) graphStats.record(version.graph(), version.celebrityNames(), version.titleNames());
+        else graphStats.recompute();
+    }
+
+    private void publish(GraphVersion next) {
+        GraphVersion old = current.getAndSet(next);
+        // In-flight searches keep their own references; the old version is freed after the last one
+        if (old != null) old.release();
+        swapListeners.forEach(listener -> listener.accept(next));
+    }
+
+    /**
+     * Reads the graph and names from the database or cast.csv.gz, computes landmarks and reads back
+     * the hub table, or schedules building it. {@code previous} supplies query counts for ranking hubs.
+     */
+    private GraphVersion load(DoubleConsumer progress, Consumer<String> detail, GraphVersion previous) throws Exception {
+        long start = System.currentTimeMillis();
+        detail.accept("reading " + source());
+        Source loaded = standalone != null ? loadFromFile(progress) : loadFromDatabase(progress, detail);
+        CelebrityGraph graph = loaded.graph();
+        NameStore celebrityNames = loaded.celebrityNames();
+        NameStore titleNames = loaded.titleNames();
+        NameIndex celebrityIndex = null;
+        if (standalone != null) {
+            // Without a database the repositories answer name searches from this index
+            detail.accept("indexing names");
+            celebrityIndex = NameIndex.build(celebrityNames);
+        }
+        progress.accept(0.8);
+
+        detail.accept("computing " + landmarkCount + " landmarks");
+        WeightedPathFinder dijkstra = new WeightedPathFinder(graph, Landmarks.none());
+        Landmarks landmarks = landmarkCount > 0 ? Landmarks.compute(dijkstra, landmarkCount) : Landmarks.none();
+        int weightedScratch = (int) Math.min(Integer.MAX_VALUE, scratchPoolBytes / 2 / WeightedPathFinder.scratchBytes(graph));
+        WeightedPathFinder weightedFinder = new WeightedPathFinder(graph, landmarks, weightedScratch);
+        progress.accept(0.9);
+
+        // Ranking by queries needs fresh counts, so only a degree-ranked table is read back
+        AtomicIntegerArray hits = hubsByQueries && previous != null ? previous.endpointHits() : null;
+        HubTable hubTable = hubTableSize > 0 && hits == null ? storedHubTable(graph, detail) : null;
+        DistanceLabels distanceLabels = distanceLabelsEnabled ? distanceLabels(graph, detail) : null;
+
+        long version = versions.incrementAndGet();
+        liveVersions.incrementAndGet();
+        AtomicIntegerArray endpointHits = hubsByQueries && hubTableSize > 0 ? new AtomicIntegerArray(graph.celebrityCount()) : null;
+        int hopScratch = (int) Math.min(Integer.MAX_VALUE, scratchPoolBytes / 2 / HopPathFinder.scratchBytes(graph));
+        GraphVersion built = new GraphVersion(version, new HopPathFinder(graph, hopScratch), weightedFinder, celebrityNames, titleNames,
+                celebrityIndex, hubTable, distanceLabels, endpointHits, () -> {
+            liveVersions.decrementAndGet();
+            System.out.println("♻️ Released in-memory graph version " + version);
+        });
+        System.out.println("🧠 In-memory graph v" + version + ": " + graph.celebrityCount() + " celebrities, " + graph.titleCount()
+                + " titles, " + graph.edgeCount() + " links, " + landmarks.count() + " landmarks, "
+                + (hubTable != null ? hubTable.size() : 0) + " hubs, "
+                + (distanceLabels != null ? distanceLabels.entries() : 0) + " distance label entries, ~"
+                + built.heapBytes() / (1024 * 1024) + " MB heap, ~"
+                + built.offHeapBytes() / (1024 * 1024) + " MB of names off-heap in "
+                + (System.currentTimeMillis() - start) / 1000 + "s");
+        if (hubTableSize > 0 && hubTable == null) {
+            CelebrityGraph previousGraph = hits != null ? previous.graph() : null;
+            hubTableBuilder.submit(() -> buildHubTable(built, hits, previousGraph));
+        }
+        return built;
+    }
+
+    /** Streams celebrity_titles into a {@link CelebrityGraph} and loads the names of its nodes. */
+    private Source loadFromDatabase(DoubleConsumer progress, Consumer<String> detail) {
+        long expected = graphStats.current().map(GraphStats::edges).orElse(0L);
+        CelebrityGraph.Builder builder = new CelebrityGraph.Builder();
+
+        // Postgres only streams with a fetch size inside a transaction; otherwise the whole table is buffered
+        JdbcTemplate streaming = new JdbcTemplate(jdbcTemplate.getDataSource());
+        streaming.setFetchSize(50_000);
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        readOnly.executeWithoutResult(status -> streaming.query("SELECT celebrity_id, title_id FROM celebrity_titles", rs -> {
+            builder.add(rs.getString(1), rs.getString(2));
+            if (expected > 0 && builder.size() % 500_000 == 0) {
+                progress.accept(0.7 * builder.size() / expected);
+            }
+        }));
+        if (builder.skipped() > 0) {
+            System.out.println("⚠️ In-memory graph: skipped " + builder.skipped() + " links with non-IMDb ids");
+        }
+        CelebrityGraph graph = builder.build(compressedAdjacency);
+        progress.accept(0.7);
+
+        // Only celebrities and titles that are in the graph get a dense id, and so a stored name
+        detail.accept("loading names");
+        NameStore.Builder celebrities = new NameStore.Builder(graph.celebrityCount());
+        NameStore.Builder titles = new NameStore.Builder(graph.titleCount());
+        readOnly.executeWithoutResult(status -> {
+            streaming.query("SELECT id, name FROM celebrities", rs -> {
+                int c = graph.celebrity(rs.getString(1));
+                if (c >= 0) celebrities.put(c, rs.getString(2));
+            });
+            progress.accept(0.75);
+            streaming.query("SELECT id, name FROM titles", rs -> {
+                int t = graph.title(rs.getString(1));
+                if (t >= 0) titles.put(t, rs.getString(2));
+            });
+        });
+        return new Source(graph, celebrities.build(), titles.build());
+    }
+
+    private Source loadFromFile(DoubleConsumer progress) throws IOException {
+        CastCsvReader.Dataset dataset = standalone.read(compressedAdjacency, fraction -> progress.accept(0.7 * fraction));
+        return new Source(dataset.graph(), dataset.celebrityNames(), dataset.titleNames());
+    }
+
+    private record Source(CelebrityGraph graph, NameStore celebrityNames, NameStore titleNames) {}
+
+    /** The stored table when it matches this graph and GRAPH_HUB_TABLE_SIZE, else null. */
+    private HubTable storedHubTable(CelebrityGraph graph, Consumer<String> detail) {
+        detail.accept("reading the stored hub table");
+        HubTable stored = hubTableStore.load(graph);
+        if (stored == null || stored.size() != Math.min(hubTableSize, graph.celebrityCount())) return null;
+        System.out.println("🗺️ Hub table read back: " + stored.size() + " hubs");
+        return stored;
+    }
+
+    /**
+     * Builds the hub table for a version that is already serving, stores it and attaches it. Does
+     * nothing once the version has been released, e.g. after a rejected reload or a quick swap.
+     */
+    private void buildHubTable(GraphVersion version, AtomicIntegerArray hits, CelebrityGraph previousGraph) {
+        if (!version.retain()) return;
+        try {
+            long start = System.currentTimeMillis();
+            CelebrityGraph graph = version.graph();
+            int[] hubs = hits != null ? mostQueried(graph, previousGraph, hits) : new int[0];
+            if (hubs.length < hubTableSize) hubs = withBestConnected(graph, hubs);
+            HubTable table = HubTable.build(graph, hubs);
+            hubTableStore.save(graph, table);
+            version.attachHubTable(table);
+            System.out.println("🗺️ Hub table built for v" + version.version() + ": " + table.size() + " hubs ("
+                    + (hits != null ? "by queries" : "by degree") + "), ~" + table.estimatedBytes() / (1024 * 1024) + " MB in "
+                    + (System.currentTimeMillis() - start) / 1000 + "s");
+        } catch (Throwable t) {
+            System.err.println("❌ Hub table build failed: " + t.getMessage());
+        } finally {
+            version.release();
+        }
+    }
+
+    /** The stored labels when they match this graph, else new ones, built in parallel and stored; null if over the size cap. */
+    private DistanceLabels distanceLabels(CelebrityGraph graph, Consumer<String> detail) {
+        detail.accept("reading the stored distance labels");
+        DistanceLabels stored = distanceLabelStore.load(graph);
+        if (stored != null) {
+            System.out.println("📏 Distance labels read back: " + stored.entries() + " entries");
+            return stored;
+        }
+        long start = System.currentTimeMillis();
+        detail.accept("building distance labels");
+        DistanceLabels labels = DistanceLabels.build(graph, distanceLabelsMaxBytes / 5);
+        if (labels == null) {
+            System.out.println("⚠️ Distance labels skipped: they would exceed GRAPH_DISTANCE_LABELS_MAX_MB ("
+                    + distanceLabelsMaxBytes / (1024 * 1024) + " MB)");
+            return null;
+        }
+        distanceLabelStore.save(graph, labels);
+        System.out.println("📏 Distance labels built: " + labels.entries() + " entries ("
+                + String.format("%.1f", (double) labels.entries() / Math.max(1, graph.celebrityCount())) + " per celebrity), ~"
+                + labels.estimatedBytes() / (1024 * 1024) + " MB in " + (System.currentTimeMillis() - start) / 1000 + "s");
+        return labels;
+    }
+
+    // Celebrities the previous version was queried for most, as ids in the new graph
+    private int[] mostQueried(CelebrityGraph graph, CelebrityGraph previousGraph, AtomicIntegerArray hits) {
+        long[] ranked = new long[hits.length()];
+        int count = 0;
+        for (int c = 0; c < hits.length(); c++) {
+            int h = hits.get(c);
+            if (h > 0) ranked[count++] = ((long) h << 32) | c;
+        }
+        Arrays.sort(ranked, 0, count);
+        int[] hubs = new int[Math.min(count, hubTableSize)];
+        int found = 0;
+        for (int i = count - 1; i >= 0 && found < hubs.length; i--) {
+            int c = graph.celebrity(previousGraph.celebrityId((int) ranked[i]));
+            if (c >= 0) hubs[found++] = c;
+        }
+        return Arrays.copyOf(hubs, found);
+    }
+
+    // Tops the chosen hubs up to GRAPH_HUB_TABLE_SIZE with the highest-degree celebrities
+    private int[] withBestConnected(CelebrityGraph graph, int[] chosen) {
+        long[] ranked = new long[graph.celebrityCount()];
+        for (int c = 0; c < ranked.length; c++) ranked[c] = ((long) graph.degree(c) << 32) | c;
+        Arrays.sort(ranked);
+        int[] hubs = Arrays.copyOf(chosen, Math.min(hubTableSize, ranked.length));
+        int found = chosen.length;
+        int[] sortedChosen = chosen.clone();
+        Arrays.sort(sortedChosen);
+        for (int i = ranked.length - 1; i >= 0 && found < hubs.length; i--) {
+            int c = (int) ranked[i];
+            if (Arrays.binarySearch(sortedChosen, c) < 0) hubs[found++] = c;
+        }
+        return Arrays.copyOf(hubs, found);
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        reloader.shutdownNow();
+        hubTableBuilder.shutdownNow();
+        reloader.awaitTermination(10, TimeUnit.SECONDS);
+        hubTableBuilder.awaitTermination(10, TimeUnit.SECONDS);
+    }
+}
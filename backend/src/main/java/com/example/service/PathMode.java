@@ -0,0 +1,25 @@
+package com.example.service;
+
+import java.util.Locale;
+
+/**
+ * How {@code /api/shortest-path} ranks paths: {@code bfs} returns the shortest paths by hop
+ * count, {@code weighted} the single path through the strongest ties (see
+ * {@link com.example.graph.WeightedPathFinder}), which needs the in-memory graph.
+ */
+public enum PathMode {
+    BFS, WEIGHTED;
+
+    public static PathMode parse(String value) {
+        if (value == null || value.isBlank()) return BFS;
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown path mode '" + value + "' (expected bfs or weighted)");
+        }
+    }
+
+    String tag() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.service;
+
+import java.util.List;
+
+/**
+ * Paths returned by a search together with how it ended. A timed-out search still
+ * carries whatever shortest paths it had reconstructed before the budget ran out.
+ */
+public record PathSearchResult(List<CelebrityPath> paths, SearchMetrics.Outcome outcome) {
+
+    /**
+     * The search stopped early, on its time budget or its visited cap, so an empty or short
+     * answer says nothing about the data and must not be cached.
+     */
+    public boolean partial() {
+        return outcome == SearchMetrics.Outcome.TIMED_OUT || outcome == SearchMetrics.Outcome.CAP_HIT;
+    }
+}
@@ -0,0 +1,165 @@
+package com.example.service;
+
+import com.example.entity.CelebrityPhoto;
+import com.example.repository.CelebrityPhotoRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.Counter;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Celebrity photo URLs, looked up on TMDB and cached. Found photos and "TMDB has no photo"
+ * answers expire on separate TTLs; both are written to the celebrity_photos table and
+ * reloaded by the background warm-up. Lookup errors are not cached. Concurrent lookups of the same id
+ * share one TMDB call.
+ */
+@Service
+public class PhotoService {
+    private final Duration photoTtl = Duration.ofMinutes(Long.parseLong(System.getenv().getOrDefault("PHOTO_CACHE_TTL_MINUTES", "10080")));
+    private final Duration missingTtl = Duration.ofMinutes(Long.parseLong(System.getenv().getOrDefault("PHOTO_NEGATIVE_TTL_MINUTES", "360")));
+    private final int maxSize = Integer.parseInt(System.getenv().getOrDefault("PHOTO_CACHE_MAX_SIZE", "50000"));
+    private final boolean persist = Boolean.parseBoolean(System.getenv().getOrDefault("PHOTO_CACHE_PERSIST", "true"));
+
+    /** A cached lookup result; an empty url means TMDB has no photo. */
+    private record CachedPhoto(String url, long fetchedAtMillis) {}
+
+    private final Cache<String, CachedPhoto> photoCache = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfter(Expiry.<String, CachedPhoto>writing((id, photo) -> remainingTtl(photo)))
+            .recordStats()
+            .build();
+    private final Map<String, CompletableFuture<String>> inFlight = new ConcurrentHashMap<>();
+
+    @Autowired
+    private TmdbClient tmdbClient;
+
+    // Absent without a database; lookups are then only cached in memory
+    @Autowired(required = false)
+    private CelebrityPhotoRepository photoRepository;
+
+    @Autowired
+    private SearchMetrics searchMetrics;
+
+    private Counter photoHits;
+    private Counter photoNegativeHits;
+    private Counter photoMisses;
+    private Counter photoErrors;
+
+    @PostConstruct
+    void init() {
+        searchMetrics.monitor(photoCache, "photoCache");
+        photoHits = searchMetrics.registry().counter("celebrity.photo.lookups", "result", "hit");
+        photoNegativeHits = searchMetrics.registry().counter("celebrity.photo.lookups", "result", "negative_hit");
+        photoMisses = searchMetrics.registry().counter("celebrity.photo.lookups", "result", "miss");
+        photoErrors = searchMetrics.registry().counter("celebrity.photo.lookups", "result", "error");
+    }
+
+    /**
+     * Prunes expired rows and fills the cache from celebrity_photos. Called by the warm-up thread,
+     * so startup doesn't wait on the database; lookups made meanwhile are kept over stored ones.
+     */
+    void loadPersistedPhotos() {
+        if (!persist || photoRepository == null) return;
+        try {
+            Instant now = Instant.now();
+            int pruned = photoRepository.deleteExpired(now.minus(photoTtl), now.minus(missingTtl));
+            Instant oldest = now.minus(photoTtl.compareTo(missingTtl) >= 0 ? photoTtl : missingTtl);
+            List<CelebrityPhoto> rows = photoRepository.findByFetchedAtAfterOrderByFetchedAtDesc(oldest, PageRequest.of(0, maxSize));
+            for (CelebrityPhoto row : rows) {
+                photoCache.asMap().putIfAbsent(row.getCelebrityId(), new CachedPhoto(row.getPhotoUrl(), row.getFetchedAt().toEpochMilli()));
+            }
+            System.out.println("Photo cache warmed with " + rows.size() + " persisted lookups (" + pruned + " expired rows pruned)");
+        } catch (Exception e) {
+            System.err.println("Could not load persisted photo cache: " + e.getMessage());
+        }
+    }
+
+    private Duration remainingTtl(CachedPhoto photo) {
+        Duration ttl = photo.url().isEmpty() ? missingTtl : photoTtl;
+        Duration age = Duration.ofMillis(System.currentTimeMillis() - photo.fetchedAtMillis());
+        return age.compareTo(ttl) >= 0 ? Duration.ZERO : ttl.minus(age);
+    }
+
+    public boolean isEnabled() {
+        return tmdbClient.isConfigured();
+    }
+
+    /** Completes with the photo URL, or "" when there is none or the lookup failed. Never completes exceptionally. */
+    public CompletableFuture<String> photoUrl(String celebrityId) {
+        String id = celebrityId.trim();
+        CachedPhoto cached = photoCache.getIfPresent(id);
+        if (cached != null) {
+            (cached.url().isEmpty() ? photoNegativeHits : photoHits).increment();
+            return CompletableFuture.completedFuture(cached.url());
+        }
+        photoMisses.increment();
+
+        CompletableFuture<String> created = new CompletableFuture<>();
+        CompletableFuture<String> existing = inFlight.putIfAbsent(id, created);
+        if (existing != null) {
+            return existing;
+        }
+        try {
+            tmdbClient.findProfilePhotoUrl(id).whenComplete((url, error) -> finish(id, created, url, error));
+        } catch (RuntimeException e) {
+            finish(id, created, null, e);
+        }
+        return created;
+    }
+
+    /**
+     * Photo URLs for many celebrities at once, keyed by id in request order. Duplicate ids
+     * are looked up once and cache misses are fetched in parallel.
+     */
+    public CompletableFuture<Map<String, String>> photoUrls(Collection<String> celebrityIds) {
+        Map<String, CompletableFuture<String>> lookups = new LinkedHashMap<>();
+        for (String celebrityId : celebrityIds) {
+            String id = celebrityId.trim();
+            if (!id.isEmpty()) {
+                lookups.computeIfAbsent(id, this::photoUrl);
+            }
+        }
+        return CompletableFuture.allOf(lookups.values().toArray(new CompletableFuture<?>[0])).thenApply(done -> {
+            Map<String, String> photos = new LinkedHashMap<>();
+            lookups.forEach((id, lookup) -> photos.put(id, lookup.join()));
+            return photos;
+        });
+    }
+
+    // Runs on the TMDB executor thread, so the table write stays off the request thread
+    private void finish(String id, CompletableFuture<String> lookup, String url, Throwable error) {
+        String result = "";
+        if (error != null) {
+            photoErrors.increment();
+            Throwable cause = error.getCause() != null ? error.getCause() : error;
+            System.err.println("Error fetching celebrity photo for ID " + id + ": " + cause.getMessage());
+        } else {
+            result = url == null ? "" : url;
+            remember(id, result);
+        }
+        inFlight.remove(id, lookup);
+        lookup.complete(result);
+    }
+
+    private void remember(String id, String url) {
+        long now = System.currentTimeMillis();
+        photoCache.put(id, new CachedPhoto(url, now));
+        if (persist && photoRepository != null) {
+            try {
+                photoRepository.save(new CelebrityPhoto(id, url, Instant.ofEpochMilli(now)));
+            } catch (Exception e) {
+                System.err.println("Could not persist photo lookup for ID " + id + ": " + e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package com.example.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.DoubleConsumer;
+
+/**
+ * Remembers what users ask for most, so a fresh instance can fill its caches before it reports
+ * ready instead of during its first hour of traffic. Suggestion prefixes, celebrities (path
+ * endpoints and photo lookups) and unconstrained path queries are counted with exponential
+ * decay, at most QUERY_LOG_MAX_ENTRIES of each kind, and saved to QUERY_LOG_FILE every minute
+ * and on shutdown. Nothing is counted unless QUERY_LOG_FILE is set. Warm-up reads the file back
+ * and, as its last phase, replays the top PREWARM_TOP entries of each kind through the services
+ * on PREWARM_CONCURRENCY threads.
+ */
+@Service
+public class QueryLogService {
+    private final String file = System.getenv().getOrDefault("QUERY_LOG_FILE", "");
+    private final double halfLifeMillis = Double.parseDouble(System.getenv().getOrDefault("QUERY_LOG_HALF_LIFE_HOURS", "24")) * 3_600_000;
+    private final int maxEntries = Integer.parseInt(System.getenv().getOrDefault("QUERY_LOG_MAX_ENTRIES", "1000"));
+    private final int prewarmTop = Integer.parseInt(System.getenv().getOrDefault("PREWARM_TOP", "100"));
+    // Below SEARCH_MAX_CONCURRENT, so traffic arriving during the replay still gets a search slot
+    private final int prewarmConcurrency = Integer.parseInt(System.getenv().getOrDefault("PREWARM_CONCURRENCY", "2"));
+    private final long prewarmTimeoutSeconds = Long.parseLong(System.getenv().getOrDefault("PREWARM_TIMEOUT_SECONDS", "120"));
+
+    @Autowired
+    private DatabaseGraphService graphService;
+
+    @Autowired
+    private PhotoService photoService;
+
+    enum Kind { PREFIX, CELEBRITY, PATH }
+
+    /** A decayed count as of {@code at}. */
+    private record Count(double value, long at) {}
+
+    private final Map<Kind, Map<String, Count>> counts = new EnumMap<>(Kind.class);
+
+    private final ScheduledExecutorService saver = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "query-log");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public QueryLogService() {
+        for (Kind kind : Kind.values()) counts.put(kind, new ConcurrentHashMap<>());
+    }
+
+    @PostConstruct
+    void start() {
+        if (!isEnabled()) return;
+        load();
+        saver.scheduleWithFixedDelay(this::save, 60, 60, TimeUnit.SECONDS);
+    }
+
+    public boolean isEnabled() {
+        return !file.isEmpty();
+    }
+
+    /** Counts an autocomplete query, keyed like the suggestion cache. */
+    public void recordSuggestion(String query) {
+        record(Kind.PREFIX, query.toLowerCase(Locale.ROOT).trim());
+    }
+
+    public void recordCelebrity(String celebrityId) {
+        record(Kind.CELEBRITY, celebrityId.trim());
+    }
+
+    public void recordPath(String id1, String id2, PathMode mode) {
+        if (id1.isBlank() || id2.isBlank()) return;
+        record(Kind.PATH, id1.trim() + "\t" + id2.trim() + "\t" + mode.tag());
+    }
+
+    private void record(Kind kind, String key) {
+        if (!isEnabled() || key.isEmpty() || key.indexOf('\n') >= 0 || key.indexOf('\r') >= 0
+                || (kind != Kind.PATH && key.indexOf('\t') >= 0)) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        Map<String, Count> map = counts.get(kind);
+        map.compute(key, (k, count) -> new Count(count == null ? 1 : decayed(count, now) + 1, now));
+        if (map.size() > 2 * maxEntries) prune(map, now);
+    }
+
+    private double decayed(Count count, long now) {
+        return count.value() * Math.pow(0.5, (now - count.at()) / halfLifeMillis);
+    }
+
+    // Keeps the maxEntries highest decayed counts; others may be counted meanwhile and survive until the next prune
+    private synchronized void prune(Map<String, Count> map, long now) {
+        if (map.size() <= 2 * maxEntries) return;
+        List<String> keep = top(map, maxEntries, now);
+        map.keySet().retainAll(new HashSet<>(keep));
+    }
+
+    private List<String> top(Map<String, Count> map, int n, long now) {
+        List<Map.Entry<String, Double>> ranked = new ArrayList<>(map.size());
+        map.forEach((key, count) -> ranked.add(Map.entry(key, decayed(count, now))));
+        ranked.sort(Map.Entry.<String, Double>comparingByValue().reversed());
+        List<String> keys = new ArrayList<>(Math.min(n, ranked.size()));
+        for (int i = 0; i < ranked.size() && i < n; i++) keys.add(ranked.get(i).getKey());
+        return keys;
+    }
+
+    /**
+     * Replays the top entries: suggestions fill the suggestion cache, celebrities the photo
+     * cache, and path queries the co-star cache (database BFS) and the JIT. Returns once all
+     * are done or after PREWARM_TIMEOUT_SECONDS. Called by the warm-up thread.
+     */
+    void prewarm(DoubleConsumer progress) {
+        long start = System.currentTimeMillis();
+        List<Runnable> tasks = new ArrayList<>();
+        List<String> prefixes = top(counts.get(Kind.PREFIX), prewarmTop, start);
+        List<String> celebrities = photoService.isEnabled() ? top(counts.get(Kind.CELEBRITY), prewarmTop, start) : List.of();
+        List<String> paths = top(counts.get(Kind.PATH), prewarmTop, start);
+        for (String prefix : prefixes) tasks.add(() -> graphService.searchCelebrities(prefix));
+        for (String id : celebrities) tasks.add(() -> photoService.photoUrl(id).join());
+        for (String path : paths) {
+            String[] parts = path.split("\t");
+            tasks.add(() -> graphService.findShortestPath(parts[0], parts[1], null, PathMode.parse(parts[2])));
+        }
+        if (tasks.isEmpty()) return;
+
+        ExecutorService workers = Executors.newFixedThreadPool(Math.max(1, prewarmConcurrency), r -> {
+            Thread t = new Thread(r, "cache-prewarm");
+            t.setDaemon(true);
+            return t;
+        });
+        AtomicInteger done = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        for (Runnable task : tasks) {
+            workers.submit(() -> {
+                try {
+                    task.run();
+                } catch (Exception e) {
+                    failed.incrementAndGet();
+                } finally {
+                    progress.accept((double) done.incrementAndGet() / tasks.size());
+                }
+            });
+        }
+        workers.shutdown();
+        boolean finished;
+        try {
+            finished = workers.awaitTermination(prewarmTimeoutSeconds, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            finished = false;
+        }
+        if (!finished) workers.shutdownNow();
+        System.out.println("🔥 Prewarmed " + done.get() + "/" + tasks.size() + " queries (" + prefixes.size() + " suggestions, "
+                + celebrities.size() + " photos, " + paths.size() + " paths, " + failed.get() + " failed) in "
+                + (System.currentTimeMillis() - start) / 1000 + "s" + (finished ? "" : ", stopped by PREWARM_TIMEOUT_SECONDS"));
+    }
+
+    // One line per entry: kind, count decayed to the save time, key (a path key is id1, id2, mode)
+    private synchronized void save() {
+        long now = System.currentTimeMillis();
+        Path target = Path.of(file);
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try (BufferedWriter out = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            out.write("# query log " + now + "\n");
+            for (Kind kind : Kind.values()) {
+                Map<String, Count> map = counts.get(kind);
+                for (String key : top(map, maxEntries, now)) {
+                    Count count = map.get(key);
+                    if (count == null) continue;
+                    double value = decayed(count, now);
+                    if (value < 0.01) break;
+                    out.write(kind.name().toLowerCase(Locale.ROOT) + "\t" + (float) value + "\t" + key + "\n");
+                }
+            }
+        } catch (Exception e) {
+            System.err.println("⚠️ Could not save the query log: " + e.getMessage());
+            return;
+        }
+        try {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (Exception e) {
+            System.err.println("⚠️ Could not save the query log: " + e.getMessage());
+        }
+    }
+
+    private void load() {
+        int entries = 0;
+        try (BufferedReader in = Files.newBufferedReader(Path.of(file), StandardCharsets.UTF_8)) {
+            String header = in.readLine();
+            if (header == null || !header.startsWith("# query log ")) return;
+            long savedAt = Long.parseLong(header.substring("# query log ".length()).trim());
+            String line;
+            while ((line = in.readLine()) != null) {
+                String[] fields = line.split("\t", 3);
+                if (fields.length < 3) continue;
+                try {
+                    Kind kind = Kind.valueOf(fields[0].toUpperCase(Locale.ROOT));
+                    if (kind == Kind.PATH && fields[2].split("\t").length != 3) continue;
+                    counts.get(kind).put(fields[2], new Count(Double.parseDouble(fields[1]), savedAt));
+                    entries++;
+                } catch (IllegalArgumentException ignored) {
+                    // A line from another version of the format
+                }
+            }
+            System.out.println("🗒️ Query log read back: " + entries + " entries from " + file);
+        } catch (NoSuchFileException e) {
+            System.out.println("🗒️ No query log at " + file + " yet; caches are not prewarmed on this start");
+        } catch (Exception e) {
+            System.err.println("⚠️ Could not read the query log: " + e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        saver.shutdownNow();
+        saver.awaitTermination(10, TimeUnit.SECONDS);
+        if (isEnabled()) save();
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.service;
+
+/**
+ * Per-request bookkeeping for one path search: how much work the BFS did, how many
+ * repository round trips it took, and the wall-clock deadline it must respect.
+ * Owned by a single request thread, so plain fields suffice.
+ */
+final class SearchContext {
+    final long startNanos = System.nanoTime();
+    final long deadlineNanos;
+    PathMode mode = PathMode.BFS;
+    int nodesExpanded;
+    int dbQueries;
+    int maxFrontier;
+    int depth = -1;      // hops in the shortest path found, -1 if none
+    boolean capHit;
+    boolean timedOut;
+
+    /** A context without a meaningful time budget (offline callers, benchmarks). */
+    SearchContext() {
+        this(24L * 60 * 60 * 1000);
+    }
+
+    SearchContext(long timeoutMillis) {
+        this.deadlineNanos = startNanos + timeoutMillis * 1_000_000L;
+    }
+
+    void observeFrontier(int size) {
+        if (size > maxFrontier) maxFrontier = size;
+    }
+
+    /** True once the time budget is spent or the request thread was interrupted; latches {@link #timedOut}. */
+    boolean expired() {
+        if (!timedOut && (System.nanoTime() - deadlineNanos > 0 || Thread.currentThread().isInterrupted())) {
+            timedOut = true;
+        }
+        return timedOut;
+    }
+
+    long remainingMillis() {
+        return Math.max(0, (deadlineNanos - System.nanoTime()) / 1_000_000L);
+    }
+}
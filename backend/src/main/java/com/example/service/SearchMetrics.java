@@ -0,0 +1,118 @@
+package com.example.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Micrometer meters for path searches and the service caches, exported through
+ * {@code /actuator/prometheus}. Latency is tagged by outcome so "no path" and
+ * "visited cap hit" searches don't skew the histogram for successful ones.
+ */
+@Component
+public class SearchMetrics {
+
+    public enum Outcome {
+        FOUND("found"), NO_PATH("no_path"), CAP_HIT("cap_hit"), TIMED_OUT("timeout");
+
+        private final String tag;
+
+        Outcome(String tag) { this.tag = tag; }
+    }
+
+    private final MeterRegistry registry;
+    private final Map<PathMode, Map<Outcome, Timer>> searchLatency = new EnumMap<>(PathMode.class);
+    private final DistributionSummary nodesExpanded;
+    private final DistributionSummary maxFrontier;
+    private final DistributionSummary depth;
+    private final DistributionSummary dbQueries;
+    private final Timer reconstruction;
+    private final Counter rejected;
+    private final Counter hubTableHits;
+    private final Counter unreachableSkips;
+
+    public SearchMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        for (PathMode mode : PathMode.values()) {
+            Map<Outcome, Timer> timers = new EnumMap<>(Outcome.class);
+            for (Outcome outcome : Outcome.values()) {
+                timers.put(outcome, Timer.builder("celebrity.path.search")
+                        .description("findShortestPath latency")
+                        .tag("outcome", outcome.tag)
+                        .tag("mode", mode.tag())
+                        .publishPercentileHistogram()
+                        .register(registry));
+            }
+            searchLatency.put(mode, timers);
+        }
+        this.nodesExpanded = DistributionSummary.builder("celebrity.path.nodes.expanded")
+                .description("Nodes dequeued and expanded per path search")
+                .publishPercentileHistogram()
+                .register(registry);
+        this.maxFrontier = DistributionSummary.builder("celebrity.path.frontier.max")
+                .description("Largest BFS queue size reached per path search")
+                .publishPercentileHistogram()
+                .register(registry);
+        this.depth = DistributionSummary.builder("celebrity.path.depth")
+                .description("Hops in the shortest path found")
+                .register(registry);
+        this.dbQueries = DistributionSummary.builder("celebrity.path.db.queries")
+                .description("Repository round trips per path search")
+                .publishPercentileHistogram()
+                .register(registry);
+        this.reconstruction = Timer.builder("celebrity.path.reconstruction")
+                .description("Time spent turning a meeting point into a named path")
+                .publishPercentileHistogram()
+                .register(registry);
+        this.rejected = Counter.builder("celebrity.path.rejected")
+                .description("Path searches turned away by the concurrency bulkhead")
+                .register(registry);
+        this.hubTableHits = Counter.builder("celebrity.path.hubtable.hits")
+                .description("Path searches answered from the hub table without a BFS")
+                .register(registry);
+        this.unreachableSkips = Counter.builder("celebrity.path.labels.unreachable")
+                .description("Path searches skipped because the distance labels show the pair is not connected")
+                .register(registry);
+    }
+
+    void recordSearch(SearchContext ctx, Outcome outcome) {
+        searchLatency.get(ctx.mode).get(outcome).record(System.nanoTime() - ctx.startNanos, TimeUnit.NANOSECONDS);
+        nodesExpanded.record(ctx.nodesExpanded);
+        maxFrontier.record(ctx.maxFrontier);
+        dbQueries.record(ctx.dbQueries);
+        if (ctx.depth >= 0) depth.record(ctx.depth);
+    }
+
+    void recordRejected() {
+        rejected.increment();
+    }
+
+    void recordHubTableHit() {
+        hubTableHits.increment();
+    }
+
+    void recordUnreachableSkip() {
+        unreachableSkips.increment();
+    }
+
+    void recordReconstruction(long nanos) {
+        reconstruction.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /** Exposes hit/miss/eviction counters of a Caffeine cache built with {@code recordStats()}. */
+    public void monitor(Cache<?, ?> cache, String name) {
+        CaffeineCacheMetrics.monitor(registry, cache, name);
+    }
+
+    public MeterRegistry registry() {
+        return registry;
+    }
+}
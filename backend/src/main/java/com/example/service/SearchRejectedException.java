@@ -0,0 +1,11 @@
+package com.example.service;
+
+/**
+ * Thrown when a path search cannot get a slot in the heavy-search bulkhead in time.
+ * Callers should answer 503 so clients back off instead of piling onto the pool.
+ */
+public class SearchRejectedException extends RuntimeException {
+    public SearchRejectedException(String message) {
+        super(message);
+    }
+}
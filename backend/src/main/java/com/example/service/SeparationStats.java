@@ -0,0 +1,35 @@
+package com.example.service;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * "Degrees of separation" over a random sample of source celebrities, from one multi-source
+ * BFS job: how far apart reachable pairs are, and how far each sampled source is from the
+ * celebrity farthest from it (its eccentricity). The largest sampled eccentricity is a lower
+ * bound on the graph's diameter. Stored in the graph_analytics table.
+ */
+public record SeparationStats(
+        long graphVersion,
+        int sources,
+        long seed,
+        long reachablePairs,
+        double averageSeparation,
+        int medianSeparation,
+        int effectiveDiameter,
+        double meanReachedFraction,
+        double meanEccentricity,
+        int medianEccentricity,
+        int maxEccentricity,
+        List<Count> separations,
+        List<Count> eccentricities,
+        List<Peripheral> mostPeripheral,
+        long elapsedMillis,
+        Instant computedAt) {
+
+    /** {@code count} pairs (or sources) at this distance. */
+    public record Count(int distance, long count) {}
+
+    /** A sampled source with one of the largest eccentricities. */
+    public record Peripheral(String id, int eccentricity, double averageDistance) {}
+}
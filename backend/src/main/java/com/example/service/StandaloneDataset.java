@@ -0,0 +1,50 @@
+package com.example.service;
+
+import com.example.graph.CastCsvReader;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.function.DoubleConsumer;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * The in-memory graph's source in the standalone profile: cast.csv.gz from GRAPH_RESOURCE_DIR,
+ * parsed straight into the graph and name stores instead of being loaded into Postgres first.
+ * Warm-up and every admin reload read the file again.
+ */
+@Service
+@Profile("standalone")
+public class StandaloneDataset {
+    private final Path castFile = Paths.get(System.getenv().getOrDefault("GRAPH_RESOURCE_DIR", "backend/src/main/resources"), "cast.csv.gz");
+
+    Path file() {
+        return castFile;
+    }
+
+    /** Parses the file; {@code progress} gets the fraction of compressed bytes read. */
+    CastCsvReader.Dataset read(boolean compressedAdjacency, DoubleConsumer progress) throws IOException {
+        long start = System.currentTimeMillis();
+        // Read through a FileChannel so its position (compressed bytes consumed) gives progress
+        try (FileChannel channel = FileChannel.open(castFile);
+             InputStream in = new GZIPInputStream(Channels.newInputStream(channel), 1 << 16)) {
+            double size = Math.max(1, channel.size());
+            CastCsvReader.Dataset dataset = CastCsvReader.read(in, compressedAdjacency, () -> {
+                try {
+                    progress.accept(channel.position() / size);
+                } catch (IOException ignored) {
+                    // Progress only
+                }
+            });
+            System.out.println("📂 Parsed " + castFile + ": " + dataset.lines() + " lines (" + dataset.malformedLines()
+                    + " malformed, " + dataset.skippedLinks() + " links with non-IMDb ids skipped) in "
+                    + (System.currentTimeMillis() - start) + "ms");
+            return dataset;
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package com.example.service;
+
+import com.example.entity.Celebrity;
+import com.example.entity.Title;
+import com.example.graph.CelebrityGraph;
+import com.example.graph.NameIndex;
+import com.example.repository.CelebrityRepository;
+import com.example.repository.CelebrityTitleRepository;
+import com.example.repository.TitleRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * The repositories {@link DatabaseGraphService} queries, answered from the current in-memory
+ * graph version in the standalone profile, where there is no DataSource and so no Spring Data
+ * JPA. Only the queries the service issues are implemented; the rest of the JpaRepository
+ * surface throws. Until warm-up has built the first version every query comes back empty.
+ */
+@Configuration
+@Profile("standalone")
+public class StandaloneRepositories {
+
+    @Autowired
+    private InMemoryGraphService inMemoryGraph;
+
+    @Bean
+    public CelebrityRepository celebrityRepository() {
+        return proxy(CelebrityRepository.class, (method, args, version) -> switch (method.getName()) {
+            case "findById" -> Optional.ofNullable(celebrity(version, version.graph().celebrity((String) args[0])));
+            case "findAllById" -> {
+                List<Celebrity> found = new ArrayList<>();
+                for (Object id : (Iterable<?>) args[0]) {
+                    Celebrity celebrity = celebrity(version, version.graph().celebrity((String) id));
+                    if (celebrity != null) found.add(celebrity);
+                }
+                yield found;
+            }
+            case "findByNameIgnoreCase" -> Optional.ofNullable(celebrity(version, version.celebrityIndex().exact((String) args[0])));
+            case "findTop50ByNameContainingIgnoreCase" -> celebrities(version, version.celebrityIndex().containing((String) args[0], 50));
+            case "findByNameStartingWithIgnoreCaseOrderByNameAsc" -> {
+                Pageable page = (Pageable) args[1];
+                NameIndex index = version.celebrityIndex();
+                yield new PageImpl<>(celebrities(version, index.startingWith((String) args[0], (int) page.getOffset(), page.getPageSize())), page, index.size());
+            }
+            case "count" -> (long) version.graph().celebrityCount();
+            default -> throw unsupported(method);
+        });
+    }
+
+    @Bean
+    public TitleRepository titleRepository() {
+        return proxy(TitleRepository.class, (method, args, version) -> switch (method.getName()) {
+            case "findById" -> Optional.ofNullable(title(version, version.graph().title((String) args[0])));
+            case "findAllById" -> {
+                List<Title> found = new ArrayList<>();
+                for (Object id : (Iterable<?>) args[0]) {
+                    Title title = title(version, version.graph().title((String) id));
+                    if (title != null) found.add(title);
+                }
+                yield found;
+            }
+            default -> throw unsupported(method);
+        });
+    }
+
+    @Bean
+    public CelebrityTitleRepository celebrityTitleRepository() {
+        return proxy(CelebrityTitleRepository.class, (method, args, version) -> {
+            CelebrityGraph graph = version.graph();
+            return switch (method.getName()) {
+                case "findTitleIdsByCelebrityId" -> {
+                    int c = graph.celebrity((String) args[0]);
+                    yield c < 0 ? new ArrayList<>() : titleIds(graph, graph.titlesOf(c));
+                }
+                case "findCelebrityIdsByTitleId" -> {
+                    int t = graph.title((String) args[0]);
+                    yield t < 0 ? new ArrayList<>() : celebrityIds(graph, graph.castOf(t));
+                }
+                case "findConnectedCelebrityIds" -> {
+                    int c = graph.celebrity((String) args[0]);
+                    yield c < 0 ? new ArrayList<>() : celebrityIds(graph, coStars(graph, c));
+                }
+                case "countByCelebrityId" -> {
+                    int c = graph.celebrity((String) args[0]);
+                    yield c < 0 ? 0L : (long) graph.degree(c);
+                }
+                default -> throw unsupported(method);
+            };
+        });
+    }
+
+    private static Celebrity celebrity(GraphVersion version, int c) {
+        if (c < 0) return null;
+        String id = version.graph().celebrityId(c);
+        String name = version.celebrityNames().name(c);
+        return new Celebrity(id, name != null ? name : id, c);
+    }
+
+    private static List<Celebrity> celebrities(GraphVersion version, int[] ids) {
+        List<Celebrity> out = new ArrayList<>(ids.length);
+        for (int c : ids) out.add(celebrity(version, c));
+        return out;
+    }
+
+    private static Title title(GraphVersion version, int t) {
+        if (t < 0) return null;
+        String id = version.graph().titleId(t);
+        String name = version.titleNames().name(t);
+        return new Title(id, name != null ? name : id, t);
+    }
+
+    // Distinct celebrities sharing a title with c, as the DISTINCT self-join returns them
+    private static int[] coStars(CelebrityGraph graph, int c) {
+        int[] titles = graph.titlesOf(c);
+        int total = 0;
+        for (int t : titles) total += graph.castSize(t);
+        int[] all = new int[total];
+        int n = 0;
+        for (int t : titles) {
+            for (int other : graph.castOf(t)) all[n++] = other;
+        }
+        Arrays.sort(all);
+        int distinct = 0;
+        for (int i = 0; i < n; i++) {
+            if (all[i] != c && (distinct == 0 || all[distinct - 1] != all[i])) all[distinct++] = all[i];
+        }
+        return Arrays.copyOf(all, distinct);
+    }
+
+    private static List<String> celebrityIds(CelebrityGraph graph, int[] celebrities) {
+        List<String> out = new ArrayList<>(celebrities.length);
+        for (int c : celebrities) out.add(graph.celebrityId(c));
+        return out;
+    }
+
+    private static List<String> titleIds(CelebrityGraph graph, int[] titles) {
+        List<String> out = new ArrayList<>(titles.length);
+        for (int t : titles) out.add(graph.titleId(t));
+        return out;
+    }
+
+    private static UnsupportedOperationException unsupported(Method method) {
+        return new UnsupportedOperationException(method.getDeclaringClass().getSimpleName() + "." + method.getName()
+                + " is not available in the standalone profile");
+    }
+
+    /** Answers one repository call from a graph version. */
+    private interface Query {
+        Object answer(Method method, Object[] args, GraphVersion version);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T proxy(Class<T> type, Query query) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (p, method, args) -> {
+            if (method.getDeclaringClass() == Object.class) {
+                return switch (method.getName()) {
+                    case "hashCode" -> System.identityHashCode(p);
+                    case "equals" -> p == args[0];
+                    default -> type.getSimpleName() + "(in-memory)";
+                };
+            }
+            GraphVersion version = inMemoryGraph.acquire();
+            if (version == null) return empty(method, args);
+            try {
+                return query.answer(method, args, version);
+            } finally {
+                version.release();
+            }
+        });
+    }
+
+    // What the database would return for an empty table
+    private static Object empty(Method method, Object[] args) {
+        Class<?> type = method.getReturnType();
+        if (type == Optional.class) return Optional.empty();
+        if (type == Page.class) return Page.empty((Pageable) args[args.length - 1]);
+        if (type == long.class) return 0L;
+        if (List.class.isAssignableFrom(type) || type == Iterable.class) return new ArrayList<>();
+        throw unsupported(method);
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.service;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Looks up profile photos on TMDB by IMDb id. Calls run on Spring's application task
+ * executor (virtual threads when {@code spring.threads.virtual.enabled} is on), so the
+ * request thread is released while TMDB answers. Caching and de-duplication live in
+ * {@link PhotoService}. {@code TMDB_BASE_URL} points the client at a stub server for load tests.
+ */
+@Service
+public class TmdbClient {
+
+    private final RestTemplate restTemplate;
+    private final AsyncTaskExecutor executor;
+    private final String apiKey = System.getenv("TMDB_API_KEY");
+    private final String baseUrl = stripSlash(System.getenv().getOrDefault("TMDB_BASE_URL", "https://api.themoviedb.org/3"));
+    private final String imageBaseUrl = System.getenv().getOrDefault("TMDB_IMAGE_BASE_URL", "https://image.tmdb.org/t/p/w500");
+
+    public TmdbClient(RestTemplate restTemplate, @Qualifier("applicationTaskExecutor") AsyncTaskExecutor executor) {
+        this.restTemplate = restTemplate;
+        this.executor = executor;
+    }
+
+    public boolean isConfigured() {
+        return apiKey != null && !apiKey.isEmpty();
+    }
+
+    /**
+     * Completes with the photo URL, or with null when TMDB has no person or no profile image for
+     * the id. Completes exceptionally on timeouts and other transport/server errors, which are
+     * worth retrying later rather than remembering as "no photo".
+     */
+    public CompletableFuture<String> findProfilePhotoUrl(String imdbId) {
+        return CompletableFuture.supplyAsync(() -> lookup(imdbId), executor);
+    }
+
+    private String lookup(String imdbId) {
+        String tmdbPersonId = findTmdbPersonId(imdbId);
+        return tmdbPersonId == null ? null : findProfilePath(tmdbPersonId);
+    }
+
+    private String findTmdbPersonId(String imdbId) {
+        // Use TMDB's find API to get person by IMDb ID
+        String findUrl = baseUrl + "/find/" + imdbId + "?api_key=" + apiKey + "&external_source=imdb_id";
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> findResponse = restTemplate.getForObject(findUrl, Map.class);
+
+        if (findResponse != null) {
+            Object personResultsObj = findResponse.get("person_results");
+            if (personResultsObj instanceof List<?> personResults && !personResults.isEmpty()) {
+                Object firstPerson = personResults.get(0);
+                if (firstPerson instanceof Map<?, ?> person) {
+                    Object idObj = person.get("id");
+                    if (idObj instanceof Number) {
+                        return String.valueOf(((Number) idObj).intValue());
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    private String findProfilePath(String tmdbPersonId) {
+        String personUrl = baseUrl + "/person/" + tmdbPersonId + "?api_key=" + apiKey;
+
+        Map<String, Object> personResponse;
+        try {
+            @SuppressWarnings("unchecked")
+            Map<String, Object> response = restTemplate.getForObject(personUrl, Map.class);
+            personResponse = response;
+        } catch (HttpClientErrorException.NotFound e) {
+            return null;
+        }
+
+        if (personResponse != null) {
+            Object profilePathObj = personResponse.get("profile_path");
+            if (profilePathObj instanceof String profilePath && !profilePath.isEmpty()) {
+                return imageBaseUrl + profilePath;
+            }
+        }
+        return null;
+    }
+
+    private static String stripSlash(String url) {
+        return url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+    }
+}
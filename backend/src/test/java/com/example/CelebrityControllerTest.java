@@ -0,0 +1,123 @@
+package com.example;
+
+import com.example.service.CelebrityPath;
+import com.example.service.DatabaseGraphService;
+import com.example.service.DatasetVersionService;
+import com.example.service.PathMode;
+import com.example.service.PathSearchResult;
+import com.example.service.QueryLogService;
+import com.example.service.SearchMetrics.Outcome;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class CelebrityControllerTest {
+
+    private static final CelebrityPath PATH = new CelebrityPath(
+            List.of(new CelebrityPath.Node("nm0000001", "A"), new CelebrityPath.Node("nm0000002", "B")),
+            List.of(new CelebrityPath.Edge("tt0000001", "T")));
+
+    private final DatabaseGraphService graphService = mock(DatabaseGraphService.class);
+    private MockMvc mvc;
+
+    @BeforeEach
+    void setUp() {
+        CelebrityController controller = new CelebrityController();
+        DatasetVersionService datasetVersion = new DatasetVersionService();
+        ReflectionTestUtils.setField(datasetVersion, "version", "v1");
+        ReflectionTestUtils.setField(controller, "databaseGraphService", graphService);
+        ReflectionTestUtils.setField(controller, "datasetVersion", datasetVersion);
+        ReflectionTestUtils.setField(controller, "queryLog", mock(QueryLogService.class));
+        mvc = MockMvcBuilders.standaloneSetup(controller).build();
+    }
+
+    private void searchEnds(List<CelebrityPath> paths, Outcome outcome) {
+        when(graphService.findShortestPath(anyString(), anyString(), any(), any(PathMode.class), anyCollection(), anyCollection()))
+                .thenReturn(new PathSearchResult(paths, outcome));
+    }
+
+    @Test
+    void completeResultIsCachedAndRevalidatesTo304() throws Exception {
+        searchEnds(List.of(PATH), Outcome.FOUND);
+        String etag = mvc.perform(get("/api/shortest-path").param("id1", "nm0000001").param("id2", "nm0000002"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", "public, max-age=86400"))
+                .andExpect(jsonPath("$.partial").value(false))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mvc.perform(get("/api/shortest-path").param("id1", "nm0000001").param("id2", "nm0000002").header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", etag));
+        // A proxy may weaken or strip the weak prefix; the comparison is weak either way
+        mvc.perform(get("/api/shortest-path").param("id1", "nm0000001").param("id2", "nm0000002").header("If-None-Match", etag.substring(2)))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void noPathIsCached() throws Exception {
+        searchEnds(List.of(), Outcome.NO_PATH);
+        mvc.perform(get("/api/shortest-path").param("id1", "nm0000001").param("id2", "nm0000002"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andExpect(jsonPath("$.error").value("No path found."));
+    }
+
+    @Test
+    void timedOutResultIsNotStored() throws Exception {
+        searchEnds(List.of(PATH), Outcome.TIMED_OUT);
+        mvc.perform(get("/api/shortest-path").param("id1", "nm0000001").param("id2", "nm0000002"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", "no-store"))
+                .andExpect(header().doesNotExist("ETag"))
+                .andExpect(jsonPath("$.partial").value(true));
+    }
+
+    @Test
+    void capHitWithoutPathsIsNotStored() throws Exception {
+        searchEnds(List.of(), Outcome.CAP_HIT);
+        mvc.perform(get("/api/shortest-path").param("id1", "nm0000001").param("id2", "nm0000002"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", "no-store"))
+                .andExpect(header().doesNotExist("ETag"))
+                .andExpect(jsonPath("$.partial").value(true));
+    }
+
+    @Test
+    void groupPathCapHitIsNotStored() throws Exception {
+        when(graphService.findShortestPathBetween(anyCollection(), anyCollection(), any()))
+                .thenReturn(new PathSearchResult(List.of(), Outcome.CAP_HIT));
+        mvc.perform(get("/api/group-path").param("ids1", "nm0000001").param("ids2", "nm0000002"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", "no-store"))
+                .andExpect(header().doesNotExist("ETag"))
+                .andExpect(jsonPath("$.partial").value(true));
+    }
+
+    @Test
+    void matchingTagIsAnsweredWithoutSearching() throws Exception {
+        when(graphService.findShortestPathBetween(anyCollection(), anyCollection(), any()))
+                .thenReturn(new PathSearchResult(List.of(PATH), Outcome.FOUND));
+        String etag = mvc.perform(get("/api/group-path").param("ids1", "nm0000001").param("ids2", "nm0000002"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+        mvc.perform(get("/api/group-path").param("ids1", "nm0000001").param("ids2", "nm0000002").header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+        verify(graphService, times(1)).findShortestPathBetween(anyCollection(), anyCollection(), any());
+    }
+}
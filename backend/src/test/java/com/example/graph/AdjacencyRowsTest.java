@@ -0,0 +1,74 @@
+package com.example.graph;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class AdjacencyRowsTest {
+
+    @Test
+    void encodedRowsDecodeToThePlainOnes() {
+        Random random = new Random(42);
+        // Rows 15 to 17 straddle the first block boundary; the long rows also cross it in bytes
+        int[][] rows = new int[70][];
+        for (int r = 0; r < rows.length; r++) {
+            rows[r] = switch (r % 7) {
+                case 0 -> new int[0];
+                case 1 -> new int[]{0};
+                case 2 -> new int[]{Integer.MAX_VALUE};
+                case 3 -> new int[]{5, 1 << 28, (1 << 28) + 1, Integer.MAX_VALUE}; // gaps of 2^28 and more: five-byte varints
+                default -> random.ints(random.nextInt(300), 0, r % 2 == 0 ? 1000 : Integer.MAX_VALUE).sorted().distinct().toArray();
+            };
+        }
+        rows[16] = random.ints(2000, 0, 1 << 20).sorted().distinct().toArray();
+        int[] offsets = new int[rows.length + 1];
+        for (int r = 0; r < rows.length; r++) offsets[r + 1] = offsets[r] + rows[r].length;
+        int[] values = Arrays.stream(rows).flatMapToInt(Arrays::stream).toArray();
+        AdjacencyRows plain = AdjacencyRows.plain(offsets, values);
+        AdjacencyRows encoded = AdjacencyRows.encode(offsets, values);
+
+        assertEquals(rows.length, encoded.rowCount());
+        assertEquals(values.length, encoded.size());
+        for (int r = 0; r < rows.length; r++) {
+            assertArrayEquals(rows[r], encoded.row(r), "row " + r);
+            assertArrayEquals(rows[r], plain.row(r), "row " + r);
+        }
+        // In order, the reader continues from the previous row; at random it seeks from a block start
+        AdjacencyRows.Reader reader = encoded.reader();
+        for (int r = 0; r < rows.length; r++) assertArrayEquals(rows[r], read(reader, r), "row " + r);
+        for (int i = 0; i < 500; i++) {
+            int r = random.nextInt(rows.length);
+            assertArrayEquals(rows[r], read(reader, r), "row " + r);
+        }
+    }
+
+    @Test
+    void intersectionsMatchOnBothLayouts() {
+        Random random = new Random(7);
+        int[][] rows = new int[40][];
+        for (int r = 0; r < rows.length; r++) rows[r] = random.ints(random.nextInt(50), 0, 200).sorted().distinct().toArray();
+        int[] offsets = new int[rows.length + 1];
+        for (int r = 0; r < rows.length; r++) offsets[r + 1] = offsets[r] + rows[r].length;
+        int[] values = Arrays.stream(rows).flatMapToInt(Arrays::stream).toArray();
+        AdjacencyRows plain = AdjacencyRows.plain(offsets, values);
+        AdjacencyRows encoded = AdjacencyRows.encode(offsets, values);
+        int[] out = new int[200];
+        for (int a = 0; a < rows.length; a++) {
+            for (int b = 0; b < rows.length; b++) {
+                int[] b2 = rows[b];
+                int[] expected = Arrays.stream(rows[a]).filter(v -> Arrays.binarySearch(b2, v) >= 0).toArray();
+                assertArrayEquals(expected, Arrays.copyOf(out, plain.intersect(a, b, out)));
+                assertArrayEquals(expected, Arrays.copyOf(out, encoded.intersect(a, b, out)));
+            }
+        }
+    }
+
+    private static int[] read(AdjacencyRows.Reader reader, int row) {
+        reader.read(row);
+        return Arrays.copyOfRange(reader.values, reader.from, reader.to);
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.graph;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class DistanceLabelsTest {
+
+    @Test
+    void distancesMatchBfs() {
+        for (long seed = 1; seed <= 5; seed++) {
+            // A 200-hop chain: long paths, but within what a byte holds
+            CelebrityGraph graph = RandomGraphs.build(seed, 600, seed % 2 == 0);
+            DistanceLabels labels = DistanceLabels.build(graph, Long.MAX_VALUE);
+            assertNotNull(labels);
+            Random random = new Random(seed);
+            for (int i = 0; i < 40; i++) {
+                int source = random.nextInt(graph.celebrityCount());
+                int[] expected = RandomGraphs.distances(graph, source);
+                for (int target = 0; target < expected.length; target++) {
+                    assertEquals(expected[target], labels.distance(source, target), "seed " + seed + ": " + source + " -> " + target);
+                }
+            }
+        }
+    }
+
+    @Test
+    void givesUpPastWhatAByteHolds() {
+        assertNull(DistanceLabels.build(RandomGraphs.build(1, 900, false), Long.MAX_VALUE)); // a 300-hop chain
+    }
+
+    @Test
+    void givesUpOverTheEntryCap() {
+        CelebrityGraph graph = RandomGraphs.build(2, 600, false);
+        DistanceLabels labels = DistanceLabels.build(graph, Long.MAX_VALUE);
+        assertNull(DistanceLabels.build(graph, labels.entries() / 2));
+    }
+
+    @Test
+    void readsBackWhatItWrote() throws IOException {
+        CelebrityGraph graph = RandomGraphs.build(4, 600, true);
+        DistanceLabels labels = DistanceLabels.build(graph, Long.MAX_VALUE);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            labels.writeTo(out);
+        }
+        DistanceLabels read = DistanceLabels.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())), graph);
+        assertEquals(labels.entries(), read.entries());
+        for (int a = 0; a < graph.celebrityCount(); a += 7) {
+            for (int b = 0; b < graph.celebrityCount(); b += 5) assertEquals(labels.distance(a, b), read.distance(a, b));
+        }
+    }
+}
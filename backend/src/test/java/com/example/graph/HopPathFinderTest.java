@@ -0,0 +1,40 @@
+package com.example.graph;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HopPathFinderTest {
+
+    @Test
+    void pathsAreShortestAndValid() {
+        for (long seed = 1; seed <= 4; seed++) {
+            CelebrityGraph graph = RandomGraphs.build(seed, 1200, seed % 2 == 0);
+            // A pool of one: every search reuses the same scratch, so stale state from earlier ones would show
+            HopPathFinder finder = new HopPathFinder(graph, 1);
+            Random random = new Random(seed);
+            for (int i = 0; i < 300; i++) {
+                int source = random.nextInt(graph.celebrityCount());
+                int target = random.nextInt(graph.celebrityCount());
+                int expected = RandomGraphs.distances(graph, source)[target];
+                HopPathFinder.Result result = finder.find(source, target, 5, Integer.MAX_VALUE, PathExclusions.NONE, () -> false);
+                if (expected < 0) {
+                    assertTrue(result.paths().isEmpty(), source + " -> " + target);
+                    continue;
+                }
+                assertTrue(!result.paths().isEmpty() && result.paths().size() <= 5, source + " -> " + target);
+                for (int[] path : result.paths()) {
+                    assertEquals(expected, path.length - 1, source + " -> " + target);
+                    assertEquals(source, path[0]);
+                    assertEquals(target, path[path.length - 1]);
+                    for (int k = 1; k < path.length; k++) {
+                        assertTrue(graph.sharedTitles(path[k - 1], path[k]).length > 0, "not co-stars: " + path[k - 1] + ", " + path[k]);
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.graph;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HubTableTest {
+
+    @Test
+    void pathsAreShortestAndValid() {
+        int answered = 0;
+        for (long seed = 1; seed <= 5; seed++) {
+            CelebrityGraph graph = RandomGraphs.build(seed, 900, seed % 2 == 0);
+            int[] candidates = bestConnected(graph, 150);
+            HubTable table = HubTable.build(graph, candidates);
+            for (int source : candidates) {
+                int[] expected = RandomGraphs.distances(graph, source);
+                for (int target : candidates) {
+                    int[] path = table.path(source, target);
+                    String pair = "seed " + seed + ": " + source + " -> " + target;
+                    if (expected[target] < 0) {
+                        assertNotNull(path, pair);
+                        assertEquals(0, path.length, pair);
+                        continue;
+                    }
+                    // Null means the walk would leave the hubs; the search then falls back to a BFS
+                    if (path == null) continue;
+                    answered++;
+                    assertEquals(expected[target], path.length - 1, pair);
+                    assertEquals(source, path[0], pair);
+                    assertEquals(target, path[path.length - 1], pair);
+                    for (int k = 1; k < path.length; k++) {
+                        assertTrue(graph.sharedTitles(path[k - 1], path[k]).length > 0, pair + " hop " + k);
+                    }
+                }
+            }
+        }
+        assertTrue(answered > 10_000, "answered " + answered);
+    }
+
+    @Test
+    void onlyHubPairsAreAnswered() {
+        CelebrityGraph graph = RandomGraphs.build(7, 300, false);
+        HubTable table = HubTable.build(graph, new int[]{3, 5});
+        assertNull(table.path(3, 4));
+        assertNull(table.path(4, 5));
+        assertArrayEquals(new int[]{3}, table.path(3, 3));
+    }
+
+    @Test
+    void readsBackWhatItWrote() throws IOException {
+        CelebrityGraph graph = RandomGraphs.build(11, 600, false);
+        int[] candidates = new Random(11).ints(60, 0, graph.celebrityCount()).toArray();
+        HubTable table = HubTable.build(graph, candidates);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            table.writeTo(out);
+        }
+        HubTable read = HubTable.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())), graph);
+        assertEquals(table.size(), read.size());
+        for (int source : candidates) {
+            for (int target : candidates) assertArrayEquals(table.path(source, target), read.path(source, target));
+        }
+    }
+
+    // Hubs as the service picks them by default: the highest degrees
+    private static int[] bestConnected(CelebrityGraph graph, int count) {
+        long[] ranked = new long[graph.celebrityCount()];
+        for (int c = 0; c < ranked.length; c++) ranked[c] = ((long) graph.degree(c) << 32) | c;
+        Arrays.sort(ranked);
+        int[] hubs = new int[Math.min(count, ranked.length)];
+        for (int i = 0; i < hubs.length; i++) hubs[i] = (int) ranked[ranked.length - 1 - i];
+        return hubs;
+    }
+}
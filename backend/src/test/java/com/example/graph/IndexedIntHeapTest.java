@@ -0,0 +1,55 @@
+package com.example.graph;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IndexedIntHeapTest {
+
+    @Test
+    void matchesAnOrderedSetUnderRandomOperations() {
+        Random random = new Random(3);
+        int capacity = 500;
+        IndexedIntHeap heap = new IndexedIntHeap(capacity);
+        TreeSet<Long> reference = new TreeSet<>(); // key << 32 | node
+        int[] keys = new int[capacity];
+        for (int round = 0; round < 20; round++) {
+            for (int op = 0; op < 5000; op++) {
+                if (random.nextInt(3) > 0 || reference.isEmpty()) {
+                    int node = random.nextInt(capacity);
+                    int key = random.nextInt(100_000);
+                    boolean queued = heap.contains(node);
+                    boolean lowers = !queued || key < keys[node];
+                    assertEquals(lowers, heap.offer(node, key));
+                    if (lowers) {
+                        if (queued) reference.remove((long) keys[node] << 32 | node);
+                        keys[node] = key;
+                        reference.add((long) key << 32 | node);
+                    }
+                } else {
+                    long top = reference.pollFirst();
+                    assertEquals((int) (top >>> 32), heap.peekKey());
+                    int node = heap.poll();
+                    // Equal keys may come out in either order
+                    assertEquals(top >>> 32, keys[node]);
+                    if (node != (int) top) {
+                        reference.remove((long) keys[node] << 32 | node);
+                        reference.add(top);
+                    }
+                    assertFalse(heap.contains(node));
+                }
+                assertEquals(reference.size(), heap.size());
+            }
+            // Reused after a clear, as the finders do between searches
+            heap.clear();
+            reference.clear();
+            assertTrue(heap.isEmpty());
+            for (int node = 0; node < capacity; node++) assertFalse(heap.contains(node));
+        }
+    }
+}
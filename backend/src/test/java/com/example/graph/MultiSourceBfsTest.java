@@ -0,0 +1,60 @@
+package com.example.graph;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MultiSourceBfsTest {
+
+    @Test
+    void matchesOneBfsPerSource() {
+        for (long seed = 1; seed <= 4; seed++) {
+            CelebrityGraph graph = RandomGraphs.build(seed, 900, seed % 2 == 0);
+            // One instance for every batch, so state left over from the previous one would show
+            MultiSourceBfs bfs = new MultiSourceBfs(graph);
+            Random random = new Random(seed);
+            for (int size : new int[]{64, 1, 37}) {
+                int[] sources = new int[size];
+                for (int i = 0; i < size; i++) sources[i] = random.nextInt(graph.celebrityCount());
+                // The chain's end: a source hundreds of levels deep
+                sources[size - 1] = graph.celebrityCount() - 1;
+                check(graph, sources, bfs.run(sources));
+            }
+        }
+    }
+
+    @Test
+    void rejectsMoreThan64Sources() {
+        MultiSourceBfs bfs = new MultiSourceBfs(RandomGraphs.build(1, 300, false));
+        assertThrows(IllegalArgumentException.class, () -> bfs.run(new int[65]));
+    }
+
+    private static void check(CelebrityGraph graph, int[] sources, MultiSourceBfs.Result result) {
+        long[] pairs = new long[graph.celebrityCount()];
+        int deepest = 0;
+        for (int i = 0; i < sources.length; i++) {
+            int[] distance = RandomGraphs.distances(graph, sources[i]);
+            int reached = 0;
+            long sum = 0;
+            int eccentricity = 0;
+            for (int d : distance) {
+                if (d <= 0) continue;
+                reached++;
+                sum += d;
+                eccentricity = Math.max(eccentricity, d);
+                pairs[d]++;
+            }
+            deepest = Math.max(deepest, eccentricity);
+            assertEquals(reached, result.reached()[i], "reached from " + sources[i]);
+            assertEquals(sum, result.distanceSums()[i], "distance sum from " + sources[i]);
+            assertEquals(eccentricity, result.eccentricity()[i], "eccentricity of " + sources[i]);
+        }
+        long[] expected = new long[deepest + 1];
+        System.arraycopy(pairs, 1, expected, 1, deepest);
+        assertArrayEquals(expected, result.distances());
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.graph;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Random;
+
+/** Random test graphs and a plain BFS to check the finders and distance indexes against. */
+final class RandomGraphs {
+
+    private RandomGraphs() {}
+
+    /**
+     * Three components: random small casts, a sparse one with long shortest paths, and a chain
+     * of two-person titles, so pairs come out near, far apart and not connected.
+     */
+    static CelebrityGraph build(long seed, int celebrities, boolean compressed) {
+        Random random = new Random(seed);
+        CelebrityGraph.Builder builder = new CelebrityGraph.Builder();
+        int third = celebrities / 3;
+        int title = 1;
+        for (int t = 0; t < third * 2; t++, title++) {
+            int cast = 1 + random.nextInt(5);
+            for (int i = 0; i < cast; i++) builder.add(1 + random.nextInt(third), title);
+        }
+        for (int t = 0; t < third * 6 / 10; t++, title++) {
+            builder.add(third + 1 + random.nextInt(third), title);
+            builder.add(third + 1 + random.nextInt(third), title);
+        }
+        for (int c = 2 * third + 1; c < celebrities; c++, title++) {
+            builder.add(c, title);
+            builder.add(c + 1, title);
+        }
+        return builder.build(compressed);
+    }
+
+    /** Hops from {@code source} to every celebrity, -1 where it is not reached. */
+    static int[] distances(CelebrityGraph graph, int source) {
+        int[] distance = new int[graph.celebrityCount()];
+        Arrays.fill(distance, -1);
+        distance[source] = 0;
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        queue.add(source);
+        while (!queue.isEmpty()) {
+            int u = queue.poll();
+            for (int t : graph.titlesOf(u)) {
+                for (int v : graph.castOf(t)) {
+                    if (distance[v] >= 0) continue;
+                    distance[v] = distance[u] + 1;
+                    queue.add(v);
+                }
+            }
+        }
+        return distance;
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.graph;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class ScratchPoolTest {
+
+    @Test
+    void neverHoldsMoreThanTheCap() {
+        AtomicInteger created = new AtomicInteger();
+        ScratchPool<int[]> pool = new ScratchPool<>(2, () -> new int[]{created.incrementAndGet()});
+        int[] first = pool.acquire(() -> false);
+        int[] second = pool.acquire(() -> false);
+        assertNotNull(first);
+        assertNotNull(second);
+        // Both in use: a third search waits until its budget runs out
+        assertNull(pool.acquire(() -> true));
+        assertEquals(2, created.get());
+
+        pool.release(first);
+        assertSame(first, pool.acquire(() -> true));
+        assertEquals(2, created.get());
+    }
+
+    @Test
+    void waitsForAReleasedSet() throws InterruptedException {
+        ScratchPool<Object> pool = new ScratchPool<>(1, Object::new);
+        Object held = pool.acquire(() -> false);
+        Thread releaser = new Thread(() -> {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                return;
+            }
+            pool.release(held);
+        });
+        releaser.start();
+        assertSame(held, pool.acquire(() -> false));
+        releaser.join();
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.graph;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class SortedIntersectionTest {
+
+    private interface Kernel {
+        int intersect(int[] a, int aFrom, int aTo, int[] b, int bFrom, int bTo, int[] out);
+    }
+
+    @Test
+    void intersectMatchesTheNaiveOne() {
+        check(SortedIntersection::intersect);
+    }
+
+    @Test
+    void mergeMatchesTheNaiveOne() {
+        check(SortedIntersection::merge);
+    }
+
+    @Test
+    void gallopMatchesTheNaiveOne() {
+        check(SortedIntersection::gallop);
+    }
+
+    @Test
+    void vectorMatchesTheNaiveOne() {
+        assumeTrue(ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent(), "needs --add-modules jdk.incubator.vector");
+        check(VectorIntersection::intersect);
+    }
+
+    // Random ranges inside padded arrays: lengths around the vector width and its tails, empty ones,
+    // one side far longer than the other, dense and sparse overlap, and negative values
+    private static void check(Kernel kernel) {
+        Random random = new Random(17);
+        for (int round = 0; round < 5000; round++) {
+            int aLength = random.nextInt(4) == 0 ? random.nextInt(40) : random.nextInt(600);
+            int bLength = random.nextInt(4) == 0 ? random.nextInt(40) : random.nextInt(600);
+            int bound = 1 + random.nextInt(2000);
+            int[] a = sortedDistinct(random, aLength, bound);
+            int[] b = sortedDistinct(random, bLength, bound);
+            int aFrom = random.nextInt(a.length + 1);
+            int aTo = aFrom + random.nextInt(a.length - aFrom + 1);
+            int bFrom = random.nextInt(b.length + 1);
+            int bTo = bFrom + random.nextInt(b.length - bFrom + 1);
+            int[] expected = naive(a, aFrom, aTo, b, bFrom, bTo);
+            int[] out = new int[Math.min(aTo - aFrom, bTo - bFrom)];
+            int count = kernel.intersect(a, aFrom, aTo, b, bFrom, bTo, out);
+            assertArrayEquals(expected, Arrays.copyOf(out, count), "round " + round);
+        }
+    }
+
+    private static int[] sortedDistinct(Random random, int length, int bound) {
+        return random.ints(length, -bound / 4, bound).sorted().distinct().toArray();
+    }
+
+    private static int[] naive(int[] a, int aFrom, int aTo, int[] b, int bFrom, int bTo) {
+        int[] bRange = Arrays.copyOfRange(b, bFrom, bTo);
+        return Arrays.stream(a, aFrom, aTo).filter(v -> Arrays.binarySearch(bRange, v) >= 0).toArray();
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.graph;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WeightedPathFinderTest {
+
+    @Test
+    void costsMatchPlainDijkstraWithAndWithoutLandmarks() {
+        for (long seed = 1; seed <= 4; seed++) {
+            CelebrityGraph graph = RandomGraphs.build(seed, 600, seed % 2 == 0);
+            WeightedPathFinder dijkstra = new WeightedPathFinder(graph, Landmarks.none(), 1);
+            WeightedPathFinder aStar = new WeightedPathFinder(graph, Landmarks.compute(dijkstra, 4), 1);
+            Random random = new Random(seed);
+            for (int i = 0; i < 60; i++) {
+                int source = random.nextInt(graph.celebrityCount());
+                long[] expected = costsFrom(dijkstra, source);
+                for (int j = 0; j < 10; j++) {
+                    int target = random.nextInt(graph.celebrityCount());
+                    for (WeightedPathFinder finder : new WeightedPathFinder[]{dijkstra, aStar}) {
+                        WeightedPathFinder.Result result = finder.find(source, target, Integer.MAX_VALUE, PathExclusions.NONE, () -> false);
+                        if (expected[target] < 0) {
+                            assertNull(result.path(), source + " -> " + target);
+                            continue;
+                        }
+                        assertNotNull(result.path(), source + " -> " + target);
+                        assertEquals(expected[target], result.cost(), source + " -> " + target);
+                        assertEquals(result.cost(), pathCost(finder, result.path(), source, target));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void fullDijkstraMatchesTheReference() {
+        CelebrityGraph graph = RandomGraphs.build(9, 600, false);
+        WeightedPathFinder finder = new WeightedPathFinder(graph, Landmarks.none());
+        for (int source = 0; source < graph.celebrityCount(); source += 37) {
+            long[] expected = costsFrom(finder, source);
+            int[] costs = finder.costsFrom(source);
+            for (int c = 0; c < costs.length; c++) assertEquals(expected[c], costs[c], source + " -> " + c);
+        }
+    }
+
+    @Test
+    void settledCapGivesUp() {
+        CelebrityGraph graph = RandomGraphs.build(5, 900, false);
+        WeightedPathFinder finder = new WeightedPathFinder(graph, Landmarks.none());
+        int last = graph.celebrityCount() - 1;
+        WeightedPathFinder.Result result = finder.find(last - 200, last, 10, PathExclusions.NONE, () -> false);
+        assertTrue(result.capHit());
+        assertNull(result.path());
+    }
+
+    // Textbook Dijkstra over co-star links, with the finder's own link costs
+    private static long[] costsFrom(WeightedPathFinder finder, int source) {
+        CelebrityGraph graph = finder.graph();
+        long[] cost = new long[graph.celebrityCount()];
+        Arrays.fill(cost, -1);
+        boolean[] settled = new boolean[cost.length];
+        PriorityQueue<long[]> queue = new PriorityQueue<>((a, b) -> Long.compare(a[0], b[0]));
+        cost[source] = 0;
+        queue.add(new long[]{0, source});
+        while (!queue.isEmpty()) {
+            int u = (int) queue.poll()[1];
+            if (settled[u]) continue;
+            settled[u] = true;
+            for (int t : graph.titlesOf(u)) {
+                for (int v : graph.castOf(t)) {
+                    if (v == u || settled[v]) continue;
+                    long next = cost[u] + finder.linkCost(u, v);
+                    if (cost[v] < 0 || next < cost[v]) {
+                        cost[v] = next;
+                        queue.add(new long[]{next, v});
+                    }
+                }
+            }
+        }
+        return cost;
+    }
+
+    private static long pathCost(WeightedPathFinder finder, int[] path, int source, int target) {
+        assertEquals(source, path[0]);
+        assertEquals(target, path[path.length - 1]);
+        long cost = 0;
+        for (int k = 1; k < path.length; k++) {
+            int link = finder.linkCost(path[k - 1], path[k]);
+            assertTrue(link > 0, "not co-stars: " + path[k - 1] + ", " + path[k]);
+            cost += link;
+        }
+        return cost;
+    }
+}
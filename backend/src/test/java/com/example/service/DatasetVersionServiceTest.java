@@ -0,0 +1,28 @@
+package com.example.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+class DatasetVersionServiceTest {
+
+    // A fixed expected value: a tag depending on identity hash codes would differ between JVMs and fail here
+    @Test
+    void etagIsTheSameOnEveryInstanceAndRestart() {
+        String etag = DatasetVersionService.etag("v1", "path", "nm0000001", "nm0000002", PathMode.WEIGHTED,
+                List.of("nm3", "nm4"), List.of(), null);
+        assertEquals("W/\"v1-113719ccd4b0f279fb9794ef3e1aa8f4\"", etag);
+    }
+
+    @Test
+    void etagSeparatesRequestsAndVersions() {
+        String etag = DatasetVersionService.etag("v1", "path", "nm1", "nm2", PathMode.BFS);
+        assertNotEquals(etag, DatasetVersionService.etag("v1", "path", "nm1", "nm2", PathMode.WEIGHTED));
+        assertNotEquals(etag, DatasetVersionService.etag("v2", "path", "nm1", "nm2", PathMode.BFS));
+        assertNotEquals(DatasetVersionService.etag("v1", "path", "nm1", "nm23"), DatasetVersionService.etag("v1", "path", "nm12", "nm3"));
+        assertNotEquals(DatasetVersionService.etag("v1", List.of("a", "b")), DatasetVersionService.etag("v1", List.of("a,b")));
+    }
+}
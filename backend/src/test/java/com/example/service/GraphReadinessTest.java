@@ -0,0 +1,29 @@
+package com.example.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GraphReadinessTest {
+
+    @Test
+    void failedLoadIsNotLoaded() {
+        GraphReadiness readiness = new GraphReadiness();
+        readiness.enter(GraphReadiness.Phase.LOADING_DATA);
+        readiness.enter(GraphReadiness.Phase.FAILED, "IOException: truncated file");
+        assertFalse(readiness.isDataLoaded());
+    }
+
+    @Test
+    void failureAfterTheLoadKeepsTheData() {
+        GraphReadiness readiness = new GraphReadiness();
+        readiness.enter(GraphReadiness.Phase.LOADING_DATA);
+        assertFalse(readiness.isDataLoaded());
+        readiness.dataLoaded();
+        readiness.enter(GraphReadiness.Phase.COMPUTING_STATS);
+        readiness.enter(GraphReadiness.Phase.FAILED, "SQLException: stats");
+        assertTrue(readiness.isDataLoaded());
+        assertFalse(readiness.isReady());
+    }
+}
@@ -36,6 +36,12 @@ export default function HomePage() {
         // Handle different error cases with user-friendly messages
         if (res.status === 500) {
           throw new Error("No paths found, try a different pair of celebrities");
+        } else if (res.status === 503) {
+          const body = await res.json().catch(() => ({}));
+          if (body.warming) {
+            throw new Error(`The celebrity graph is still loading${body.percent != null ? ` (${body.percent}%)` : ""}, please try again shortly`);
+          }
+          throw new Error("The server is busy right now, please try again in a moment");
         } else if (res.status === 404) {
           throw new Error("One or both celebrities not found, try different names");
         } else {
@@ -1,79 +1,52 @@
 import { FaArrowsAltH } from "react-icons/fa";
-import { useState, useEffect, useCallback } from "react";
+import { useState, useEffect, useMemo } from "react";
 import Image from "next/image";
 
 function parseResult(result) {
-  // Split the result into lines
-  const lines = result.trim().split("\n");
-  if (lines.length < 2) return null;
-  const startIdLine = lines.find(line => line.startsWith("START_ID:"));
-  const endIdLine = lines.find(line => line.startsWith("END_ID:"));
-  const startId = startIdLine ? startIdLine.replace("START_ID:", "").trim() : null;
-  const endId = endIdLine ? endIdLine.replace("END_ID:", "").trim() : null;
+  // A path is { nodes: [{ id, name }], edges: [{ titleId, title }] }, edges[i] linking nodes[i] and nodes[i + 1]
+  const nodes = Array.isArray(result?.nodes) ? result.nodes : [];
+  const edges = Array.isArray(result?.edges) ? result.edges : [];
+  if (nodes.length < 2) return null;
 
-  // Find the celebrity IDs and title IDs lines (API format uses legacy naming for compatibility)
-  const celebrityIdsLine = lines.find(line => line.startsWith("ACTOR_IDS:"));
-  const celebrityIds = celebrityIdsLine ? celebrityIdsLine.replace("ACTOR_IDS:", "").split(",").filter(id => id) : [];
-
-  const titleIdsLine = lines.find(line => line.startsWith("MOVIE_IDS:"));
-  const titleIds = titleIdsLine ? titleIdsLine.replace("MOVIE_IDS:", "").split(",").filter(id => id) : [];
-
-  // First line should be the celebrities (names separated by " -> ")
-  const celebrities = lines[0] ? lines[0].split(" -> ") : [];
-
-  // Structured titles only; no legacy fallback
-  const titleNamesLine = lines.find(line => line.startsWith("MOVIE_TITLES:"));
-  const titles = titleNamesLine ? titleNamesLine.replace("MOVIE_TITLES:", "").split(",").filter(t => t) : [];
-
-  // Normalize orientation using explicit endpoints if provided
-  if (startId && celebrityIds.length > 0 && celebrityIds[0] !== startId) {
-    celebrities.reverse();
-    celebrityIds.reverse();
-    titles.reverse();
-    titleIds.reverse();
-  }
-
-  return { celebrities, titles, celebrityIds, titleIds };
+  return {
+    celebrities: nodes.map(node => node.name || node.id),
+    celebrityIds: nodes.map(node => node.id),
+    titles: edges.map(edge => edge.title || ""),
+    titleIds: edges.map(edge => edge.titleId),
+  };
 }
 
 export default function PathResult({ result }) {
   const [celebrityPhotos, setCelebrityPhotos] = useState({});
-  const parsed = parseResult(result);
-
-  const fetchCelebrityPhoto = useCallback(async (celebrityName, celebrityId, signal) => {
-    if (celebrityPhotos[celebrityName] || !celebrityId) return;
-    try {
-      const url = `/api/celebrity-photo?celebrityId=${encodeURIComponent(celebrityId)}&celebrityName=${encodeURIComponent(celebrityName)}`;
-      const response = await fetch(url, { signal });
-      if (!response.ok) return;
-      const data = await response.json();
-      if (data.photoUrl) {
-        setCelebrityPhotos(prev => ({ ...prev, [celebrityName]: data.photoUrl }));
-      }
-    } catch (error) {
-      if (error.name !== 'AbortError') console.error("Error fetching celebrity photo:", error);
-    }
-  }, [celebrityPhotos]);
+  const parsed = useMemo(() => parseResult(result), [result]);
 
-  // Reset photos when result changes
+  // Fetch photos for all celebrities on the path in one batch (only if parsed successfully)
   useEffect(() => {
     setCelebrityPhotos({});
-  }, [result]);
-
-  // Fetch photos for celebrities (only if parsed successfully)
-  useEffect(() => {
     if (!parsed) return;
     
     const { celebrities, celebrityIds } = parsed;
+    const ids = (celebrityIds || []).filter(id => id);
+    if (ids.length === 0) return;
     const abortController = new AbortController();
     
-    celebrities.forEach((celebrity, index) => {
-      const celebrityId = celebrityIds?.[index];
-      fetchCelebrityPhoto(celebrity, celebrityId, abortController.signal);
-    });
+    fetch(`/api/celebrity-photos?celebrityIds=${ids.map(id => encodeURIComponent(id)).join(',')}`, { signal: abortController.signal })
+      .then(response => response.ok ? response.json() : null)
+      .then(data => {
+        if (!data || !data.photos) return;
+        const photos = {};
+        celebrities.forEach((celebrity, index) => {
+          const photoUrl = data.photos[celebrityIds[index]];
+          if (photoUrl) photos[celebrity] = photoUrl;
+        });
+        setCelebrityPhotos(photos);
+      })
+      .catch(error => {
+        if (error.name !== 'AbortError') console.error("Error fetching celebrity photos:", error);
+      });
     
     return () => abortController.abort();
-  }, [parsed, fetchCelebrityPhoto]);
+  }, [parsed]);
 
   if (!parsed) return <div className="text-gray-400">No path found.</div>;
 
@@ -111,7 +84,7 @@ export default function PathResult({ result }) {
               <div className="flex flex-col items-center justify-start pt-2 w-12 sm:w-16 md:w-20 lg:w-24">
                 <FaArrowsAltH className="text-base sm:text-lg md:text-xl lg:text-2xl text-white" />
                 <div className="flex flex-col items-center mt-0.5">
-                  {titleIds?.[idx] && titleIds[idx] !== "unknown" ? (
+                  {titleIds?.[idx] ? (
                     <a href={`https://www.imdb.com/title/${titleIds[idx]}/`} target="_blank" rel="noopener noreferrer" className="text-[8px] sm:text-[9px] md:text-[10px] lg:text-[11px] text-blue-400 hover:text-blue-300 text-center leading-tight break-words underline">
                       {titles[idx]}
                     </a>
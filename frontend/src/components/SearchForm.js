@@ -66,7 +66,25 @@ export default function SearchForm({ onSearch }) {
     }
   }, []);
 
-  // Removed unused photo cache/getter; SuggestionItem handles its own photo fetching
+  // Suggestion photos by nconst ("" when there is none), fetched in one batch per suggestion list
+  const [photos, setPhotos] = useState({});
+  const photosRef = useRef({});
+
+  const loadPhotos = async (items) => {
+    const ids = items.map(x => x.nconst).filter(id => id && !(id in photosRef.current));
+    if (ids.length === 0) return;
+    let fetched = {};
+    try {
+      const res = await fetch(`/api/celebrity-photos?celebrityIds=${ids.map(id => encodeURIComponent(id)).join(',')}`);
+      if (res.ok) fetched = (await res.json()).photos || {};
+    } catch (error) {
+      console.log('Error fetching photos:', error);
+    }
+    const merged = { ...photosRef.current };
+    ids.forEach(id => { merged[id] = fetched[id] || ""; });
+    photosRef.current = merged;
+    setPhotos(merged);
+  };
 
   // Cleanup cache to prevent memory leaks
   const cleanupCache = () => {
@@ -172,6 +190,7 @@ export default function SearchForm({ onSearch }) {
       const hit = cacheRef.current.get(q);
       if (hit && (Date.now() - hit.t) < 60000) {
         setSuggestions(hit.data);
+        loadPhotos(hit.data);
         return;
       }
       // Use graph-based search for exact nconst matches
@@ -181,6 +200,7 @@ export default function SearchForm({ onSearch }) {
       const items = await res.json();
       const suggestions = Array.isArray(items) ? items.slice(0, 20).map(x => ({ nconst: x.nconst, name: x.name })) : [];
       setSuggestions(suggestions);
+      loadPhotos(suggestions);
       cacheRef.current.set(q, { t: Date.now(), data: suggestions });
       // Persist for both inputs to use after reloads
       persistCache();
@@ -255,6 +275,7 @@ export default function SearchForm({ onSearch }) {
               <SuggestionItem
                 key={idx}
                 item={item}
+                photoUrl={photos[item.nconst]}
                 onClick={() => handleSuggestionClick(field, item)}
               />
             ))}
@@ -290,27 +311,10 @@ export default function SearchForm({ onSearch }) {
 }
 
 // Suggestion item component with photo
-function SuggestionItem({ item, onClick }) {
-  const [photoUrl, setPhotoUrl] = useState(null);
-  const [photoLoading, setPhotoLoading] = useState(true);
-
-  useEffect(() => {
-    const fetchPhoto = async () => {
-      try {
-        const response = await fetch(`/api/celebrity-photo?celebrityId=${encodeURIComponent(item.nconst)}&celebrityName=${encodeURIComponent(item.name || '')}`);
-        const data = await response.json();
-        if (data.photoUrl) {
-          setPhotoUrl(data.photoUrl);
-        }
-      } catch (error) {
-        console.log('Error fetching photo:', error);
-      } finally {
-        setPhotoLoading(false);
-      }
-    };
-
-    fetchPhoto();
-  }, [item.nconst, item.name]);
+// photoUrl is undefined while the batch lookup is pending, "" when there is no photo
+function SuggestionItem({ item, photoUrl, onClick }) {
+  const [imageFailed, setImageFailed] = useState(false);
+  const photoLoading = photoUrl === undefined;
 
   return (
     <li
@@ -320,14 +324,14 @@ function SuggestionItem({ item, onClick }) {
       <div className="w-8 h-8 rounded-lg bg-blue-800 flex items-center justify-center text-xs overflow-hidden">
         {photoLoading ? (
           <div className="w-full h-full bg-gray-600 animate-pulse" />
-        ) : photoUrl ? (
+        ) : photoUrl && !imageFailed ? (
           <Image
             src={photoUrl}
             alt={item.name}
             width={32}
             height={32}
             className="w-full h-full object-cover rounded-lg"
-            onError={() => setPhotoUrl(null)}
+            onError={() => setImageFailed(true)}
           />
         ) : (
           item.name.charAt(0)